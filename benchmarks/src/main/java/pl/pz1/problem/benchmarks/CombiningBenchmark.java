@@ -0,0 +1,139 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares writers submitting small writes to be combined into shared writer phases with writers each going
+ * through a writer phase of their own, next to readers of the same library.
+ * Every trial also prints how many writes a combined writer phase applied on average.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CombiningBenchmark {
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"4"})
+    public int capacity;
+
+    /**
+     * Length of the work done by a reader inside the library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"100"})
+    public long readerWork;
+
+    private Library library;
+    private long value;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(capacity, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identities of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(CombiningBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Writers submitting their writes to the combiner.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("combined")
+    @GroupThreads(4)
+    public void writeCombined(Participant participant) throws InterruptedException {
+        library.write(participant.writer, () -> value++);
+    }
+
+    /**
+     * Readers next to the combined writers.
+     *
+     * @param participant identity of the benchmark thread
+     * @return value read, consumed by JMH
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("combined")
+    @GroupThreads(2)
+    public long readNextToCombined(Participant participant) throws InterruptedException {
+        return read(participant);
+    }
+
+    /**
+     * Writers entering the library for every write.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("exclusive")
+    @GroupThreads(4)
+    public void writeExclusive(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        value++;
+        library.stopWriting(participant.writer);
+    }
+
+    /**
+     * Readers next to the exclusive writers.
+     *
+     * @param participant identity of the benchmark thread
+     * @return value read, consumed by JMH
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("exclusive")
+    @GroupThreads(2)
+    public long readNextToExclusive(Participant participant) throws InterruptedException {
+        return read(participant);
+    }
+
+    /**
+     * Prints how many writes a writer phase of the combiner applied on average during the trial.
+     */
+    @TearDown(Level.Trial)
+    public void printBatch() {
+        long phases = library.getCombiner().getPhases();
+        if (phases > 0) {
+            System.out.printf("%nWrites per combined writer phase: %.2f%n",
+                    library.getCombiner().getOperations() / (double) phases);
+        }
+    }
+
+    private long read(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        try {
+            Blackhole.consumeCPU(readerWork);
+            return value;
+        }
+        finally {
+            library.stopReading(participant.reader);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.fairness.FairnessType;
+import pl.pz1.problem.metrics.ServiceLevelSnapshot;
+import pl.pz1.problem.queue.PriorityClass;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the strict order of arrival with earliest deadline first for an overloaded library shared by
+ * latency-critical readers, ordinary writers and batch readers, which visit it without any rest outside.
+ * Besides the throughput per class, every trial prints how many visits of each class missed the objective
+ * of its {@link PriorityClass} and how late they were.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DeadlineBenchmark {
+    /**
+     * Policy under test.
+     */
+    @Param({"FIFO", "EARLIEST_DEADLINE"})
+    public FairnessType fairness;
+
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"2"})
+    public int capacity;
+
+    /**
+     * Length of the work done inside the library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"20000"})
+    public long criticalSection;
+
+    private Library library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(capacity, fairness.create(), NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Prints the misses of the objective of every class over the whole trial.
+     */
+    @TearDown(Level.Trial)
+    public void printServiceLevels() {
+        for (PriorityClass priority : PriorityClass.values()) {
+            ServiceLevelSnapshot level = library.getMetrics().serviceLevel(priority);
+            System.out.printf(Locale.ROOT, "%n%s %s: visits %d, missed %.1f%%, wait p99 %.2f ms, late p99 %.2f ms",
+                    fairness, priority, level.getAdmitted(), 100 * level.getMissRatio(),
+                    millis(level.getWaitTimes().getValueAtPercentile(99)),
+                    millis(level.getLateness().getValueAtPercentile(99)));
+        }
+        System.out.println();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Identities of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(DeadlineBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Latency-critical readers.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(2)
+    public void criticalRead(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader, PriorityClass.CRITICAL);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+    }
+
+    /**
+     * Ordinary writers.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(2)
+    public void normalWrite(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer, PriorityClass.NORMAL);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopWriting(participant.writer);
+    }
+
+    /**
+     * Batch readers.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(4)
+    public void batchRead(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader, PriorityClass.BATCH);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+    }
+}
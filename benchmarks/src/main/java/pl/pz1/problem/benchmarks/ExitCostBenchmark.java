@@ -0,0 +1,57 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the cost of entering and leaving grows with the number of readers already inside.
+ * The library is filled with all but one of its places taken, then a single probe reader enters and leaves it,
+ * so the measured time shows whether membership checks depend on how crowded the library is.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExitCostBenchmark {
+    /**
+     * Engine under test.
+     */
+    @Param({"MONITOR", "FAIR", "LOCK_FREE", "STRIPED"})
+    public EngineType engine;
+
+    /**
+     * The maximum number of readers allowed at the same time, all but one of them stay inside.
+     */
+    @Param({"10", "1000", "100000"})
+    public int capacity;
+
+    private LibraryEngine library;
+    private Identifier probe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        library = engine.create(capacity, NoOpEventSink.INSTANCE);
+        for (int i = 1; i < capacity; i++) {
+            library.startReading(new Identifier(i, Identifier.READER));
+        }
+        probe = new Identifier(capacity, Identifier.READER);
+    }
+
+    /**
+     * Probe reader entering and leaving a library crowded with other readers.
+     *
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    public void enterAndLeave() throws InterruptedException {
+        library.startReading(probe);
+        library.stopReading(probe);
+    }
+}
@@ -0,0 +1,106 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.fairness.FairnessType;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares fairness policies of the Library under a steady mix of readers and writers.
+ * Readers and writers run on separate threads of one JMH group, so the throughput is reported per role
+ * and shows which role a policy favours and how much overall concurrency it gives up for that.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FairnessBenchmark {
+    /**
+     * Policy under test.
+     */
+    @Param({"FIFO", "READER_PREFERENCE", "WRITER_PREFERENCE", "PHASE_FAIR"})
+    public FairnessType fairness;
+
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"4"})
+    public int capacity;
+
+    /**
+     * Length of the work done inside the library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"100"})
+    public long criticalSection;
+
+    /**
+     * Length of the work done outside the library between visits, in {@link Blackhole#consumeCPU(long)} tokens.
+     * Without it the readers never leave the library all at once and reader preference would starve
+     * the writers completely, so the measurement iteration could not end.
+     */
+    @Param({"200"})
+    public long thinkTime;
+
+    private Library library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(capacity, fairness.create(), NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identities of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(FairnessBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Readers of the mixed group, entering and leaving over and over.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public void read(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+        Blackhole.consumeCPU(thinkTime);
+    }
+
+    /**
+     * Writers of the mixed group, entering and leaving over and over.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void write(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopWriting(participant.writer);
+        Blackhole.consumeCPU(thinkTime);
+    }
+}
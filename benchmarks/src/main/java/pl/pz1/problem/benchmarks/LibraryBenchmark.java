@@ -0,0 +1,140 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives Library engines directly, without the sleeps of Reader and Writer, so only the lock itself is measured.
+ * Every benchmark thread acts as a reader or a writer on each operation, according to {@link #readPercent}.
+ * The number of threads is chosen with the JMH {@code -t} option, for example {@code -t 8}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LibraryBenchmark {
+    /**
+     * Engine under test.
+     */
+    @Param({"MONITOR", "FAIR", "LOCK_FREE", "STRIPED"})
+    public EngineType engine;
+
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"8"})
+    public int capacity;
+
+    /**
+     * Percentage of operations performed as a reader, the rest are writes.
+     */
+    @Param({"90"})
+    public int readPercent;
+
+    /**
+     * Length of the work done inside the library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"0", "100"})
+    public long criticalSection;
+
+    private LibraryEngine library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = engine.create(capacity, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identity of a single benchmark thread, which can act both as a reader and as a writer.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+        private LibraryBenchmark benchmark;
+        private boolean writing;
+
+        @Setup(Level.Trial)
+        public void setUp(LibraryBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+            this.benchmark = benchmark;
+        }
+
+        /**
+         * Enters the library in the role drawn for this operation.
+         *
+         * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+         */
+        void enter() throws InterruptedException {
+            writing = ThreadLocalRandom.current().nextInt(100) >= benchmark.readPercent;
+            if (writing) {
+                benchmark.library.startWriting(writer);
+            }
+            else {
+                benchmark.library.startReading(reader);
+            }
+        }
+
+        /**
+         * Works inside the library for the configured time and leaves it.
+         */
+        void leave() {
+            Blackhole.consumeCPU(benchmark.criticalSection);
+            if (writing) {
+                benchmark.library.stopWriting(writer);
+            }
+            else {
+                benchmark.library.stopReading(reader);
+            }
+        }
+    }
+
+    /**
+     * Participant whose leaving happens outside the measured part, so only the admission is timed.
+     */
+    @State(Scope.Thread)
+    public static class Admission extends Participant {
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            leave();
+        }
+    }
+
+    /**
+     * Full enter, work and leave cycle, reported as operations per second.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void cycle(Participant participant) throws InterruptedException {
+        participant.enter();
+        participant.leave();
+    }
+
+    /**
+     * Time from asking for access until getting in, sampled to report latency percentiles.
+     *
+     * @param admission identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void admission(Admission admission) throws InterruptedException {
+        admission.enter();
+    }
+}
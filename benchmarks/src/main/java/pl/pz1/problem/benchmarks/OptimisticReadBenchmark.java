@@ -0,0 +1,130 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares optimistic reads, validated by a stamp of the Library, with readers entering the Library,
+ * for a tiny guarded value and rare writes. Both groups read the same pair of fields a writer keeps equal;
+ * the {@code optimistic} readers enter only when a writer interfered with their read.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OptimisticReadBenchmark {
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"4"})
+    public int capacity;
+
+    /**
+     * Length of the work done by the writer outside the library between writes,
+     * in {@link Blackhole#consumeCPU(long)} tokens, which keeps writing rare.
+     */
+    @Param({"10000"})
+    public long writerThinkTime;
+
+    private Library library;
+    private long first;
+    private long second;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(capacity, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identities of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(OptimisticReadBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Readers validating a stamp instead of entering.
+     *
+     * @param participant identity of the benchmark thread
+     * @return sum of the pair read, consumed by JMH
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("optimistic")
+    @GroupThreads(4)
+    public long readOptimistically(Participant participant) throws InterruptedException {
+        return library.read(participant.reader, () -> first + second);
+    }
+
+    /**
+     * Writer next to the optimistic readers.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("optimistic")
+    @GroupThreads(1)
+    public void writeNextToOptimistic(Participant participant) throws InterruptedException {
+        write(participant);
+    }
+
+    /**
+     * Readers entering the library for every read.
+     *
+     * @param participant identity of the benchmark thread
+     * @return sum of the pair read, consumed by JMH
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(4)
+    public long readInside(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        try {
+            return first + second;
+        }
+        finally {
+            library.stopReading(participant.reader);
+        }
+    }
+
+    /**
+     * Writer next to the readers entering the library.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void writeNextToLocked(Participant participant) throws InterruptedException {
+        write(participant);
+    }
+
+    private void write(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        first++;
+        second++;
+        library.stopWriting(participant.writer);
+        Blackhole.consumeCPU(writerThinkTime);
+    }
+}
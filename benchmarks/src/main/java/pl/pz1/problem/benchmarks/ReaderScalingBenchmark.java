@@ -0,0 +1,92 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shows how reading scales with the number of threads when there are no writers at all
+ * and the capacity is large enough for every thread, so nobody ever waits.
+ * Any loss of scaling comes from the engine's own bookkeeping of those inside.
+ * Running the class itself sweeps 1, 2, 4, ... 128 threads; any JMH option given on the command line,
+ * such as {@code -p engine=STRIPED}, applies to every step of the sweep.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReaderScalingBenchmark {
+    /**
+     * Greatest number of threads of the sweep.
+     */
+    private static final int MAX_THREADS = 128;
+
+    /**
+     * Engine under test.
+     */
+    @Param({"MONITOR", "FAIR", "LOCK_FREE", "STRIPED"})
+    public EngineType engine;
+
+    private LibraryEngine library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = engine.create(MAX_THREADS, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identity of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+
+        @Setup(Level.Trial)
+        public void setUp(ReaderScalingBenchmark benchmark) {
+            reader = new Identifier(benchmark.ids.incrementAndGet(), Identifier.READER);
+        }
+    }
+
+    /**
+     * Reader entering and leaving at once, reported as operations per microsecond of every thread together.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    public void read(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        library.stopReading(participant.reader);
+    }
+
+    /**
+     * Runs the benchmark once for every number of threads of the sweep.
+     *
+     * @param args JMH command line options applied to every run
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     * @throws RunnerException If a benchmark run fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        for (int threads = 1; threads <= MAX_THREADS; threads <<= 1) {
+            new Runner(new OptionsBuilder()
+                    .parent(options)
+                    .include(ReaderScalingBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
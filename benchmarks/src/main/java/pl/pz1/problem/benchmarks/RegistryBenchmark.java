@@ -0,0 +1,106 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.registry.KeyDistribution;
+import pl.pz1.problem.registry.LibraryRegistry;
+import pl.pz1.problem.registry.UniformKeyDistribution;
+import pl.pz1.problem.registry.ZipfKeyDistribution;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shows how throughput changes when contention spreads over the libraries of many keys instead of a single one.
+ * Every visit goes to a key drawn from the popularity of keys; with Zipf popularity a few hot keys
+ * keep most of the contention however many keys there are.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegistryBenchmark {
+    /**
+     * Number of keys, each guarded by a library of its own.
+     */
+    @Param({"1", "16", "1024"})
+    public int keys;
+
+    /**
+     * Popularity of keys, {@code uniform} or {@code zipf} with exponent 1.
+     */
+    @Param({"uniform", "zipf"})
+    public String popularity;
+
+    /**
+     * Length of the work done inside a library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"50"})
+    public long criticalSection;
+
+    private LibraryRegistry<Integer> registry;
+    private KeyDistribution distribution;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new LibraryRegistry<>(4, keys);
+        distribution = popularity.equals("zipf")
+                ? new ZipfKeyDistribution(keys, 1.0)
+                : new UniformKeyDistribution(keys);
+    }
+
+    /**
+     * Identities and generator of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(RegistryBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            reader = new Identifier(id, Identifier.READER);
+            writer = new Identifier(id, Identifier.WRITER);
+            random = new SplittableRandom(id);
+        }
+    }
+
+    /**
+     * Readers visiting keys drawn from the popularity.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("keyed")
+    @GroupThreads(3)
+    public void read(Participant participant) throws InterruptedException {
+        Integer key = distribution.nextKey(participant.random);
+        registry.get(key).startReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        registry.get(key).stopReading(participant.reader);
+    }
+
+    /**
+     * Writers visiting keys drawn from the popularity.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("keyed")
+    @GroupThreads(1)
+    public void write(Participant participant) throws InterruptedException {
+        Integer key = distribution.nextKey(participant.random);
+        registry.get(key).startWriting(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        registry.get(key).stopWriting(participant.writer);
+    }
+}
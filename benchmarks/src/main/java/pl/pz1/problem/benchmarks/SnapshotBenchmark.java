@@ -0,0 +1,139 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.engines.SnapshotLibrary;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the latency of reads and the cost of writes of a {@link SnapshotLibrary}, whose readers never wait
+ * and whose writers copy the data, with locking engines, whose writers change the data in place but hold readers
+ * back meanwhile. Readers sum an array of longs, a writer changes one of them. The snapshot engine recycles
+ * replaced arrays once their readers have left, so writes copy without allocating.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotBenchmark {
+    /**
+     * Engine guarding the data.
+     */
+    @Param({"MONITOR", "STRIPED", "SNAPSHOT"})
+    public EngineType engine;
+
+    /**
+     * Number of longs in the data.
+     */
+    @Param({"64", "4096"})
+    public int size;
+
+    private LibraryEngine library;
+    private SnapshotLibrary<long[]> snapshots;
+    private long[] data;
+    private final Queue<long[]> recycled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = new long[size];
+        if (engine == EngineType.SNAPSHOT) {
+            snapshots = new SnapshotLibrary<>(4, NoOpEventSink.INSTANCE, data, recycled::add);
+            library = snapshots;
+        }
+        else {
+            library = engine.create(4, NoOpEventSink.INSTANCE);
+        }
+    }
+
+    /**
+     * Identities and generator of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(SnapshotBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+            this.random = new SplittableRandom(id);
+        }
+    }
+
+    /**
+     * Readers summing the data.
+     *
+     * @param participant identity of the benchmark thread
+     * @return sum of the data
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public long read(Participant participant) throws InterruptedException {
+        if (snapshots != null) {
+            return snapshots.read(participant.reader, SnapshotBenchmark::sum);
+        }
+        library.startReading(participant.reader);
+        try {
+            return sum(data);
+        }
+        finally {
+            library.stopReading(participant.reader);
+        }
+    }
+
+    /**
+     * Writer changing a single long, in place or in a copy.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void write(Participant participant) throws InterruptedException {
+        int index = participant.random.nextInt(size);
+        if (snapshots != null) {
+            snapshots.update(participant.writer, version -> {
+                long[] next = recycled.poll();
+                if (next == null) {
+                    next = new long[size];
+                }
+                System.arraycopy(version, 0, next, 0, size);
+                next[index]++;
+                return next;
+            });
+            return;
+        }
+        library.startWriting(participant.writer);
+        try {
+            data[index]++;
+        }
+        finally {
+            library.stopWriting(participant.writer);
+        }
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,79 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.metrics.LibraryMetrics;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.waiting.WaitStrategyType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares waiting strategies of the Library for holding times from a microsecond to a millisecond.
+ * Writers take turns in the library, so every one of them but the holder waits; with short holding times
+ * a spinning waiter is admitted without being woken up, with long ones it should park like a blocking one.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpinWaitBenchmark {
+    /**
+     * Waiting strategy of the library.
+     */
+    @Param({"BLOCKING", "ADAPTIVE"})
+    public WaitStrategyType strategy;
+
+    /**
+     * How long a writer stays inside, busy, in nanoseconds.
+     */
+    @Param({"1000", "10000", "100000", "1000000"})
+    public long holdNanos;
+
+    private Library library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(1, new FifoPolicy(), NoOpEventSink.INSTANCE, new LibraryMetrics(), strategy.create());
+    }
+
+    /**
+     * Identity of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(SpinWaitBenchmark benchmark) {
+            this.writer = new Identifier(benchmark.ids.incrementAndGet(), Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Enters the library, stays busy inside for the holding time and leaves.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Threads(4)
+    public void write(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        try {
+            long until = System.nanoTime() + holdNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+        finally {
+            library.stopWriting(participant.writer);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.store.RecordStore;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.workload.RecordAccessWorkload;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures engines guarding a memory-mapped {@link RecordStore} which readers and writers really access
+ * on every visit, the way {@link RecordAccessWorkload} makes them, for accesses from a cache line to far more
+ * than a cache holds. Multiplying the throughput by the size of an access gives the bandwidth achieved.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StoreBenchmark {
+    /**
+     * Engine guarding the store.
+     */
+    @Param({"MONITOR", "STRIPED"})
+    public EngineType engine;
+
+    /**
+     * Bytes read or written on every visit.
+     */
+    @Param({"64", "4096", "262144"})
+    public int accessBytes;
+
+    /**
+     * Number of records of 4 KiB in the store, 64 MiB by default.
+     */
+    @Param({"16384"})
+    public int records;
+
+    private LibraryEngine library;
+    private RecordStore store;
+    private Path file;
+    private RecordAccessWorkload readers;
+    private RecordAccessWorkload writers;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        library = engine.create(4, NoOpEventSink.INSTANCE);
+        file = Files.createTempFile("records", ".bin");
+        store = new RecordStore(file, records, 4096);
+        readers = new RecordAccessWorkload(WorkloadProfile.NO_SLEEP, store, accessBytes, false);
+        writers = new RecordAccessWorkload(WorkloadProfile.NO_SLEEP, store, accessBytes, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Identities and generator of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(StoreBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+            this.random = new SplittableRandom(id);
+        }
+    }
+
+    /**
+     * Readers reading through read-only views of the mapping.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("store")
+    @GroupThreads(3)
+    public void read(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        try {
+            readers.visit(participant.random);
+        }
+        finally {
+            library.stopReading(participant.reader);
+        }
+    }
+
+    /**
+     * Writer overwriting records in place.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("store")
+    @GroupThreads(1)
+    public void write(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        try {
+            writers.visit(participant.random);
+        }
+        finally {
+            library.stopWriting(participant.writer);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares changing the role inside the Library with leaving and entering again.
+ * A modifier reads and then writes, or writes and then reads, among plain readers;
+ * the {@code upgrade} and {@code downgrade} groups keep their place, the {@code reacquire} and {@code release}
+ * groups queue again at the back for the second half of the visit.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UpgradeBenchmark {
+    /**
+     * The maximum number of readers allowed at the same time.
+     */
+    @Param({"4"})
+    public int capacity;
+
+    /**
+     * Length of each half of the work done inside the library, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"100"})
+    public long criticalSection;
+
+    /**
+     * Length of the work done outside the library between visits, in {@link Blackhole#consumeCPU(long)} tokens.
+     */
+    @Param({"200"})
+    public long thinkTime;
+
+    private Library library;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        library = new Library(capacity, NoOpEventSink.INSTANCE);
+    }
+
+    /**
+     * Identities of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+        private Identifier writer;
+
+        @Setup(Level.Trial)
+        public void setUp(UpgradeBenchmark benchmark) {
+            int id = benchmark.ids.incrementAndGet();
+            this.reader = new Identifier(id, Identifier.READER);
+            this.writer = new Identifier(id, Identifier.WRITER);
+        }
+    }
+
+    /**
+     * Plain readers next to the modifier which upgrades.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("upgrade")
+    @GroupThreads(3)
+    public void readNextToUpgrade(Participant participant) throws InterruptedException {
+        read(participant);
+    }
+
+    /**
+     * Modifier reading as the upgradable reader and upgrading to write.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("upgrade")
+    @GroupThreads(1)
+    public void upgrade(Participant participant) throws InterruptedException {
+        library.startUpgradableReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.upgrade(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopWriting(participant.reader);
+        Blackhole.consumeCPU(thinkTime);
+    }
+
+    /**
+     * Plain readers next to the modifier which leaves and enters again as a writer.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("reacquire")
+    @GroupThreads(3)
+    public void readNextToReacquire(Participant participant) throws InterruptedException {
+        read(participant);
+    }
+
+    /**
+     * Modifier reading, leaving and queueing again to write.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("reacquire")
+    @GroupThreads(1)
+    public void reacquire(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+        library.startWriting(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopWriting(participant.writer);
+        Blackhole.consumeCPU(thinkTime);
+    }
+
+    /**
+     * Plain readers next to the modifier which downgrades.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("downgrade")
+    @GroupThreads(3)
+    public void readNextToDowngrade(Participant participant) throws InterruptedException {
+        read(participant);
+    }
+
+    /**
+     * Modifier writing and downgrading to read what it wrote.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("downgrade")
+    @GroupThreads(1)
+    public void downgrade(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        library.downgrade(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.writer);
+        Blackhole.consumeCPU(thinkTime);
+    }
+
+    /**
+     * Plain readers next to the modifier which leaves and enters again as a reader.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("release")
+    @GroupThreads(3)
+    public void readNextToRelease(Participant participant) throws InterruptedException {
+        read(participant);
+    }
+
+    /**
+     * Modifier writing, leaving and queueing again to read.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("release")
+    @GroupThreads(1)
+    public void release(Participant participant) throws InterruptedException {
+        library.startWriting(participant.writer);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopWriting(participant.writer);
+        library.startReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+        Blackhole.consumeCPU(thinkTime);
+    }
+
+    private void read(Participant participant) throws InterruptedException {
+        library.startReading(participant.reader);
+        Blackhole.consumeCPU(criticalSection);
+        library.stopReading(participant.reader);
+        Blackhole.consumeCPU(thinkTime);
+    }
+}
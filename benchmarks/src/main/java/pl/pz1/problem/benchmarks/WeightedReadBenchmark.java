@@ -0,0 +1,112 @@
+package pl.pz1.problem.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares readers weighing what they cost with readers taking one place each, under a mix of cheap point
+ * lookups and costly scans sharing the same budget of the guarded resource.
+ * With {@code WEIGHTED} readers the capacity is the budget itself, lookups take one place and scans as many
+ * as they cost. With {@code UNIFORM} readers every reader has to be counted as a scan to stay within the budget,
+ * so at most the budget divided by the cost of a scan read at the same time, even if all of them look up.
+ */
+@State(Scope.Group)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeightedReadBenchmark {
+    /**
+     * How readers take places: {@code WEIGHTED} or {@code UNIFORM}.
+     */
+    @Param({"WEIGHTED", "UNIFORM"})
+    public String permits;
+
+    /**
+     * Budget of the guarded resource, in costs of a lookup.
+     */
+    @Param({"8"})
+    public int budget;
+
+    /**
+     * Cost of a scan, in costs of a lookup.
+     */
+    @Param({"4"})
+    public int scanWeight;
+
+    /**
+     * Work done by a lookup inside the library, in {@link Blackhole#consumeCPU(long)} tokens;
+     * a scan does as much times its weight.
+     */
+    @Param({"100"})
+    public long lookupWork;
+
+    private Library library;
+    private int lookupPlaces;
+    private int scanPlaces;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean weighted = permits.equals("WEIGHTED");
+        library = new Library(weighted ? budget : budget / scanWeight, NoOpEventSink.INSTANCE);
+        lookupPlaces = 1;
+        scanPlaces = weighted ? scanWeight : 1;
+    }
+
+    /**
+     * Identity of a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Participant {
+        private Identifier reader;
+
+        @Setup(Level.Trial)
+        public void setUp(WeightedReadBenchmark benchmark) {
+            this.reader = new Identifier(benchmark.ids.incrementAndGet(), Identifier.READER);
+        }
+    }
+
+    /**
+     * Cheap point lookups.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public void lookup(Participant participant) throws InterruptedException {
+        read(participant, lookupPlaces, lookupWork);
+    }
+
+    /**
+     * Costly scans.
+     *
+     * @param participant identity of the benchmark thread
+     * @throws InterruptedException If the benchmark thread is interrupted while waiting.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void scan(Participant participant) throws InterruptedException {
+        read(participant, scanPlaces, lookupWork * scanWeight);
+    }
+
+    private void read(Participant participant, int places, long work) throws InterruptedException {
+        library.startReading(participant.reader, places);
+        try {
+            Blackhole.consumeCPU(work);
+        }
+        finally {
+            library.stopReading(participant.reader);
+        }
+    }
+}
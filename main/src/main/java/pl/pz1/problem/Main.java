@@ -1,16 +1,60 @@
 package pl.pz1.problem;
 
+import pl.pz1.problem.engines.EngineType;
+import pl.pz1.problem.events.AsyncEventSink;
+import pl.pz1.problem.events.FormattingEventWriter;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.events.PolishEventFormatter;
+import pl.pz1.problem.events.trace.BinaryTraceReader;
+import pl.pz1.problem.events.trace.BinaryTraceWriter;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.metrics.FileMetricsExporter;
+import pl.pz1.problem.metrics.JmxMetricsExporter;
+import pl.pz1.problem.metrics.MetricsExporter;
+import pl.pz1.problem.registry.KeyDistribution;
+import pl.pz1.problem.registry.LibraryRegistry;
+import pl.pz1.problem.registry.UniformKeyDistribution;
+import pl.pz1.problem.registry.ZipfKeyDistribution;
+import pl.pz1.problem.simulation.DiscreteEventSimulation;
+import pl.pz1.problem.simulation.SimulationReport;
+import pl.pz1.problem.store.RecordStore;
+import pl.pz1.problem.trace.TraceAnalyzer;
+import pl.pz1.problem.trace.TraceReport;
+import pl.pz1.problem.visitors.LibrarySelector;
 import pl.pz1.problem.visitors.Reader;
+import pl.pz1.problem.visitors.ReaderTask;
 import pl.pz1.problem.visitors.Writer;
+import pl.pz1.problem.visitors.WriterTask;
+import pl.pz1.problem.visitors.pool.ParticipantPool;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.RecordAccessWorkload;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+import pl.pz1.problem.visitors.workload.WorkloadTrace;
+import pl.pz1.problem.visitors.workload.WorkloadType;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Main class to simulate the Readers and Writers problem using a Library system.
  * Users specify the library capacity, the number of readers, and the number of writers.
  * Each reader and writer runs in its own thread, accessing the shared Library.
+ * With {@code --threads=virtual} those threads are virtual, which allows simulating hundreds of thousands of them.
  */
 public class Main {
+    /**
+     * How many libraries of resources given by {@link SimulationOptions#KEYS} are kept when nobody uses them.
+     */
+    private static final int MAX_IDLE_LIBRARIES = 1024;
+
     /**
      * Main entry point of the program.
      * Initializes the library, creates threads for readers and writers, and starts the simulation.
@@ -18,13 +62,336 @@ public class Main {
      * @param args Command-line arguments passed by user
      */
     public static void main(String[] args) {
-        int[] parameters = askForParameters(args);
+        SimulationOptions options = SimulationOptions.parse(args);
+        if (options.get(SimulationOptions.ANALYZE, null) != null) {
+            System.out.println(analyze(options).describe());
+            return;
+        }
+        int[] parameters = askForParameters(options.getPositional());
+        if (options.get(SimulationOptions.SIMULATE, null) != null) {
+            System.out.println(simulate(parameters, options).describe());
+            return;
+        }
+
+        LibrarySelector libraries = createSelector(parameters[0], options);
+        SeededRandomSource randomSource = createRandomSource(options);
+        System.out.println("Ziarno losowania: " + randomSource.getMasterSeed());
+        RecordStore store = createStore(options);
+        WorkloadProfile writerWorkload = accessStore(createWorkload(options, true), store, options, true);
+        WorkloadProfile readerWorkload = accessStore(createWorkload(options, false), store, options, false);
+        String threads = options.get(SimulationOptions.THREADS, "platform");
+        if (threads.startsWith("pool")) {
+            startPool(poolWorkers(threads), parameters[1], parameters[2], libraries, randomSource,
+                    writerWorkload, readerWorkload);
+        }
+        else if (threads.equals("virtual")) {
+            WriterTask[] writers = generateWriterTasks(parameters[1], libraries, randomSource, writerWorkload);
+            ReaderTask[] readers = generateReaderTasks(parameters[2], libraries, randomSource, readerWorkload);
+
+            awaitAll(initializeVirtual(writers, readers));
+        }
+        else {
+            Writer[] writers = generateWriters(parameters[1], libraries, randomSource, writerWorkload);
+            Reader[] readers = generateReaders(parameters[2], libraries, randomSource, readerWorkload);
+
+            initialize(writers, readers);
+        }
+    }
+
+    /**
+     * Creates the Library engine and its sink of events chosen by the options.
+     *
+     * @param capacity the maximum number of readers allowed at the same time.
+     * @param options options passed by user from command line
+     * @return the shared Library engine
+     */
+    public static LibraryEngine createLibrary(int capacity, SimulationOptions options) {
+        return createEngineFactory(capacity, options).get();
+    }
+
+    /**
+     * Returns the type of Library engines chosen by the options.
+     *
+     * @param options options passed by user from command line
+     * @return chosen type, the monitor by default
+     * @throws IllegalArgumentException If no engine has the given name.
+     */
+    public static EngineType engineType(SimulationOptions options) {
+        return EngineType.valueOf(options.get(SimulationOptions.ENGINE, "monitor").toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Creates the factory of Library engines chosen by the options. Engines of one factory share a single
+     * asynchronous sink of events, if the options ask for one.
+     *
+     * @param capacity the maximum number of readers allowed at the same time.
+     * @param options options passed by user from command line
+     * @return factory of Library engines
+     */
+    public static Supplier<LibraryEngine> createEngineFactory(int capacity, SimulationOptions options) {
+        EngineType engine = engineType(options);
+        String destination = options.get(SimulationOptions.EVENTS, "console");
+        if (destination.startsWith("trace:")) {
+            LibraryEventSink events = createTraceSink(Path.of(destination.substring("trace:".length())));
+            return () -> engine.create(capacity, events);
+        }
+        return switch (destination) {
+            case "async" -> {
+                LibraryEventSink events = new AsyncEventSink(1 << 16,
+                        new FormattingEventWriter(System.out, new PolishEventFormatter()));
+                yield () -> engine.create(capacity, events);
+            }
+            case "none" -> () -> engine.create(capacity, NoOpEventSink.INSTANCE);
+            default -> () -> engine.create(capacity);
+        };
+    }
+
+    /**
+     * Creates the sink recording events into a binary trace file through an asynchronous ring buffer.
+     * The trace is completed and closed when the program exits.
+     *
+     * @param file trace file, replaced if it exists
+     * @return sink of events
+     * @throws UncheckedIOException If the file cannot be created.
+     */
+    public static AsyncEventSink createTraceSink(Path file) {
+        BinaryTraceWriter trace;
+        try {
+            trace = new BinaryTraceWriter(file);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Nie można utworzyć pliku śladu: " + file, e);
+        }
+        AsyncEventSink events = new AsyncEventSink(1 << 16, trace);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            events.close();
+            try {
+                trace.close();
+            }
+            catch (IOException e) {
+                System.err.println("Nie można zamknąć pliku śladu: " + file);
+            }
+        }));
+        return events;
+    }
+
+    /**
+     * Analyzes a binary trace of the library given in the options.
+     *
+     * @param options options passed by user from command line
+     * @return what the trace shows
+     * @throws UncheckedIOException If the trace cannot be read.
+     * @throws NumberFormatException If the threshold of starvation is not a number.
+     */
+    public static TraceReport analyze(SimulationOptions options) {
+        Path file = Path.of(options.get(SimulationOptions.ANALYZE, ""));
+        long starvation = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(options.get(SimulationOptions.STARVATION,
+                "5000")));
+        try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+            return new TraceAnalyzer(starvation, TimeUnit.SECONDS.toNanos(1)).analyze(reader);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Nie można odczytać śladu zdarzeń: " + file, e);
+        }
+    }
+
+    /**
+     * Creates the selector of libraries visited by readers and writers: the single shared library,
+     * exporting its metrics if the options ask for it, or the libraries of many resources if the options give
+     * their number.
+     *
+     * @param capacity the maximum number of readers of a single library allowed at the same time.
+     * @param options options passed by user from command line
+     * @return selector of the library of every visit
+     * @throws IllegalArgumentException If the number of resources or their popularity is malformed,
+     *                                  or metrics are asked for many resources.
+     */
+    public static LibrarySelector createSelector(int capacity, SimulationOptions options) {
+        String keys = options.get(SimulationOptions.KEYS, null);
+        if (keys == null) {
+            LibraryEngine library = createLibrary(capacity, options);
+            exportMetrics(library, options);
+            return LibrarySelector.of(library);
+        }
+        if (options.get(SimulationOptions.METRICS, null) != null) {
+            throw new IllegalArgumentException("Metryki zbiera tylko pojedyncza biblioteka.");
+        }
+        KeyDistribution popularity = createPopularity(Integer.parseInt(keys), options);
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(createEngineFactory(capacity, options),
+                MAX_IDLE_LIBRARIES);
+        return random -> registry.get(popularity.nextKey(random));
+    }
+
+    /**
+     * Creates the popularity of resources chosen by the options.
+     *
+     * @param keys number of resources
+     * @param options options passed by user from command line
+     * @return popularity of resources
+     * @throws IllegalArgumentException If the popularity is unknown or malformed.
+     */
+    public static KeyDistribution createPopularity(int keys, SimulationOptions options) {
+        String popularity = options.get(SimulationOptions.POPULARITY, "uniform");
+        if (popularity.equals("uniform")) {
+            return new UniformKeyDistribution(keys);
+        }
+        if (popularity.equals("zipf")) {
+            return new ZipfKeyDistribution(keys, 1.0);
+        }
+        if (popularity.startsWith("zipf:")) {
+            return new ZipfKeyDistribution(keys, Double.parseDouble(popularity.substring("zipf:".length())));
+        }
+        throw new IllegalArgumentException("Nieznany rozkład popularności: " + popularity);
+    }
+
+    /**
+     * Simulates the given number of visits in virtual time, with the seed and workload chosen by the options.
+     *
+     * @param parameters library capacity, number of writers and number of readers
+     * @param options options passed by user from command line
+     * @return statistics of the simulation
+     * @throws NumberFormatException If the number of visits is not a number.
+     */
+    public static SimulationReport simulate(int[] parameters, SimulationOptions options) {
+        long visits = Long.parseLong(options.get(SimulationOptions.SIMULATE, "0"));
+        SeededRandomSource randomSource = createRandomSource(options);
+        System.out.println("Ziarno losowania: " + randomSource.getMasterSeed());
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(parameters[0], parameters[1], parameters[2],
+                new FifoPolicy(), randomSource, createWorkload(options, true), createWorkload(options, false));
+        return simulation.run(visits);
+    }
+
+    /**
+     * Creates the source of random times of readers and writers from the master seed given in the options,
+     * or from a new seed if none was given.
+     *
+     * @param options options passed by user from command line
+     * @return source of random times
+     * @throws NumberFormatException If the seed is not a number.
+     */
+    public static SeededRandomSource createRandomSource(SimulationOptions options) {
+        String seed = options.get(SimulationOptions.SEED, null);
+        return seed == null ? SeededRandomSource.withRandomSeed() : new SeededRandomSource(Long.parseLong(seed));
+    }
+
+    /**
+     * Creates the workload of a role chosen by the options.
+     *
+     * @param options options passed by user from command line
+     * @param writer true for the workload of writers, false of readers
+     * @return workload shared by every participant of the role
+     * @throws IllegalArgumentException If the workload is unknown or its trace is malformed.
+     * @throws UncheckedIOException If the trace cannot be read.
+     */
+    public static WorkloadProfile createWorkload(SimulationOptions options, boolean writer) {
+        String workload = options.get(SimulationOptions.WORKLOAD, "uniform");
+        if (!workload.startsWith("trace:")) {
+            return WorkloadType.valueOf(workload.toUpperCase(Locale.ROOT)).profile(writer);
+        }
+        String trace = workload.substring("trace:".length());
+        try {
+            return WorkloadTrace.read(Path.of(trace), writer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Nie można odczytać śladu obciążenia: " + trace, e);
+        }
+    }
+
+    /**
+     * Opens the store of records which the options ask readers and writers to access.
+     * Changes are written back to its file when the program exits.
+     *
+     * @param options options passed by user from command line
+     * @return opened store, or null if none was asked for
+     * @throws IllegalArgumentException If the records are malformed, many resources are asked for
+     *                                  or the engine does not keep readers out while a writer is inside.
+     * @throws UncheckedIOException If the file cannot be opened.
+     */
+    public static RecordStore createStore(SimulationOptions options) {
+        String file = options.get(SimulationOptions.STORE, null);
+        if (file == null) {
+            return null;
+        }
+        if (options.get(SimulationOptions.KEYS, null) != null) {
+            throw new IllegalArgumentException("Magazynu rekordów może strzec tylko pojedyncza biblioteka.");
+        }
+        if (!engineType(options).isExclusive()) {
+            throw new IllegalArgumentException("Silnik " + options.get(SimulationOptions.ENGINE, null)
+                    + " nie wstrzymuje czytelników podczas pisania, więc nie może strzec magazynu rekordów.");
+        }
+        String[] records = options.get(SimulationOptions.RECORDS, "1024x4096").split("x");
+        if (records.length != 2) {
+            throw new IllegalArgumentException("Rekordy podaje się jako <liczba>x<rozmiar>: "
+                    + options.get(SimulationOptions.RECORDS, null));
+        }
+        RecordStore store;
+        try {
+            store = new RecordStore(Path.of(file), Integer.parseInt(records[0]), Integer.parseInt(records[1]));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Nie można otworzyć magazynu rekordów: " + file, e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                store.close();
+            }
+            catch (IOException e) {
+                System.err.println("Nie można zamknąć magazynu rekordów: " + file);
+            }
+        }));
+        return store;
+    }
 
-        Library library = new Library(parameters[0]);
-        Writer[] writers = generateWriters(parameters[1], library);
-        Reader[] readers = generateReaders(parameters[2], library);
+    /**
+     * Makes the participants of a workload read or write the store on every visit.
+     *
+     * @param workload workload of the role
+     * @param store store to access, or null to leave the workload as it is
+     * @param options options passed by user from command line
+     * @param writer true for the workload of writers, false of readers
+     * @return workload accessing the store, or the given one if there is no store
+     * @throws IllegalArgumentException If the size of an access is malformed or larger than the store.
+     */
+    public static WorkloadProfile accessStore(WorkloadProfile workload, RecordStore store, SimulationOptions options,
+                                              boolean writer) {
+        if (store == null) {
+            return workload;
+        }
+        int access = Integer.parseInt(options.get(SimulationOptions.ACCESS, String.valueOf(store.getRecordSize())));
+        return new RecordAccessWorkload(workload, store, access, writer);
+    }
 
-        initialize(writers, readers);
+    /**
+     * Starts exporting the metrics of the library every second, if the options ask for it.
+     * The exporter runs on a daemon thread, so it does not keep the program alive on its own.
+     *
+     * @param library the shared Library engine
+     * @param options options passed by user from command line
+     * @return started exporter, or null if no export was asked for
+     * @throws IllegalArgumentException If the engine records no metrics.
+     * @throws UncheckedIOException If the file of metrics cannot be opened.
+     * @throws IllegalStateException If the metrics cannot be registered in JMX.
+     */
+    public static MetricsExporter exportMetrics(LibraryEngine library, SimulationOptions options) {
+        String destination = options.get(SimulationOptions.METRICS, null);
+        if (destination == null) {
+            return null;
+        }
+        if (!(library instanceof Library monitor)) {
+            throw new IllegalArgumentException("Metryki zbiera tylko silnik monitor.");
+        }
+        try {
+            if (destination.equals("jmx")) {
+                return new JmxMetricsExporter(monitor.getMetrics(), "biblioteka", 1, TimeUnit.SECONDS);
+            }
+            return new FileMetricsExporter(monitor.getMetrics(), Path.of(destination), 1, TimeUnit.SECONDS);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Nie można otworzyć pliku metryk: " + destination, e);
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Nie można zarejestrować metryk w JMX.", e);
+        }
     }
 
     /**
@@ -34,10 +401,25 @@ public class Main {
      * @param library the shared Library instance to be accessed by the writers.
      * @return an array of Writer objects.
      */
-    public static Writer[] generateWriters(int writersNumber, Library library) {
+    public static Writer[] generateWriters(int writersNumber, LibraryEngine library) {
+        return generateWriters(writersNumber, LibrarySelector.of(library), SeededRandomSource.withRandomSeed(),
+                WorkloadType.UNIFORM.profile(true));
+    }
+
+    /**
+     * Generates an array of Writer threads visiting the libraries chosen by the selector.
+     *
+     * @param writersNumber the number of writers to generate.
+     * @param libraries the selector of the library of every visit of the writers.
+     * @param randomSource the source of the generator of every participant.
+     * @param workload the workload shared by every participant.
+     * @return an array of Writer objects.
+     */
+    public static Writer[] generateWriters(int writersNumber, LibrarySelector libraries,
+                                           RandomSource randomSource, WorkloadProfile workload) {
         Writer[] writers = new Writer[writersNumber];
         for (int i = 0; i < writersNumber; i++) {
-            writers[i] = new Writer(library);
+            writers[i] = new Writer(libraries, randomSource, workload);
         }
         return writers;
     }
@@ -49,10 +431,25 @@ public class Main {
      * @param library the shared Library instance to be accessed by the readers.
      * @return an array of Reader objects.
      */
-    public static Reader[] generateReaders(int readersNumber, Library library) {
+    public static Reader[] generateReaders(int readersNumber, LibraryEngine library) {
+        return generateReaders(readersNumber, LibrarySelector.of(library), SeededRandomSource.withRandomSeed(),
+                WorkloadType.UNIFORM.profile(false));
+    }
+
+    /**
+     * Generates an array of Reader threads visiting the libraries chosen by the selector.
+     *
+     * @param readersNumber the number of readers to generate.
+     * @param libraries the selector of the library of every visit of the readers.
+     * @param randomSource the source of the generator of every participant.
+     * @param workload the workload shared by every participant.
+     * @return an array of Reader objects.
+     */
+    public static Reader[] generateReaders(int readersNumber, LibrarySelector libraries,
+                                           RandomSource randomSource, WorkloadProfile workload) {
         Reader[] readers = new Reader[readersNumber];
         for (int i = 0; i < readersNumber; i++) {
-            readers[i] = new Reader(library);
+            readers[i] = new Reader(libraries, randomSource, workload);
         }
         return readers;
     }
@@ -73,6 +470,145 @@ public class Main {
         }
     }
 
+    /**
+     * Generates an array of WriterTask objects, which can run on any kind of thread.
+     *
+     * @param writersNumber the number of writers to generate.
+     * @param library the shared Library instance to be accessed by the writers.
+     * @return an array of WriterTask objects.
+     */
+    public static WriterTask[] generateWriterTasks(int writersNumber, LibraryEngine library) {
+        return generateWriterTasks(writersNumber, LibrarySelector.of(library), SeededRandomSource.withRandomSeed(),
+                WorkloadType.UNIFORM.profile(true));
+    }
+
+    /**
+     * Generates an array of WriterTask objects visiting the libraries chosen by the selector,
+     * which can run on any kind of thread.
+     *
+     * @param writersNumber the number of writers to generate.
+     * @param libraries the selector of the library of every visit of the writers.
+     * @param randomSource the source of the generator of every participant.
+     * @param workload the workload shared by every participant.
+     * @return an array of WriterTask objects.
+     */
+    public static WriterTask[] generateWriterTasks(int writersNumber, LibrarySelector libraries,
+                                                   RandomSource randomSource, WorkloadProfile workload) {
+        WriterTask[] writers = new WriterTask[writersNumber];
+        for (int i = 0; i < writersNumber; i++) {
+            writers[i] = new WriterTask(libraries, randomSource, workload);
+        }
+        return writers;
+    }
+
+    /**
+     * Generates an array of ReaderTask objects, which can run on any kind of thread.
+     *
+     * @param readersNumber the number of readers to generate.
+     * @param library the shared Library instance to be accessed by the readers.
+     * @return an array of ReaderTask objects.
+     */
+    public static ReaderTask[] generateReaderTasks(int readersNumber, LibraryEngine library) {
+        return generateReaderTasks(readersNumber, LibrarySelector.of(library), SeededRandomSource.withRandomSeed(),
+                WorkloadType.UNIFORM.profile(false));
+    }
+
+    /**
+     * Generates an array of ReaderTask objects visiting the libraries chosen by the selector,
+     * which can run on any kind of thread.
+     *
+     * @param readersNumber the number of readers to generate.
+     * @param libraries the selector of the library of every visit of the readers.
+     * @param randomSource the source of the generator of every participant.
+     * @param workload the workload shared by every participant.
+     * @return an array of ReaderTask objects.
+     */
+    public static ReaderTask[] generateReaderTasks(int readersNumber, LibrarySelector libraries,
+                                                   RandomSource randomSource, WorkloadProfile workload) {
+        ReaderTask[] readers = new ReaderTask[readersNumber];
+        for (int i = 0; i < readersNumber; i++) {
+            readers[i] = new ReaderTask(libraries, randomSource, workload);
+        }
+        return readers;
+    }
+
+    /**
+     * Reads the number of workers of the pool from the kind of threads, {@code pool:<workers>},
+     * or gives one worker per processor for plain {@code pool}.
+     *
+     * @param threads kind of threads given by user
+     * @return number of workers
+     * @throws NumberFormatException If the number of workers is not a number.
+     */
+    public static int poolWorkers(String threads) {
+        if (threads.startsWith("pool:")) {
+            return Integer.parseInt(threads.substring("pool:".length()));
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Starts the simulation with every reader and writer a lightweight participant of a pool of workers,
+     * which multiplexes all of them over the given number of threads.
+     *
+     * @param workers number of worker threads
+     * @param writersNumber the number of writers to create
+     * @param readersNumber the number of readers to create
+     * @param libraries the selector of the library of every visit
+     * @param randomSource the source of the generator of every participant
+     * @param writerWorkload the workload shared by every writer
+     * @param readerWorkload the workload shared by every reader
+     * @return the running pool
+     */
+    public static ParticipantPool startPool(int workers, int writersNumber, int readersNumber,
+                                            LibrarySelector libraries, RandomSource randomSource,
+                                            WorkloadProfile writerWorkload, WorkloadProfile readerWorkload) {
+        ParticipantPool pool = new ParticipantPool(workers, libraries, randomSource);
+        for (int i = 0; i < writersNumber; i++) {
+            pool.addWriter(writerWorkload);
+        }
+        for (int i = 0; i < readersNumber; i++) {
+            pool.addReader(readerWorkload);
+        }
+        return pool;
+    }
+
+    /**
+     * Initializes the simulation by starting every WriterTask and ReaderTask on its own virtual thread.
+     *
+     * @param writers an array of WriterTask objects to be started.
+     * @param readers an array of ReaderTask objects to be started.
+     * @return started virtual threads, writers first.
+     */
+    public static Thread[] initializeVirtual(WriterTask[] writers, ReaderTask[] readers) {
+        Thread[] threads = new Thread[writers.length + readers.length];
+        for (int i = 0; i < writers.length; i++) {
+            threads[i] = Thread.ofVirtual().name("Pisarz-" + writers[i].getIdNumber()).start(writers[i]);
+        }
+
+        for (int i = 0; i < readers.length; i++) {
+            threads[writers.length + i] = Thread.ofVirtual().name("Czytelnik-" + readers[i].getIdNumber())
+                    .start(readers[i]);
+        }
+        return threads;
+    }
+
+    /**
+     * Waits for the given threads to finish. Virtual threads do not keep the JVM alive on their own.
+     *
+     * @param threads threads to wait for.
+     */
+    private static void awaitAll(Thread[] threads) {
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Prompts the user for parameters to configure the library simulation.
      * Parameters include the library capacity, number of readers, and number of writers.
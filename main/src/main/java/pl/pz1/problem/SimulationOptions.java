@@ -0,0 +1,151 @@
+package pl.pz1.problem;
+
+import java.util.*;
+
+/**
+ * Command-line options of the simulation.
+ * Options are given as {@code --name=value} and may be mixed with the positional parameters,
+ * which are kept in their order for {@link Main#askForParameters(String[])}.
+ */
+public class SimulationOptions {
+    /**
+     * Kind of threads running readers and writers: {@code platform} (default), {@code virtual},
+     * or {@code pool} optionally followed by the number of workers, as in {@code pool:8}, to multiplex
+     * all of them over a few threads, see {@link pl.pz1.problem.visitors.pool.ParticipantPool}.
+     */
+    public static final String THREADS = "threads";
+
+    /**
+     * Library engine, one of {@link pl.pz1.problem.engines.EngineType} in any letter case, {@code monitor} by default.
+     */
+    public static final String ENGINE = "engine";
+
+    /**
+     * Where events of the library go: {@code console} (default), {@code async}, {@code none},
+     * or {@code trace:<file>} to record them into a binary trace which {@link #ANALYZE} reads back.
+     */
+    public static final String EVENTS = "events";
+
+    /**
+     * Where metrics of the library are exported every second: a path of a file to append them to,
+     * or {@code jmx} to publish them as an MXBean. Not exported by default, recorded by the monitor engine only.
+     */
+    public static final String METRICS = "metrics";
+
+    /**
+     * Master seed from which every reader and writer derives its times, so a run can be replayed.
+     * A new seed is drawn and printed by default.
+     */
+    public static final String SEED = "seed";
+
+    /**
+     * How long readers and writers stay inside and rest outside: one of
+     * {@link pl.pz1.problem.visitors.workload.WorkloadType} in any letter case, {@code uniform} by default,
+     * or {@code trace:<file>} to replay a recorded workload.
+     */
+    public static final String WORKLOAD = "workload";
+
+    /**
+     * Number of visits to simulate in virtual time on a single thread instead of running readers and writers
+     * on real threads, see {@link pl.pz1.problem.simulation.DiscreteEventSimulation}.
+     */
+    public static final String SIMULATE = "simulate";
+
+    /**
+     * Number of independent resources, each guarded by a library of its own created on first use.
+     * Every visit goes to a resource chosen by {@link #POPULARITY}. A single library by default.
+     */
+    public static final String KEYS = "keys";
+
+    /**
+     * Popularity of the resources given by {@link #KEYS}: {@code uniform} (default), or {@code zipf} optionally
+     * followed by its exponent, as in {@code zipf:1.2}.
+     */
+    public static final String POPULARITY = "popularity";
+
+    /**
+     * Binary trace recorded with {@code --events=trace:<file>} to analyze instead of running anything,
+     * see {@link pl.pz1.problem.trace.TraceAnalyzer}.
+     */
+    public static final String ANALYZE = "analyze";
+
+    /**
+     * The shortest wait, in milliseconds, which the analysis of a trace reports as starvation, 5000 by default.
+     */
+    public static final String STARVATION = "starvation";
+
+    /**
+     * File of a {@link pl.pz1.problem.store.RecordStore} which readers read and writers write on every visit,
+     * see {@link pl.pz1.problem.visitors.workload.RecordAccessWorkload}. Needs a single library.
+     */
+    public static final String STORE = "store";
+
+    /**
+     * Number and size of the records of {@link #STORE}, as {@code <count>x<bytes>}, {@code 1024x4096} by default.
+     */
+    public static final String RECORDS = "records";
+
+    /**
+     * Bytes of {@link #STORE} read or written on every visit, the size of one record by default.
+     */
+    public static final String ACCESS = "access";
+
+    private static final Set<String> NAMES = Set.of(THREADS, ENGINE, EVENTS, METRICS, SEED, WORKLOAD, SIMULATE,
+            KEYS, POPULARITY, ANALYZE, STARVATION, STORE, RECORDS, ACCESS);
+
+    private final Map<String, String> values;
+    private final String[] positional;
+
+    private SimulationOptions(Map<String, String> values, String[] positional) {
+        this.values = values;
+        this.positional = positional;
+    }
+
+    /**
+     * Splits command-line arguments into options and positional parameters.
+     *
+     * @param args an array of String with arguments passed by user from command line
+     * @return parsed options
+     * @throws IllegalArgumentException If an option is malformed or unknown.
+     */
+    public static SimulationOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Opcja musi mieć postać --nazwa=wartość: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Nieznana opcja: " + name);
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        return new SimulationOptions(values, positional.toArray(new String[0]));
+    }
+
+    /**
+     * Returns the positional parameters, without options.
+     *
+     * @return positional parameters in their original order
+     */
+    public String[] getPositional() {
+        return positional.clone();
+    }
+
+    /**
+     * Returns the value of an option.
+     *
+     * @param name name of the option, without the leading dashes
+     * @param defaultValue value returned when the option was not given
+     * @return value of the option
+     */
+    public String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+}
@@ -0,0 +1,215 @@
+package pl.pz1.problem.simulation;
+
+import pl.pz1.problem.fairness.FairnessPolicy;
+import pl.pz1.problem.metrics.Histogram;
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.util.PriorityQueue;
+import java.util.random.RandomGenerator;
+
+/**
+ * Runs the Readers and Writers scenario in virtual time on a single thread.
+ * Instead of sleeping, every participant schedules its next arrival or departure as an event, and a priority queue
+ * of events advances a virtual clock straight to the next one, so millions of visits take seconds.
+ * Admission follows the very rules of {@link pl.pz1.problem.Library}: the same {@link WaitQueue} and
+ * {@link FairnessPolicy} decide who enters when, under the same capacity and the same exclusivity of writers.
+ * Participants draw their times like {@link pl.pz1.problem.visitors.ReaderTask} and
+ * {@link pl.pz1.problem.visitors.WriterTask} do, so a simulation and a threaded run with the same seed and
+ * workload give every participant the same sequence of times.
+ */
+public class DiscreteEventSimulation {
+    private final int capacity;
+    private final FairnessPolicy policy;
+    private final Participant[] writers;
+    private final Participant[] readers;
+
+    private final WaitQueue queue = new WaitQueue();
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private int readersInside;
+    private boolean writerInside;
+
+    private final Histogram writerWaits = new Histogram();
+    private final Histogram readerWaits = new Histogram();
+    private long writerVisits;
+    private long readerVisits;
+    private long lastChange;
+    private double occupiedTime;
+    private double writerTime;
+    private int longestQueue;
+
+    /**
+     * Constructs a DiscreteEventSimulation with every participant about to arrive at the start of virtual time.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param writersNumber the number of writers.
+     * @param readersNumber the number of readers.
+     * @param policy the policy choosing who enters next.
+     * @param randomSource the source of the generator of every participant.
+     * @param writerWorkload the workload of writers.
+     * @param readerWorkload the workload of readers.
+     * @throws IllegalArgumentException If the capacity is not positive or there are no participants.
+     */
+    public DiscreteEventSimulation(int capacity, int writersNumber, int readersNumber, FairnessPolicy policy,
+                                   RandomSource randomSource, WorkloadProfile writerWorkload,
+                                   WorkloadProfile readerWorkload) {
+        if (capacity < 1 || writersNumber < 0 || readersNumber < 0 || writersNumber + readersNumber == 0) {
+            throw new IllegalArgumentException("Capacity must be positive and there must be some participants: "
+                    + capacity + ", " + writersNumber + ", " + readersNumber);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.writers = new Participant[writersNumber];
+        this.readers = new Participant[readersNumber];
+        for (int i = 0; i < writersNumber; i++) {
+            Identifier identifier = new Identifier(i + 1, Identifier.WRITER);
+            writers[i] = new Participant(identifier, true, randomSource, writerWorkload);
+            schedule(0, writers[i], false);
+        }
+        for (int i = 0; i < readersNumber; i++) {
+            Identifier identifier = new Identifier(i + 1, Identifier.READER);
+            readers[i] = new Participant(identifier, false, randomSource, readerWorkload);
+            schedule(0, readers[i], false);
+        }
+    }
+
+    /**
+     * Processes events until the given number of visits is completed.
+     * Can be called again to continue the same simulation further.
+     *
+     * @param visits how many more visits of either role to complete
+     * @return statistics of the simulation from its start
+     */
+    public SimulationReport run(long visits) {
+        long started = System.nanoTime();
+        long target = writerVisits + readerVisits + visits;
+        while (writerVisits + readerVisits < target) {
+            Event event = events.poll();
+            advanceTo(event.time);
+            if (event.departure) {
+                leave(event.participant);
+            }
+            else {
+                arrive(event.participant);
+            }
+            admitWaiters();
+        }
+        return new SimulationReport(now, System.nanoTime() - started, capacity, writerVisits, readerVisits,
+                writerWaits.snapshot(), readerWaits.snapshot(), utilization(occupiedTime),
+                utilization(writerTime * capacity), longestQueue);
+    }
+
+    private void arrive(Participant participant) {
+        participant.arrivedAt = now;
+        WaitNode node = new WaitNode(participant.identifier, participant.writer);
+        queue.add(node);
+        policy.enqueued(node);
+        longestQueue = Math.max(longestQueue, queue.size());
+    }
+
+    private void leave(Participant participant) {
+        if (participant.writer) {
+            writerInside = false;
+            writerVisits++;
+        }
+        else {
+            readersInside--;
+            readerVisits++;
+        }
+        schedule(now + participant.workload.thinkTime(participant.random), participant, false);
+    }
+
+    /**
+     * Admits every waiter the fairness policy lets in, exactly like the Library does when somebody leaves.
+     */
+    private void admitWaiters() {
+        WaitNode next;
+        while ((next = policy.select(queue, readersInside, writerInside, capacity)) != null) {
+            Participant participant = next.isWriter()
+                    ? writers[next.getIdentifier().getId() - 1]
+                    : readers[next.getIdentifier().getId() - 1];
+            if (participant.writer) {
+                writerInside = true;
+                writerWaits.record(now - participant.arrivedAt);
+            }
+            else {
+                readersInside++;
+                readerWaits.record(now - participant.arrivedAt);
+            }
+            queue.remove(next);
+            policy.admitted(next, queue);
+            schedule(now + participant.workload.holdTime(participant.random), participant, true);
+        }
+    }
+
+    private void schedule(long time, Participant participant, boolean departure) {
+        events.add(new Event(time, sequence++, participant, departure));
+    }
+
+    /**
+     * Moves the virtual clock forward, accumulating how long places were occupied meanwhile.
+     *
+     * @param time the time of the next event
+     */
+    private void advanceTo(long time) {
+        long elapsed = time - lastChange;
+        occupiedTime += (double) elapsed * (writerInside ? capacity : readersInside);
+        if (writerInside) {
+            writerTime += elapsed;
+        }
+        lastChange = time;
+        now = time;
+    }
+
+    private double utilization(double placeTime) {
+        return now == 0 ? 0 : placeTime / ((double) capacity * now);
+    }
+
+    /**
+     * A reader or writer of the simulation with its own generator of times.
+     */
+    private static class Participant {
+        private final Identifier identifier;
+        private final boolean writer;
+        private final RandomGenerator random;
+        private final WorkloadProfile workload;
+        private long arrivedAt;
+
+        private Participant(Identifier identifier, boolean writer, RandomSource randomSource,
+                            WorkloadProfile workload) {
+            this.identifier = identifier;
+            this.writer = writer;
+            this.random = randomSource.forParticipant(identifier);
+            this.workload = workload;
+        }
+    }
+
+    /**
+     * Arrival or departure of a participant at a moment of virtual time.
+     * Events of the same moment are processed in the order they were scheduled.
+     */
+    private static class Event implements Comparable<Event> {
+        private final long time;
+        private final long sequence;
+        private final Participant participant;
+        private final boolean departure;
+
+        private Event(long time, long sequence, Participant participant, boolean departure) {
+            this.time = time;
+            this.sequence = sequence;
+            this.participant = participant;
+            this.departure = departure;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
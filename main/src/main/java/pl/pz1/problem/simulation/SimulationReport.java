@@ -0,0 +1,146 @@
+package pl.pz1.problem.simulation;
+
+import pl.pz1.problem.metrics.HistogramSnapshot;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a {@link DiscreteEventSimulation}, measured in virtual time.
+ * Waiting times are kept in the same histograms as {@link pl.pz1.problem.metrics.LibraryMetrics} of a threaded run,
+ * so both can be compared directly.
+ */
+public class SimulationReport {
+    private final long virtualNanos;
+    private final long wallNanos;
+    private final int capacity;
+    private final long writerVisits;
+    private final long readerVisits;
+    private final HistogramSnapshot writerWaits;
+    private final HistogramSnapshot readerWaits;
+    private final double utilization;
+    private final double writerShare;
+    private final int longestQueue;
+
+    SimulationReport(long virtualNanos, long wallNanos, int capacity, long writerVisits, long readerVisits,
+                     HistogramSnapshot writerWaits, HistogramSnapshot readerWaits, double utilization,
+                     double writerShare, int longestQueue) {
+        this.virtualNanos = virtualNanos;
+        this.wallNanos = wallNanos;
+        this.capacity = capacity;
+        this.writerVisits = writerVisits;
+        this.readerVisits = readerVisits;
+        this.writerWaits = writerWaits;
+        this.readerWaits = readerWaits;
+        this.utilization = utilization;
+        this.writerShare = writerShare;
+        this.longestQueue = longestQueue;
+    }
+
+    /**
+     * Returns how much virtual time the simulation covered.
+     *
+     * @return virtual time in nanoseconds
+     */
+    public long getVirtualNanos() {
+        return virtualNanos;
+    }
+
+    /**
+     * Returns how long the last run of the simulation really took.
+     *
+     * @return wall-clock time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * Returns how many visits of writers were completed.
+     *
+     * @return amount of completed writer visits
+     */
+    public long getWriterVisits() {
+        return writerVisits;
+    }
+
+    /**
+     * Returns how many visits of readers were completed.
+     *
+     * @return amount of completed reader visits
+     */
+    public long getReaderVisits() {
+        return readerVisits;
+    }
+
+    /**
+     * Returns the times writers waited in the queue.
+     *
+     * @return histogram of waiting times, in nanoseconds of virtual time
+     */
+    public HistogramSnapshot getWriterWaits() {
+        return writerWaits;
+    }
+
+    /**
+     * Returns the times readers waited in the queue.
+     *
+     * @return histogram of waiting times, in nanoseconds of virtual time
+     */
+    public HistogramSnapshot getReaderWaits() {
+        return readerWaits;
+    }
+
+    /**
+     * Returns the average share of places occupied, a writer occupying all of them.
+     *
+     * @return utilization between 0 and 1
+     */
+    public double getUtilization() {
+        return utilization;
+    }
+
+    /**
+     * Returns the share of virtual time during which a writer was inside.
+     *
+     * @return share between 0 and 1
+     */
+    public double getWriterShare() {
+        return writerShare;
+    }
+
+    /**
+     * Returns the greatest size the queue reached.
+     *
+     * @return length of the longest queue
+     */
+    public int getLongestQueue() {
+        return longestQueue;
+    }
+
+    /**
+     * Describes the statistics for the user.
+     *
+     * @return multi-line description
+     */
+    public String describe() {
+        double virtualSeconds = virtualNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        return String.format(Locale.ROOT, """
+                        Symulacja w czasie wirtualnym: %.1f s (rzeczywiście %d ms), pojemność %d
+                        Wizyty pisarzy: %d, czytelników: %d, na sekundę wirtualną: %.2f
+                        Oczekiwanie pisarzy [ms]: średnio %.1f, mediana %.1f, p99 %.1f, max %.1f
+                        Oczekiwanie czytelników [ms]: średnio %.1f, mediana %.1f, p99 %.1f, max %.1f
+                        Wykorzystanie miejsc: %.1f%%, czas z pisarzem w środku: %.1f%%, najdłuższa kolejka: %d""",
+                virtualSeconds, TimeUnit.NANOSECONDS.toMillis(wallNanos), capacity,
+                writerVisits, readerVisits, virtualSeconds == 0 ? 0 : (writerVisits + readerVisits) / virtualSeconds,
+                millis(writerWaits.getMean()), millis(writerWaits.getValueAtPercentile(50)),
+                millis(writerWaits.getValueAtPercentile(99)), millis(writerWaits.getMax()),
+                millis(readerWaits.getMean()), millis(readerWaits.getValueAtPercentile(50)),
+                millis(readerWaits.getValueAtPercentile(99)), millis(readerWaits.getMax()),
+                utilization * 100, writerShare * 100, longestQueue);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,140 @@
+package pl.pz1.problem.trace;
+
+/**
+ * Waiting times of a single participant replayed from a trace.
+ * The distribution is kept in buckets of powers of two, so even a trace of hundreds of thousands of participants
+ * fits in memory; percentiles are therefore accurate to a factor of two, while the mean and maximum are exact.
+ */
+public class ParticipantWaits {
+    private final int id;
+    private final boolean writer;
+    private final long[] buckets = new long[Long.SIZE];
+    private long admitted;
+    private long totalNanos;
+    private long maxNanos;
+    private long cancelled;
+    private long timedOut;
+
+    /**
+     * Constructs empty ParticipantWaits.
+     *
+     * @param id ID number of the participant
+     * @param writer true if the participant acted as a writer
+     */
+    ParticipantWaits(int id, boolean writer) {
+        this.id = id;
+        this.writer = writer;
+    }
+
+    /**
+     * Records a wait which ended with admission.
+     *
+     * @param nanos time waited
+     */
+    void recordAdmitted(long nanos) {
+        admitted++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0))]++;
+    }
+
+    /**
+     * Records a wait given up because of an interrupt.
+     */
+    void recordCancelled() {
+        cancelled++;
+    }
+
+    /**
+     * Records a wait given up because its time elapsed.
+     */
+    void recordTimedOut() {
+        timedOut++;
+    }
+
+    /**
+     * Returns the ID number of the participant.
+     *
+     * @return ID number of the participant
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Tells if the participant acted as a writer.
+     *
+     * @return true for a writer, false for a reader
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns how many times the participant was admitted.
+     *
+     * @return amount of admissions
+     */
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * Returns how many times the participant gave up waiting after an interrupt.
+     *
+     * @return amount of cancelled waits
+     */
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns how many times the participant was not admitted in the time it was ready to wait.
+     *
+     * @return amount of timed out waits
+     */
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Returns the mean time the participant waited before admission.
+     *
+     * @return mean wait in nanoseconds, or 0 if never admitted
+     */
+    public double getMeanNanos() {
+        return admitted == 0 ? 0 : totalNanos / (double) admitted;
+    }
+
+    /**
+     * Returns the longest time the participant waited before admission.
+     *
+     * @return longest wait in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the time within which the given percentage of admissions came, rounded up to a power of two
+     * but never above the longest wait.
+     *
+     * @param percentile percentage between 0 and 100
+     * @return wait in nanoseconds
+     * @throws IllegalArgumentException If the percentile is out of range.
+     */
+    public long getWaitAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long wanted = Math.max(1, (long) Math.ceil(admitted * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= wanted) {
+                return i == 0 ? 0 : Math.min(maxNanos, (1L << i) - 1);
+            }
+        }
+        return maxNanos;
+    }
+}
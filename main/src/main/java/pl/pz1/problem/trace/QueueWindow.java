@@ -0,0 +1,73 @@
+package pl.pz1.problem.trace;
+
+/**
+ * State of the queue during one window of time of a replayed trace.
+ */
+public class QueueWindow {
+    private final long start;
+    private int maxQueueDepth;
+    private int lastQueueDepth;
+    private long admitted;
+
+    /**
+     * Constructs a QueueWindow in which the queue starts with the given size.
+     *
+     * @param start start of the window, in nanoseconds since the start of the trace
+     * @param queueDepth size of the queue at the start of the window
+     */
+    QueueWindow(long start, int queueDepth) {
+        this.start = start;
+        this.maxQueueDepth = queueDepth;
+        this.lastQueueDepth = queueDepth;
+    }
+
+    /**
+     * Takes into account the size of the queue after an event within the window.
+     *
+     * @param queueDepth size of the queue right after the event
+     * @param admission true if the event was an admission
+     */
+    void observe(int queueDepth, boolean admission) {
+        maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+        lastQueueDepth = queueDepth;
+        if (admission) {
+            admitted++;
+        }
+    }
+
+    /**
+     * Returns the start of the window.
+     *
+     * @return nanoseconds since the start of the trace
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the largest size of the queue within the window.
+     *
+     * @return largest size of the queue
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Returns the size of the queue at the end of the window.
+     *
+     * @return size of the queue
+     */
+    public int getLastQueueDepth() {
+        return lastQueueDepth;
+    }
+
+    /**
+     * Returns how many participants were admitted within the window.
+     *
+     * @return amount of admissions
+     */
+    public long getAdmitted() {
+        return admitted;
+    }
+}
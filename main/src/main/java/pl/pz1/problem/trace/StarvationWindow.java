@@ -0,0 +1,86 @@
+package pl.pz1.problem.trace;
+
+import pl.pz1.problem.events.EventKind;
+
+/**
+ * Period in which a single participant waited longer than the threshold of starvation.
+ */
+public class StarvationWindow {
+    private final int id;
+    private final boolean writer;
+    private final long from;
+    private final long to;
+    private final EventKind end;
+
+    /**
+     * Constructs a StarvationWindow.
+     *
+     * @param id ID number of the participant
+     * @param writer true if the participant acted as a writer
+     * @param from when the participant started waiting, in nanoseconds since the start of the trace
+     * @param to when the wait ended, or when the trace ended if it never did
+     * @param end how the wait ended, or null if the participant still waited when the trace ended
+     */
+    StarvationWindow(int id, boolean writer, long from, long to, EventKind end) {
+        this.id = id;
+        this.writer = writer;
+        this.from = from;
+        this.to = to;
+        this.end = end;
+    }
+
+    /**
+     * Returns the ID number of the participant.
+     *
+     * @return ID number of the participant
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Tells if the participant acted as a writer.
+     *
+     * @return true for a writer, false for a reader
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns when the participant started waiting.
+     *
+     * @return nanoseconds since the start of the trace
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns when the wait ended, or when the trace ended if the participant still waited.
+     *
+     * @return nanoseconds since the start of the trace
+     */
+    public long getTo() {
+        return to;
+    }
+
+    /**
+     * Returns how long the participant waited within the window.
+     *
+     * @return length of the window in nanoseconds
+     */
+    public long getLength() {
+        return to - from;
+    }
+
+    /**
+     * Returns how the wait ended.
+     *
+     * @return {@link EventKind#ADMITTED}, {@link EventKind#CANCELLED} or {@link EventKind#TIMED_OUT},
+     *         or null if the participant still waited when the trace ended
+     */
+    public EventKind getEnd() {
+        return end;
+    }
+}
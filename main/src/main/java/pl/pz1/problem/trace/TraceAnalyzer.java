@@ -0,0 +1,118 @@
+package pl.pz1.problem.trace;
+
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.trace.BinaryTraceReader;
+import pl.pz1.problem.events.trace.TraceEvent;
+import pl.pz1.problem.metrics.Histogram;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a binary trace of a library offline, see {@link pl.pz1.problem.events.trace.BinaryTraceWriter}.
+ * Following every enqueue and its end it finds how long each wait took, and so the waiting times of every
+ * participant, the windows in which somebody starved, and who was still stuck in the queue when the trace ended.
+ * The queue itself is followed in windows of fixed length, giving its size over the whole trace.
+ */
+public class TraceAnalyzer {
+    private final long starvationNanos;
+    private final long windowNanos;
+
+    /**
+     * Constructs a TraceAnalyzer.
+     *
+     * @param starvationNanos the shortest wait, in nanoseconds, counted as starvation
+     * @param windowNanos length of a window of the timeline of the queue, in nanoseconds
+     * @throws IllegalArgumentException If the length of a window is not positive.
+     */
+    public TraceAnalyzer(long starvationNanos, long windowNanos) {
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + windowNanos);
+        }
+        this.starvationNanos = starvationNanos;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * Reads the whole trace and analyzes it.
+     *
+     * @param reader reader of the trace, positioned at its first event
+     * @return what the trace shows
+     * @throws IOException If the trace cannot be read.
+     */
+    public TraceReport analyze(BinaryTraceReader reader) throws IOException {
+        Map<Long, Long> waiting = new HashMap<>();
+        Map<Long, ParticipantWaits> participants = new HashMap<>();
+        List<StarvationWindow> starvation = new ArrayList<>();
+        List<QueueWindow> timeline = new ArrayList<>();
+        Histogram writerWaits = new Histogram();
+        Histogram readerWaits = new Histogram();
+        long events = 0;
+        long lastTime = 0;
+        int longestQueue = 0;
+        int queueDepth = 0;
+
+        TraceEvent event;
+        while ((event = reader.next()) != null) {
+            events++;
+            lastTime = Math.max(lastTime, event.getTime());
+            long window = Math.max(0, event.getTime()) / windowNanos;
+            while (timeline.size() <= window) {
+                timeline.add(new QueueWindow(timeline.size() * windowNanos, queueDepth));
+            }
+            queueDepth = event.getQueueDepth();
+            longestQueue = Math.max(longestQueue, queueDepth);
+            timeline.get((int) window).observe(queueDepth, event.getKind() == EventKind.ADMITTED);
+
+            long key = (long) event.getId() << 1 | (event.isWriter() ? 1 : 0);
+            switch (event.getKind()) {
+                case ENQUEUED -> waiting.put(key, event.getTime());
+                case ADMITTED, CANCELLED, TIMED_OUT -> {
+                    Long since = waiting.remove(key);
+                    if (since != null) {
+                        long wait = event.getTime() - since;
+                        ParticipantWaits waits = participants.computeIfAbsent(key,
+                                k -> new ParticipantWaits((int) (k >> 1), (k & 1) == 1));
+                        if (event.getKind() == EventKind.ADMITTED) {
+                            waits.recordAdmitted(wait);
+                            (event.isWriter() ? writerWaits : readerWaits).record(wait);
+                        }
+                        else if (event.getKind() == EventKind.CANCELLED) {
+                            waits.recordCancelled();
+                        }
+                        else {
+                            waits.recordTimedOut();
+                        }
+                        if (wait >= starvationNanos) {
+                            starvation.add(new StarvationWindow(event.getId(), event.isWriter(), since,
+                                    event.getTime(), event.getKind()));
+                        }
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        List<StarvationWindow> stuck = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : waiting.entrySet()) {
+            StarvationWindow window = new StarvationWindow((int) (entry.getKey() >> 1), (entry.getKey() & 1) == 1,
+                    entry.getValue(), lastTime, null);
+            stuck.add(window);
+            if (window.getLength() >= starvationNanos) {
+                starvation.add(window);
+            }
+        }
+        starvation.sort(Comparator.comparingLong(StarvationWindow::getFrom));
+        stuck.sort(Comparator.comparingLong(StarvationWindow::getFrom));
+        List<ParticipantWaits> waits = new ArrayList<>(participants.values());
+        waits.sort(Comparator.comparing(ParticipantWaits::isWriter).reversed()
+                .thenComparingInt(ParticipantWaits::getId));
+        return new TraceReport(reader.getStartEpochMillis(), events, lastTime, longestQueue, writerWaits.snapshot(),
+                readerWaits.snapshot(), waits, starvation, stuck, timeline, starvationNanos);
+    }
+}
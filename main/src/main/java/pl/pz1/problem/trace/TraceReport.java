@@ -0,0 +1,213 @@
+package pl.pz1.problem.trace;
+
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.metrics.HistogramSnapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static pl.pz1.problem.visitors.identifier.Identifier.READER;
+import static pl.pz1.problem.visitors.identifier.Identifier.WRITER;
+
+/**
+ * What a {@link TraceAnalyzer} found in a trace of a library.
+ * Times are in nanoseconds since the start of the trace.
+ */
+public class TraceReport {
+    /**
+     * The most rows of the timeline of the queue, participants and windows of starvation {@link #describe()} lists.
+     */
+    private static final int MAX_ROWS = 10;
+
+    private final long startEpochMillis;
+    private final long events;
+    private final long durationNanos;
+    private final int longestQueue;
+    private final HistogramSnapshot writerWaits;
+    private final HistogramSnapshot readerWaits;
+    private final List<ParticipantWaits> participants;
+    private final List<StarvationWindow> starvation;
+    private final List<StarvationWindow> stuck;
+    private final List<QueueWindow> timeline;
+    private final long starvationNanos;
+
+    TraceReport(long startEpochMillis, long events, long durationNanos, int longestQueue,
+                HistogramSnapshot writerWaits, HistogramSnapshot readerWaits, List<ParticipantWaits> participants,
+                List<StarvationWindow> starvation, List<StarvationWindow> stuck, List<QueueWindow> timeline,
+                long starvationNanos) {
+        this.startEpochMillis = startEpochMillis;
+        this.events = events;
+        this.durationNanos = durationNanos;
+        this.longestQueue = longestQueue;
+        this.writerWaits = writerWaits;
+        this.readerWaits = readerWaits;
+        this.participants = List.copyOf(participants);
+        this.starvation = List.copyOf(starvation);
+        this.stuck = List.copyOf(stuck);
+        this.timeline = List.copyOf(timeline);
+        this.starvationNanos = starvationNanos;
+    }
+
+    /**
+     * Returns how many events the trace holds.
+     *
+     * @return amount of events
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the time of the last event of the trace.
+     *
+     * @return nanoseconds since the start of the trace
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns the largest size of the queue over the whole trace.
+     *
+     * @return largest size of the queue
+     */
+    public int getLongestQueue() {
+        return longestQueue;
+    }
+
+    /**
+     * Returns waiting times of writers which were admitted.
+     *
+     * @return histogram of waiting times of writers
+     */
+    public HistogramSnapshot getWriterWaits() {
+        return writerWaits;
+    }
+
+    /**
+     * Returns waiting times of readers which were admitted.
+     *
+     * @return histogram of waiting times of readers
+     */
+    public HistogramSnapshot getReaderWaits() {
+        return readerWaits;
+    }
+
+    /**
+     * Returns waiting times of every participant which stopped waiting at least once, writers first.
+     *
+     * @return waiting times per participant
+     */
+    public List<ParticipantWaits> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Returns every wait at least as long as the threshold of starvation, in the order they started.
+     *
+     * @return windows of starvation
+     */
+    public List<StarvationWindow> getStarvation() {
+        return starvation;
+    }
+
+    /**
+     * Returns the participants still waiting when the trace ended, in the order they started waiting.
+     *
+     * @return unfinished waits
+     */
+    public List<StarvationWindow> getStuck() {
+        return stuck;
+    }
+
+    /**
+     * Returns the state of the queue in consecutive windows of time from the start of the trace.
+     *
+     * @return timeline of the queue
+     */
+    public List<QueueWindow> getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Describes the trace in a few lines of text: waiting times per role, the size of the queue over time
+     * merged into at most ten rows, the participants which waited the longest and the longest windows of starvation.
+     *
+     * @return description of the trace
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Ślad z %s: %d zdarzeń w ciągu %.1f s, najdłuższa kolejka: %d%n",
+                Instant.ofEpochMilli(startEpochMillis), events, seconds(durationNanos), longestQueue));
+        appendWaits(sb, "pisarzy", writerWaits);
+        appendWaits(sb, "czytelników", readerWaits);
+
+        sb.append("Kolejka w czasie:").append(System.lineSeparator());
+        int step = Math.max(1, (timeline.size() + MAX_ROWS - 1) / MAX_ROWS);
+        for (int i = 0; i < timeline.size(); i += step) {
+            int maxDepth = 0;
+            long admitted = 0;
+            List<QueueWindow> row = timeline.subList(i, Math.min(timeline.size(), i + step));
+            for (QueueWindow window : row) {
+                maxDepth = Math.max(maxDepth, window.getMaxQueueDepth());
+                admitted += window.getAdmitted();
+            }
+            sb.append(String.format(Locale.ROOT, "  od %.1f s: najdłuższa %d, na końcu %d, wpuszczono %d%n",
+                    seconds(row.get(0).getStart()), maxDepth, row.get(row.size() - 1).getLastQueueDepth(), admitted));
+        }
+
+        sb.append("Najdłużej czekający:").append(System.lineSeparator());
+        List<ParticipantWaits> longest = new ArrayList<>(participants);
+        longest.sort(Comparator.comparingLong(ParticipantWaits::getMaxNanos).reversed());
+        for (ParticipantWaits waits : longest.subList(0, Math.min(MAX_ROWS, longest.size()))) {
+            sb.append(String.format(Locale.ROOT,
+                    "  %s %d: wejścia %d, średnio %.1f ms, p99 %.1f ms, max %.1f ms, "
+                            + "rezygnacje %d, bez wejścia %d%n",
+                    waits.isWriter() ? WRITER : READER, waits.getId(), waits.getAdmitted(),
+                    millis(waits.getMeanNanos()), millis(waits.getWaitAtPercentile(99)),
+                    millis(waits.getMaxNanos()), waits.getCancelled(), waits.getTimedOut()));
+        }
+
+        sb.append(String.format(Locale.ROOT, "Okna głodzenia (czekanie od %.1f ms): %d%n",
+                millis(starvationNanos), starvation.size()));
+        List<StarvationWindow> windows = new ArrayList<>(starvation);
+        windows.sort(Comparator.comparingLong(StarvationWindow::getLength).reversed());
+        for (StarvationWindow window : windows.subList(0, Math.min(MAX_ROWS, windows.size()))) {
+            sb.append(String.format(Locale.ROOT, "  %s %d czekał od %.1f s do %.1f s (%.1f ms), %s%n",
+                    window.isWriter() ? WRITER : READER, window.getId(), seconds(window.getFrom()),
+                    seconds(window.getTo()), millis(window.getLength()), describeEnd(window.getEnd())));
+        }
+        sb.append("Wciąż w kolejce na końcu śladu: ").append(stuck.size());
+        return sb.toString();
+    }
+
+    private static void appendWaits(StringBuilder sb, String role, HistogramSnapshot waits) {
+        sb.append(String.format(Locale.ROOT,
+                "Oczekiwanie %s [ms]: wejścia %d, średnio %.1f, mediana %.1f, p99 %.1f, max %.1f%n",
+                role, waits.getCount(), millis(waits.getMean()), millis(waits.getValueAtPercentile(50)),
+                millis(waits.getValueAtPercentile(99)), millis(waits.getMax())));
+    }
+
+    private static String describeEnd(EventKind end) {
+        if (end == null) {
+            return "wciąż czeka";
+        }
+        return switch (end) {
+            case ADMITTED -> "wpuszczony";
+            case CANCELLED -> "zrezygnował";
+            default -> "nie doczekał się wejścia";
+        };
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
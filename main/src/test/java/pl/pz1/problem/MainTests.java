@@ -3,11 +3,36 @@ package pl.pz1.problem;
 import static org.mockito.Mockito.*;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pz1.problem.engines.LockFreeLibrary;
+import pl.pz1.problem.events.AsyncEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.events.trace.BinaryTraceWriter;
+import pl.pz1.problem.metrics.MetricsExporter;
+import pl.pz1.problem.registry.ZipfKeyDistribution;
+import pl.pz1.problem.simulation.SimulationReport;
+import pl.pz1.problem.store.RecordStore;
+import pl.pz1.problem.trace.TraceReport;
+import pl.pz1.problem.visitors.LibrarySelector;
 import pl.pz1.problem.visitors.Reader;
+import pl.pz1.problem.visitors.ReaderTask;
 import pl.pz1.problem.visitors.Writer;
+import pl.pz1.problem.visitors.WriterTask;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.pool.ParticipantPool;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.RecordAccessWorkload;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,4 +100,179 @@ class MainTests {
             verify(reader).start();
         }
     }
+
+    @Test
+    void simulationOptionsTest() {
+        SimulationOptions options = SimulationOptions.parse(
+                new String[] {"5", "--threads=virtual", "2", "--engine=lock_free", "3"});
+        assertArrayEquals(new String[] {"5", "2", "3"}, options.getPositional());
+        assertEquals("virtual", options.get(SimulationOptions.THREADS, "platform"));
+        assertEquals("none", options.get(SimulationOptions.EVENTS, "none"));
+        assertInstanceOf(LockFreeLibrary.class, Main.createLibrary(5, options));
+
+        assertThrows(IllegalArgumentException.class, () -> SimulationOptions.parse(new String[] {"--threads"}));
+        assertThrows(IllegalArgumentException.class, () -> SimulationOptions.parse(new String[] {"--colour=red"}));
+    }
+
+    @Test
+    void initializeVirtualTest() throws InterruptedException {
+        WriterTask[] writers = Main.generateWriterTasks(2, new Library(1));
+        ReaderTask[] readers = new ReaderTask[3];
+        for (int i = 0; i < 3; i++) {
+            readers[i] = mock(ReaderTask.class);
+        }
+        writers[0] = mock(WriterTask.class);
+        writers[1] = mock(WriterTask.class);
+
+        Thread[] threads = Main.initializeVirtual(writers, readers);
+        assertEquals(5, threads.length);
+        for (Thread thread : threads) {
+            assertTrue(thread.isVirtual());
+            thread.join();
+        }
+
+        for (WriterTask writer : writers) {
+            verify(writer).run();
+        }
+
+        for (ReaderTask reader : readers) {
+            verify(reader).run();
+        }
+    }
+
+    @Test
+    void storeTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("records.bin");
+        SimulationOptions options = SimulationOptions.parse(new String[] {"--store=" + file, "--records=4x64",
+                "--access=100"});
+        assertNull(Main.createStore(SimulationOptions.parse(new String[0])));
+        WorkloadProfile workload = WorkloadProfile.NO_SLEEP;
+        assertSame(workload, Main.accessStore(workload, null, options, true));
+
+        try (RecordStore store = Main.createStore(options)) {
+            assertEquals(4, store.getRecords());
+            assertEquals(64, store.getRecordSize());
+            RecordAccessWorkload writers = (RecordAccessWorkload) Main.accessStore(workload, store, options, true);
+            writers.visit(new SplittableRandom(1));
+            assertEquals(100, writers.getBytes());
+        }
+        assertEquals(256, Files.size(file));
+        assertThrows(IllegalArgumentException.class, () -> Main.createStore(SimulationOptions.parse(
+                new String[] {"--store=" + file, "--keys=2"})));
+        assertThrows(IllegalArgumentException.class, () -> Main.createStore(SimulationOptions.parse(
+                new String[] {"--store=" + file, "--records=64"})));
+        assertThrows(IllegalArgumentException.class, () -> Main.createStore(SimulationOptions.parse(
+                new String[] {"--store=" + file, "--engine=snapshot"})));
+    }
+
+    @Test
+    void exportMetricsTest(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("metrics.log");
+        SimulationOptions options = SimulationOptions.parse(new String[] {"--events=none", "--metrics=" + file});
+        LibraryEngine library = Main.createLibrary(2, options);
+
+        MetricsExporter exporter = Main.exportMetrics(library, options);
+        assertNotNull(exporter);
+        exporter.close();
+        assertEquals(1, Files.readAllLines(file).size());
+
+        assertNull(Main.exportMetrics(library, SimulationOptions.parse(new String[0])));
+        assertThrows(IllegalArgumentException.class, () -> Main.exportMetrics(new LockFreeLibrary(1), options));
+    }
+
+    @Test
+    void createRandomSourceTest() {
+        SimulationOptions seeded = SimulationOptions.parse(new String[] {"--seed=1234"});
+        assertEquals(1234, Main.createRandomSource(seeded).getMasterSeed());
+        assertNotNull(Main.createRandomSource(SimulationOptions.parse(new String[0])));
+
+        WriterTask[] writers = Main.generateWriterTasks(2, LibrarySelector.of(new Library(1)),
+                Main.createRandomSource(seeded), Main.createWorkload(seeded, true));
+        assertEquals(2, writers.length);
+        assertThrows(NumberFormatException.class,
+                () -> Main.createRandomSource(SimulationOptions.parse(new String[] {"--seed=abc"})));
+    }
+
+    @Test
+    void createWorkloadTest(@TempDir Path directory) throws IOException {
+        Path trace = directory.resolve("trace.txt");
+        Files.writeString(trace, "R 0 0\nW 0 0\n");
+        SimulationOptions options = SimulationOptions.parse(new String[] {"--workload=trace:" + trace});
+        assertEquals(0, Main.createWorkload(options, true).holdTime(new SplittableRandom(1)));
+
+        SimulationOptions none = SimulationOptions.parse(new String[] {"--workload=none"});
+        assertSame(WorkloadProfile.NO_SLEEP, Main.createWorkload(none, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.createWorkload(SimulationOptions.parse(new String[] {"--workload=bursty"}), false));
+        assertThrows(UncheckedIOException.class, () -> Main.createWorkload(
+                SimulationOptions.parse(new String[] {"--workload=trace:" + directory.resolve("missing")}), false));
+    }
+
+    @Test
+    void simulateTest() {
+        SimulationOptions options = SimulationOptions.parse(new String[] {"--simulate=1000", "--seed=3"});
+        SimulationReport report = Main.simulate(new int[] {2, 1, 3}, options);
+        assertEquals(1000, report.getReaderVisits() + report.getWriterVisits());
+    }
+
+    @Test
+    void createSelectorTest() {
+        SimulationOptions keyed = SimulationOptions.parse(
+                new String[] {"--events=none", "--keys=100", "--popularity=zipf:1.2"});
+        LibrarySelector libraries = Main.createSelector(2, keyed);
+        SplittableRandom random = new SplittableRandom(1);
+        assertNotSame(libraries.select(random), libraries.select(random));
+        assertInstanceOf(ZipfKeyDistribution.class, Main.createPopularity(100, keyed));
+
+        SimulationOptions single = SimulationOptions.parse(new String[] {"--events=none"});
+        LibrarySelector library = Main.createSelector(2, single);
+        assertSame(library.select(random), library.select(random));
+
+        assertThrows(IllegalArgumentException.class, () -> Main.createPopularity(100,
+                SimulationOptions.parse(new String[] {"--popularity=pareto"})));
+        assertThrows(IllegalArgumentException.class, () -> Main.createSelector(2,
+                SimulationOptions.parse(new String[] {"--keys=10", "--metrics=jmx"})));
+    }
+
+    @Test
+    void analyzeTest(@TempDir Path directory) throws IOException, InterruptedException {
+        Path file = directory.resolve("library.trace");
+        BinaryTraceWriter trace = new BinaryTraceWriter(file);
+        AsyncEventSink events = new AsyncEventSink(64, trace);
+        Library library = new Library(1, events);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startWriting(writer);
+        assertFalse(library.tryStartReading(new Identifier(1, Identifier.READER), 5, TimeUnit.MILLISECONDS));
+        library.stopWriting(writer);
+        events.close();
+        trace.close();
+
+        TraceReport report = Main.analyze(SimulationOptions.parse(new String[] {
+                "--analyze=" + file, "--starvation=1"}));
+        assertEquals(5, report.getEvents());
+        assertEquals(1, report.getStarvation().size());
+        assertEquals(EventKind.TIMED_OUT, report.getStarvation().get(0).getEnd());
+        assertThrows(UncheckedIOException.class, () -> Main.analyze(SimulationOptions.parse(new String[] {
+                "--analyze=" + directory.resolve("missing.trace")})));
+    }
+
+    @Test
+    void startPoolTest() throws InterruptedException {
+        assertEquals(8, Main.poolWorkers("pool:8"));
+        assertEquals(Runtime.getRuntime().availableProcessors(), Main.poolWorkers("pool"));
+        assertThrows(NumberFormatException.class, () -> Main.poolWorkers("pool:x"));
+
+        Library library = new Library(2, NoOpEventSink.INSTANCE);
+        ParticipantPool pool = Main.startPool(2, 3, 30, LibrarySelector.of(library), new SeededRandomSource(5),
+                WorkloadProfile.NO_SLEEP, WorkloadProfile.NO_SLEEP);
+        assertEquals(33, pool.getActiveCount());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pool.getVisits() < 1000 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.getVisits() >= 1000);
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
 }
@@ -0,0 +1,78 @@
+package pl.pz1.problem.simulation;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.ConstantDistribution;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+import pl.pz1.problem.visitors.workload.WorkloadType;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscreteEventSimulationTests {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final WorkloadProfile BUSY = WorkloadProfile.of(
+            new ConstantDistribution(10 * MILLI), new ConstantDistribution(0));
+
+    @Test
+    void readersBeyondCapacityWaitForPlaces() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(2, 0, 4, new FifoPolicy(),
+                new SeededRandomSource(1), BUSY, BUSY);
+        SimulationReport report = simulation.run(400);
+
+        assertEquals(400, report.getReaderVisits());
+        assertEquals(2000 * MILLI, report.getVirtualNanos());
+        assertEquals(1.0, report.getUtilization(), 1e-9);
+        assertEquals(10 * MILLI, report.getReaderWaits().getValueAtPercentile(99), MILLI / 4.0);
+        assertEquals(2, report.getLongestQueue());
+    }
+
+    @Test
+    void writersAreExclusive() {
+        DiscreteEventSimulation simulation = new DiscreteEventSimulation(3, 2, 3, new FifoPolicy(),
+                new SeededRandomSource(1), BUSY, BUSY);
+        SimulationReport report = simulation.run(500);
+
+        long writerTime = report.getWriterVisits() * 10 * MILLI;
+        long readerRounds = report.getVirtualNanos() - writerTime;
+        assertEquals(report.getReaderVisits() * 10 * MILLI, readerRounds * 3, 30 * MILLI);
+        assertEquals((double) writerTime / report.getVirtualNanos(), report.getWriterShare(), 1e-9);
+        assertEquals(1.0, report.getUtilization(), 1e-9);
+    }
+
+    @Test
+    void sameSeedReplaysSameSimulation() {
+        SimulationReport first = exponential(7).run(10_000);
+        SimulationReport second = exponential(7).run(10_000);
+
+        assertEquals(first.getVirtualNanos(), second.getVirtualNanos());
+        assertEquals(first.getWriterVisits(), second.getWriterVisits());
+        assertEquals(first.getReaderWaits().getMax(), second.getReaderWaits().getMax());
+        assertNotEquals(first.getVirtualNanos(), exponential(8).run(10_000).getVirtualNanos());
+    }
+
+    @Test
+    void millionVisitsTakeSeconds() {
+        SimulationReport report = exponential(1).run(1_000_000);
+
+        assertEquals(1_000_000, report.getWriterVisits() + report.getReaderVisits());
+        assertTrue(report.getWallNanos() < TimeUnit.SECONDS.toNanos(30));
+        assertTrue(report.getVirtualNanos() > TimeUnit.HOURS.toNanos(1));
+        assertTrue(report.describe().contains("Wizyty pisarzy"));
+    }
+
+    @Test
+    void invalidScenarioIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DiscreteEventSimulation(0, 1, 1, new FifoPolicy(),
+                new SeededRandomSource(1), BUSY, BUSY));
+        assertThrows(IllegalArgumentException.class, () -> new DiscreteEventSimulation(1, 0, 0, new FifoPolicy(),
+                new SeededRandomSource(1), BUSY, BUSY));
+    }
+
+    private static DiscreteEventSimulation exponential(long seed) {
+        return new DiscreteEventSimulation(4, 3, 10, new FifoPolicy(), new SeededRandomSource(seed),
+                WorkloadType.EXPONENTIAL.profile(true), WorkloadType.EXPONENTIAL.profile(false));
+    }
+}
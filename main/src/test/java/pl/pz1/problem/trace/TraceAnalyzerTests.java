@@ -0,0 +1,87 @@
+package pl.pz1.problem.trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.trace.BinaryTraceReader;
+import pl.pz1.problem.events.trace.BinaryTraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceAnalyzerTests {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void waitsAndStarvationAreReconstructedFromEvents(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("library.trace");
+        try (BinaryTraceWriter trace = new BinaryTraceWriter(file)) {
+            long start = System.nanoTime();
+            trace.write(EventKind.ENQUEUED, 1, true, start, 1, 0);
+            trace.write(EventKind.ADMITTED, 1, true, start, 0, 2);
+            trace.write(EventKind.ENQUEUED, 1, false, start + MS, 1, 2);
+            trace.write(EventKind.ENQUEUED, 2, true, start + 2 * MS, 2, 2);
+            trace.write(EventKind.ENQUEUED, 2, false, start + 3 * MS, 3, 2);
+            trace.write(EventKind.RELEASED, 1, true, start + 10 * MS, 3, 0);
+            trace.write(EventKind.ADMITTED, 1, false, start + 10 * MS, 2, 1);
+            trace.write(EventKind.CANCELLED, 2, false, start + 11 * MS, 1, 1);
+            trace.write(EventKind.ENQUEUED, 1, true, start + 12 * MS, 2, 1);
+            trace.write(EventKind.RELEASED, 1, false, start + 30 * MS, 2, 0);
+        }
+
+        TraceReport report;
+        try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+            report = new TraceAnalyzer(5 * MS, 10 * MS).analyze(reader);
+        }
+
+        assertEquals(10, report.getEvents());
+        assertTrue(report.getDurationNanos() >= 30 * MS);
+        assertEquals(3, report.getLongestQueue());
+        assertEquals(1, report.getWriterWaits().getCount());
+        assertEquals(9 * MS, report.getReaderWaits().getMax(), MS / 32.0);
+
+        List<ParticipantWaits> participants = report.getParticipants();
+        assertEquals(3, participants.size());
+        assertTrue(participants.get(0).isWriter());
+        ParticipantWaits reader2 = participants.get(2);
+        assertEquals(2, reader2.getId());
+        assertEquals(0, reader2.getAdmitted());
+        assertEquals(1, reader2.getCancelled());
+
+        List<StarvationWindow> starvation = report.getStarvation();
+        assertEquals(4, starvation.size());
+        assertEquals(EventKind.ADMITTED, starvation.get(0).getEnd());
+        assertEquals(9 * MS, starvation.get(0).getLength());
+        assertNull(starvation.get(1).getEnd());
+        assertEquals(2, starvation.get(1).getId());
+        assertEquals(EventKind.CANCELLED, starvation.get(2).getEnd());
+        assertEquals(18 * MS, starvation.get(3).getLength());
+        assertEquals(2, report.getStuck().size());
+
+        List<QueueWindow> timeline = report.getTimeline();
+        assertEquals(4, timeline.size());
+        assertEquals(3, timeline.get(0).getMaxQueueDepth());
+        assertEquals(2, timeline.get(1).getAdmitted() + timeline.get(0).getAdmitted());
+        assertEquals(2, timeline.get(2).getMaxQueueDepth());
+        assertTrue(report.describe().contains("Okna głodzenia (czekanie od 5.0 ms): 4"));
+    }
+
+    @Test
+    void participantPercentilesAreBoundedByPowersOfTwo() {
+        ParticipantWaits waits = new ParticipantWaits(1, false);
+        for (int i = 1; i <= 100; i++) {
+            waits.recordAdmitted(i * 1000L);
+        }
+        assertEquals(100, waits.getAdmitted());
+        assertEquals(50_500, waits.getMeanNanos());
+        assertEquals(100_000, waits.getMaxNanos());
+        assertEquals(100_000, waits.getWaitAtPercentile(100));
+        long median = waits.getWaitAtPercentile(50);
+        assertTrue(median >= 50_000 && median < 100_000, "median " + median);
+        assertThrows(IllegalArgumentException.class, () -> waits.getWaitAtPercentile(-1));
+    }
+}
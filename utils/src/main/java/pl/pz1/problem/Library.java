@@ -1,29 +1,147 @@
 package pl.pz1.problem;
 
+import pl.pz1.problem.combining.WriteCombiner;
+import pl.pz1.problem.events.ConsoleEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.fairness.FairnessPolicy;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.metrics.LibraryMetrics;
+import pl.pz1.problem.queue.PriorityClass;
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
 import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.waiting.BlockingWaitStrategy;
+import pl.pz1.problem.waiting.WaitStrategy;
 
+import java.lang.invoke.VarHandle;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.annotations.VisibleForTesting;
 
 
 /**
  * Represents the shared Library in the Readers and Writers problem.
- * Controls access for readers and writers using semaphores to ensure proper synchronization.
+ * Controls access for readers and writers using a lock to ensure proper synchronization.
+ * Every blocked waiter awaits on a condition of its own, so admitting somebody wakes only that one.
+ * The lock is used instead of a monitor so that waiting does not pin the carrier of a virtual thread.
+ * Both the queue and the set of those inside answer every query in constant time,
+ * so neither leaving nor giving up waiting depends on how crowded the library is.
+ * Waiters do not admit themselves: whoever frees places admits the waiters that fit on their behalf.
+ * Which waiters those are is decided by a {@link FairnessPolicy}, by default the strict order of arrival.
+ * Waiting and holding times, outcomes of waiting and the state after every change are recorded
+ * into {@link LibraryMetrics}, whose recording is lock-free and so adds little to the time the lock is held.
+ * A writer may {@link #downgrade(Identifier) downgrade} to a reader without leaving, and one reader at a time
+ * may enter as an {@link #startUpgradableReading(Identifier) upgradable} one, which reads alongside plain readers
+ * and later {@link #upgrade(Identifier) upgrades} to a writer without losing its place to anybody queued.
+ * Short reads may skip the library altogether: an {@link #tryOptimisticRead() optimistic} reader takes a stamp
+ * of the version, reads, and {@link #validate(long) validates} that no writer was inside in the meantime.
+ * Participants which must not block their thread queue {@link #startReadingAsync(Identifier, Runnable)
+ * asynchronously} and are told about their admission by a callback.
+ * How a queued thread waits is decided by a {@link WaitStrategy}: by default it parks right away,
+ * but with short holding times it may spin for a moment first and skip being woken up.
+ * Readers may {@link #startReading(Identifier, int) weigh} more than one place, which turns the capacity
+ * into a budget shared by cheap and costly reads.
+ * Every participant belongs to a {@link PriorityClass}, whose objective of waiting time its wait is recorded against.
+ * Small writes may be {@link #write(Identifier, Runnable) submitted} instead, to be applied in batches
+ * by a single combining writer.
  */
-public class Library {
-    private final Queue<Identifier> queue = new LinkedList<>();
-    private final List<Identifier> thoseInside = new ArrayList<>();
+public class Library implements LibraryEngine {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final WaitQueue queue = new WaitQueue();
+    private final Map<Identifier, Long> thoseInside = new LinkedHashMap<>();
+    private final Map<Identifier, Integer> weights = new HashMap<>();
     private int occupiedPlacesAmount = 0;
+    private boolean writerInside = false;
+    private Identifier upgrader;
+    private boolean upgrading = false;
+    private volatile long version = 2;
     private final int capacity;
+    private final FairnessPolicy policy;
+    private final LibraryEventSink events;
+    private final LibraryMetrics metrics;
+    private final WaitStrategy waiting;
+    private final WriteCombiner combiner = new WriteCombiner(this);
 
     /**
-     * Constructs a Library with the specified capacity.
+     * Constructs a Library with the specified capacity, printing every event to the console.
      *
      * @param capacity The maximum number of readers allowed at the same time.
      */
     public Library(int capacity) {
+        this(capacity, new FifoPolicy());
+    }
+
+    /**
+     * Constructs a Library with the specified capacity and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param events The sink receiving every event of the library.
+     */
+    public Library(int capacity, LibraryEventSink events) {
+        this(capacity, new FifoPolicy(), events);
+    }
+
+    /**
+     * Constructs a Library with the specified capacity and fairness policy, printing every event to the console.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param policy The policy choosing who enters next, used by this library only.
+     */
+    public Library(int capacity, FairnessPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.events = new ConsoleEventSink(this::printInfo);
+        this.metrics = new LibraryMetrics();
+        this.waiting = new BlockingWaitStrategy();
+    }
+
+    /**
+     * Constructs a Library with the specified capacity, fairness policy and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param policy The policy choosing who enters next, used by this library only.
+     * @param events The sink receiving every event of the library.
+     */
+    public Library(int capacity, FairnessPolicy policy, LibraryEventSink events) {
+        this(capacity, policy, events, new LibraryMetrics());
+    }
+
+    /**
+     * Constructs a Library with the specified capacity, fairness policy, sink of events and metrics.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param policy The policy choosing who enters next, used by this library only.
+     * @param events The sink receiving every event of the library.
+     * @param metrics The metrics recording what happens in the library, e.g. sampling only some changes.
+     */
+    public Library(int capacity, FairnessPolicy policy, LibraryEventSink events, LibraryMetrics metrics) {
+        this(capacity, policy, events, metrics, new BlockingWaitStrategy());
+    }
+
+    /**
+     * Constructs a Library with the specified capacity, fairness policy, sink of events, metrics
+     * and waiting strategy.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param policy The policy choosing who enters next, used by this library only.
+     * @param events The sink receiving every event of the library.
+     * @param metrics The metrics recording what happens in the library, e.g. sampling only some changes.
+     * @param waiting The strategy deciding how queued threads wait, used by this library only.
+     */
+    public Library(int capacity, FairnessPolicy policy, LibraryEventSink events, LibraryMetrics metrics,
+                   WaitStrategy waiting) {
         this.capacity = capacity;
+        this.policy = policy;
+        this.events = events;
+        this.metrics = metrics;
+        this.waiting = waiting;
     }
 
     /**
@@ -33,27 +151,32 @@ public class Library {
      * @param identifier The unique ID of the writer.
      * @throws InterruptedException If the thread is interrupted while waiting for access.
      */
-    public synchronized void startWriting(Identifier identifier) throws InterruptedException {
-        try {
-            queue.add(identifier);
-            System.out.println(identifier.getName() + " " + identifier.getId() + " stanął w kolejce i czeka na wejście. "
-                    + printInfo());
+    @Override
+    public void startWriting(Identifier identifier) throws InterruptedException {
+        enter(new WaitNode(identifier, true), false, 0L);
+    }
 
-            while (queue.peek() != identifier || occupiedPlacesAmount > 0) {
-                wait();
-            }
+    /**
+     * Allows a writer of the given class of service to start writing in the library.
+     * The class sets the deadline of the writer, which matters under a policy ordering waiters by deadline,
+     * e.g. {@link pl.pz1.problem.fairness.EarliestDeadlinePolicy}, and against which its wait is recorded.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param priority class of service of the writer
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    public void startWriting(Identifier identifier, PriorityClass priority) throws InterruptedException {
+        enter(new WaitNode(identifier, true, 1, priority, null), false, 0L);
+    }
 
-            occupiedPlacesAmount = capacity;
-            thoseInside.add(identifier);
-            queue.poll();
-            System.out.println(identifier.getName() + " " + identifier.getId() + " wszedł i pisze... "
-                    + printInfo());
-        }
-        catch (InterruptedException e) {
-            queue.remove(identifier);
-            System.out.println(e.getMessage());
-            throw new InterruptedException();
-        }
+    @Override
+    public boolean tryStartWriting(Identifier identifier) {
+        return tryEnter(new WaitNode(identifier, true));
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return enter(new WaitNode(identifier, true), true, unit.toNanos(timeout));
     }
 
     /**
@@ -61,15 +184,26 @@ public class Library {
      *
      * @param identifier The unique ID of the writer.
      */
-    public synchronized void stopWriting(Identifier identifier) {
-        if (!thoseInside.contains(identifier)) {
-            return;
+    @Override
+    public void stopWriting(Identifier identifier) {
+        lock.lock();
+        try {
+            Long admittedAt = thoseInside.remove(identifier);
+            if (admittedAt == null) {
+                return;
+            }
+            occupiedPlacesAmount = 0;
+            writerInside = false;
+            version++;
+            long held = System.nanoTime() - admittedAt;
+            metrics.recordReleased(true, held);
+            waiting.released(held);
+            emit(EventKind.RELEASED, identifier, true);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
         }
-        occupiedPlacesAmount = 0;
-        thoseInside.remove(identifier);
-        System.out.println(identifier.getName() + " " + identifier.getId() + " opuścił bibliotekę. "
-                + printInfo());
-        notifyAll();
     }
 
     /**
@@ -79,28 +213,267 @@ public class Library {
      * @param identifier The unique ID of the reader.
      * @throws InterruptedException If the thread is interrupted while waiting for access.
      */
-    public synchronized void startReading(Identifier identifier) throws InterruptedException {
+    @Override
+    public void startReading(Identifier identifier) throws InterruptedException {
+        enter(new WaitNode(identifier, false), false, 0L);
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier) {
+        return tryEnter(new WaitNode(identifier, false));
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return enter(new WaitNode(identifier, false), true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Allows a reader of the given class of service to start reading in the library.
+     * The class sets the deadline of the reader, which matters under a policy ordering waiters by deadline,
+     * e.g. {@link pl.pz1.problem.fairness.EarliestDeadlinePolicy}, and against which its wait is recorded.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param priority class of service of the reader
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    public void startReading(Identifier identifier, PriorityClass priority) throws InterruptedException {
+        enter(new WaitNode(identifier, false, 1, priority, null), false, 0L);
+    }
+
+    /**
+     * Allows a reader taking the given number of places to start reading in the library,
+     * e.g. a bulk scan costing as much as several point lookups. Readers read together while the sum
+     * of their weights does not exceed the capacity. A heavy reader keeps its place in the queue,
+     * so lighter readers arriving after it wait until it fits and cannot starve it.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param weight how many places the reader takes, from one up to the capacity
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     * @throws IllegalArgumentException If the weight is not positive or exceeds the capacity.
+     */
+    public void startReading(Identifier identifier, int weight) throws InterruptedException {
+        enter(new WaitNode(identifier, false, checkWeight(weight), null), false, 0L);
+    }
+
+    /**
+     * Allows a reader taking the given number of places and of the given class of service to start reading,
+     * see {@link #startReading(Identifier, int)} and {@link #startReading(Identifier, PriorityClass)}.
+     * Under a policy ordering waiters by deadline, lighter readers of a more urgent class may overtake
+     * a heavy reader until it is due before them.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param weight how many places the reader takes, from one up to the capacity
+     * @param priority class of service of the reader
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     * @throws IllegalArgumentException If the weight is not positive or exceeds the capacity.
+     */
+    public void startReading(Identifier identifier, int weight, PriorityClass priority) throws InterruptedException {
+        enter(new WaitNode(identifier, false, checkWeight(weight), priority, null), false, 0L);
+    }
+
+    /**
+     * Allows a reader taking the given number of places to start reading if it is admitted within the timeout,
+     * see {@link #startReading(Identifier, int)}.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param weight how many places the reader takes, from one up to the capacity
+     * @param timeout the longest time to wait
+     * @param unit unit of the timeout
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     * @throws IllegalArgumentException If the weight is not positive or exceeds the capacity.
+     */
+    public boolean tryStartReading(Identifier identifier, int weight, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return enter(new WaitNode(identifier, false, checkWeight(weight), null), true, unit.toNanos(timeout));
+    }
+
+    private int checkWeight(int weight) {
+        if (weight < 1 || weight > capacity) {
+            throw new IllegalArgumentException("Weight must be between 1 and the capacity " + capacity + ": " + weight);
+        }
+        return weight;
+    }
+
+    /**
+     * Puts a reader at the end of the queue without waiting. Whoever admits it runs the callback,
+     * possibly the calling thread right away, while holding the lock of the library; the callback must
+     * therefore only hand the reader over, e.g. to an executor, and never block or call the library.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param onAdmitted callback run once the reader is inside
+     * @return always true
+     */
+    @Override
+    public boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+        enterAsync(new WaitNode(identifier, false, onAdmitted));
+        return true;
+    }
+
+    /**
+     * Puts a writer at the end of the queue without waiting. Whoever admits it runs the callback,
+     * possibly the calling thread right away, while holding the lock of the library; the callback must
+     * therefore only hand the writer over, e.g. to an executor, and never block or call the library.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param onAdmitted callback run once the writer is inside
+     * @return always true
+     */
+    @Override
+    public boolean startWritingAsync(Identifier identifier, Runnable onAdmitted) {
+        enterAsync(new WaitNode(identifier, true, onAdmitted));
+        return true;
+    }
+
+    /**
+     * Puts the participant at the end of the queue and admits whoever fits, without waiting.
+     *
+     * @param node queue entry carrying the callback
+     */
+    private void enterAsync(WaitNode node) {
+        lock.lock();
         try {
-            queue.add(identifier);
-            System.out.println(identifier.getName() + " " + identifier.getId() + " stanął w kolejce i czeka na wejście. "
-                                + printInfo());
+            enqueue(node);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
 
-            while (queue.peek() != identifier || occupiedPlacesAmount == capacity) {
-                wait();
-            }
+    /**
+     * Puts the participant at the end of the queue and waits until some releasing thread admits it.
+     * A timed wait ends at the deadline even if nobody signals, and the participant leaves the queue then.
+     * If the waiting strategy says so, the thread first spins without the lock, watching its own entry,
+     * and parks only if it was not admitted meanwhile. Must be called without holding the lock,
+     * as spinning while holding it would keep out the very thread which could admit the participant.
+     *
+     * @param node queue entry of the calling thread
+     * @param timed true if the wait is limited
+     * @param nanos the longest time to wait, in nanoseconds, if the wait is limited
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted before being admitted.
+     */
+    private boolean enter(WaitNode node, boolean timed, long nanos) throws InterruptedException {
+        lock.lock();
+        try {
+            enqueue(node);
+            admitWaiters();
 
-            occupiedPlacesAmount++;
-            thoseInside.add(identifier);
-            queue.poll();
-            System.out.println(identifier.getName() + " " + identifier.getId() + " wszedł i czyta... "
-                    + printInfo());
-            notifyAll();
+            long spinNanos = node.isAdmitted() ? 0 : waiting.spinNanos();
+            if (spinNanos > 0) {
+                lock.unlock();
+                try {
+                    nanos -= spin(node, timed ? Math.min(spinNanos, nanos) : spinNanos);
+                }
+                finally {
+                    lock.lock();
+                }
+            }
+            if (!node.isAdmitted()) {
+                node.setAdmission(lock.newCondition());
+            }
+            while (!node.isAdmitted()) {
+                if (!timed) {
+                    node.getAdmission().await();
+                }
+                else if (nanos > 0) {
+                    nanos = node.getAdmission().awaitNanos(nanos);
+                }
+                else {
+                    giveUp(node, EventKind.TIMED_OUT);
+                    return false;
+                }
+            }
+            return true;
         }
         catch (InterruptedException e) {
-            queue.remove(identifier);
-            System.out.println(e.getMessage());
-            throw new InterruptedException();
+            if (node.isAdmitted()) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+            giveUp(node, EventKind.CANCELLED);
+            InterruptedException cancelled = new InterruptedException(node.getIdentifier().getName() + " "
+                    + node.getIdentifier().getId() + " zrezygnował z czekania w kolejce.");
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Spins until the participant is admitted, its thread is interrupted or the time elapses.
+     * Called without holding the lock; an interruption is left for the following wait to notice.
+     *
+     * @param node queue entry of the calling thread
+     * @param nanos the longest time to spin, in nanoseconds
+     * @return how long the thread spun, in nanoseconds
+     */
+    private static long spin(WaitNode node, long nanos) {
+        long start = System.nanoTime();
+        long spun = 0;
+        while (!node.isAdmitted() && !Thread.currentThread().isInterrupted() && spun < nanos) {
+            Thread.onSpinWait();
+            spun = System.nanoTime() - start;
         }
+        return spun;
+    }
+
+    /**
+     * Lets the participant in only if the fairness policy admits it right away, otherwise takes it off the queue.
+     *
+     * @param node queue entry of the calling thread
+     * @return true if admitted
+     */
+    private boolean tryEnter(WaitNode node) {
+        lock.lock();
+        try {
+            enqueue(node);
+            admitWaiters();
+            if (node.isAdmitted()) {
+                return true;
+            }
+            giveUp(node, EventKind.TIMED_OUT);
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the participant at the end of the queue and tells the fairness policy about it.
+     * Must be called while holding the lock.
+     *
+     * @param node queue entry of the participant
+     */
+    private void enqueue(WaitNode node) {
+        queue.add(node);
+        policy.enqueued(node);
+        emit(EventKind.ENQUEUED, node.getIdentifier(), node.isWriter());
+    }
+
+    /**
+     * Takes a waiter which stopped waiting off the queue in constant time.
+     * Nobody is woken up, unless its leaving lets somebody behind it in. Must be called while holding the lock.
+     *
+     * @param node queue entry of the waiter
+     * @param kind why the waiter gave up
+     */
+    private void giveUp(WaitNode node, EventKind kind) {
+        policy.gaveUp(node, queue);
+        queue.remove(node);
+        if (kind == EventKind.TIMED_OUT) {
+            metrics.recordTimedOut(node.isWriter());
+        }
+        else {
+            metrics.recordCancelled(node.isWriter());
+        }
+        emit(kind, node.getIdentifier(), node.isWriter());
+        admitWaiters();
     }
 
     /**
@@ -108,46 +481,376 @@ public class Library {
      *
      * @param identifier The unique ID of the reader.
      */
-    public synchronized void stopReading(Identifier identifier) {
-        if (!thoseInside.contains(identifier)) {
+    @Override
+    public void stopReading(Identifier identifier) {
+        lock.lock();
+        try {
+            Long admittedAt = thoseInside.remove(identifier);
+            if (admittedAt == null) {
+                return;
+            }
+            Integer weight = weights.remove(identifier);
+            occupiedPlacesAmount -= weight == null ? 1 : weight;
+            long held = System.nanoTime() - admittedAt;
+            metrics.recordReleased(false, held);
+            waiting.released(held);
+            emit(EventKind.RELEASED, identifier, false);
+            if (identifier == upgrader) {
+                releaseUpgrader();
+            }
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits, in a single pass, every waiter the fairness policy lets in while they fit in the library,
+     * so a writer leaving lets in the whole run of readers behind it up to the capacity at once.
+     * Only the threads of those admitted are signalled, each on its own condition, so waiters which stay
+     * queued are not woken just to find they still do not fit. While a reader upgrades nobody is admitted,
+     * so the readers inside can only leave; the upgrader is woken once it is the last one.
+     * Must be called while holding the lock.
+     */
+    private void admitWaiters() {
+        if (upgrading) {
+            if (occupiedPlacesAmount == 1) {
+                changed.signalAll();
+            }
             return;
         }
-        occupiedPlacesAmount--;
-        thoseInside.remove(identifier);
-        System.out.println(identifier.getName() + " " + identifier.getId() + " opuścił bibliotekę. "
-                + printInfo());
-        notifyAll();
+        long now = System.nanoTime();
+        WaitNode next;
+        while ((next = policy.select(queue, writerInside ? 0 : occupiedPlacesAmount, writerInside, capacity)) != null) {
+            if (next.isWriter()) {
+                occupiedPlacesAmount = capacity;
+                writerInside = true;
+                version++;
+            }
+            else {
+                occupiedPlacesAmount += next.getWeight();
+                if (next.getWeight() > 1) {
+                    weights.put(next.getIdentifier(), next.getWeight());
+                }
+            }
+
+            queue.remove(next);
+            policy.admitted(next, queue);
+            thoseInside.put(next.getIdentifier(), now);
+            long waited = now - next.getEnqueuedAt();
+            metrics.recordAdmitted(next.isWriter(), waited);
+            metrics.recordServiceLevel(next.getPriority(), waited);
+            emit(EventKind.ADMITTED, next.getIdentifier(), next.isWriter());
+            next.markAdmitted();
+            if (next.getOnAdmitted() != null) {
+                next.getOnAdmitted().run();
+            }
+            else if (next.getAdmission() != null) {
+                next.getAdmission().signal();
+            }
+        }
     }
 
     /**
-     * Method which construct String representing the Library information.
-     * This String consists of information who is in the queue and who is inside the Library
+     * Allows a reader to start reading as the only one who may later upgrade to writing.
+     * Waits until no other upgradable reader is inside or queued, then releases the lock and queues
+     * like any other reader, so it may spin as they do, and is admitted alongside plain readers.
      *
-     * @return constructed String
+     * @param identifier The unique ID of the reader.
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
      */
-    @VisibleForTesting
-    synchronized String printInfo() {
-        return "W kolejce: " + print(queue) + ". W bibliotece: " + print(thoseInside) + "\n";
+    public void startUpgradableReading(Identifier identifier) throws InterruptedException {
+        lock.lock();
+        try {
+            while (upgrader != null) {
+                changed.await();
+            }
+            upgrader = identifier;
+        }
+        finally {
+            lock.unlock();
+        }
+        try {
+            enter(new WaitNode(identifier, false), false, 0L);
+        }
+        catch (InterruptedException e) {
+            lock.lock();
+            try {
+                releaseUpgrader();
+            }
+            finally {
+                lock.unlock();
+            }
+            throw e;
+        }
     }
 
     /**
-     * Method which converts Collection of Identifiers to String and return this String.
-     * Constructed String is in format like: X-Y, where X is short name of Writer or Reader, and Y is ID number
+     * Lets a reader in as the upgradable one only if no other upgradable reader is there
+     * and the fairness policy admits it right away.
      *
-     * @param ids Collection to convert
-     * @return constructed String
+     * @param identifier The unique ID of the reader.
+     * @return true if admitted
+     */
+    public boolean tryStartUpgradableReading(Identifier identifier) {
+        lock.lock();
+        try {
+            if (upgrader != null) {
+                return false;
+            }
+            upgrader = identifier;
+            if (tryEnter(new WaitNode(identifier, false))) {
+                return true;
+            }
+            releaseUpgrader();
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the upgradable reader into the writer without leaving the library.
+     * From now on nobody is admitted, the call waits only for the other readers inside to leave,
+     * so no queued writer gets in first. Afterwards the participant stops with {@link #stopWriting(Identifier)}.
+     *
+     * @param identifier The unique ID of the upgradable reader.
+     * @throws InterruptedException If the thread is interrupted while waiting, it is still reading then.
+     * @throws IllegalStateException If the participant is not the upgradable reader inside.
+     */
+    public void upgrade(Identifier identifier) throws InterruptedException {
+        lock.lock();
+        try {
+            checkUpgrader(identifier);
+            long startedAt = System.nanoTime();
+            upgrading = true;
+            try {
+                while (occupiedPlacesAmount > 1) {
+                    changed.await();
+                }
+            }
+            catch (InterruptedException e) {
+                upgrading = false;
+                admitWaiters();
+                throw e;
+            }
+            upgrading = false;
+            becomeWriter(identifier, startedAt);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the upgradable reader into the writer only if no other reader is inside.
+     *
+     * @param identifier The unique ID of the upgradable reader.
+     * @return true if upgraded, false if the participant keeps reading
+     * @throws IllegalStateException If the participant is not the upgradable reader inside.
      */
-    private synchronized String print(Collection<Identifier> ids) {
-        StringBuilder sb = new StringBuilder();
-        if(ids.isEmpty()) {
-            return "";
+    public boolean tryUpgrade(Identifier identifier) {
+        lock.lock();
+        try {
+            checkUpgrader(identifier);
+            if (occupiedPlacesAmount > 1) {
+                return false;
+            }
+            becomeWriter(identifier, System.nanoTime());
+            return true;
+        }
+        finally {
+            lock.unlock();
         }
+    }
 
-        for (Identifier id : ids) {
-            sb.append(id.getShortName()).append("-").append(id.getId()).append(", ");
+    /**
+     * Turns the writer into a reader without leaving the library, so no other writer can get in between.
+     * Readers waiting behind are admitted as if the writer had left. Afterwards the participant stops with
+     * {@link #stopReading(Identifier)}.
+     *
+     * @param identifier The unique ID of the writer.
+     * @throws IllegalStateException If the participant is not the writer inside.
+     */
+    public void downgrade(Identifier identifier) {
+        lock.lock();
+        try {
+            if (!writerInside || !thoseInside.containsKey(identifier)) {
+                throw new IllegalStateException(describe(identifier) + " is not writing");
+            }
+            long now = System.nanoTime();
+            long admittedAt = thoseInside.put(identifier, now);
+            occupiedPlacesAmount = 1;
+            writerInside = false;
+            version++;
+            metrics.recordReleased(true, now - admittedAt);
+            metrics.recordAdmitted(false, 0);
+            emit(EventKind.DOWNGRADED, identifier, true);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a stamp for reading without entering the library, neither taking a place nor waiting in the queue.
+     * The version of the library, never zero, is odd exactly while a writer is inside and grows every time
+     * one enters or leaves, so a read started under an even version saw no writing if the version
+     * is unchanged afterwards.
+     *
+     * @return stamp to {@link #validate(long) validate} after reading, or zero if a writer is inside right now
+     */
+    public long tryOptimisticRead() {
+        long stamp = version;
+        return (stamp & 1) == 0 ? stamp : 0L;
+    }
+
+    /**
+     * Tells if no writer entered since the stamp was taken, so whatever was read after taking it is consistent.
+     * Reads done before the call are not reordered after the check.
+     *
+     * @param stamp stamp returned by {@link #tryOptimisticRead()}
+     * @return true if the read is valid, always false for a zero stamp
+     */
+    public boolean validate(long stamp) {
+        VarHandle.acquireFence();
+        return stamp != 0L && version == stamp;
+    }
+
+    /**
+     * Reads optimistically and, if a writer got in the way, reads once more inside the library as a reader.
+     * The read must have no side effects and must tolerate inconsistent state, as it may run during writing.
+     *
+     * @param identifier The unique ID of the reader, used only if it has to enter.
+     * @param read the read to do
+     * @param <T> type of what is read
+     * @return result of a read no writer interfered with
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    public <T> T read(Identifier identifier, Supplier<T> read) throws InterruptedException {
+        long stamp = tryOptimisticRead();
+        if (stamp != 0L) {
+            T result = read.get();
+            if (validate(stamp)) {
+                return result;
+            }
+        }
+        startReading(identifier);
+        try {
+            return read.get();
+        }
+        finally {
+            stopReading(identifier);
+        }
+    }
+
+    /**
+     * Submits a write and waits until it is applied, possibly by another writer which applies every write
+     * submitted meanwhile in one writer phase, see {@link WriteCombiner}.
+     *
+     * @param identifier The unique ID of the writer, under which it enters if it applies the batch itself.
+     * @param write the write, which must not wait for the library
+     * @throws InterruptedException If the thread is interrupted before its write was taken up.
+     */
+    public void write(Identifier identifier, Runnable write) throws InterruptedException {
+        combiner.write(identifier, write);
+    }
+
+    /**
+     * Returns the combiner applying the writes submitted by {@link #write(Identifier, Runnable)}.
+     *
+     * @return combiner of this library
+     */
+    public WriteCombiner getCombiner() {
+        return combiner;
+    }
+
+    /**
+     * Checks that the participant is the upgradable reader and is already inside.
+     * Must be called while holding the lock.
+     *
+     * @param identifier who wants to upgrade
+     * @throws IllegalStateException If it is not.
+     */
+    private void checkUpgrader(Identifier identifier) {
+        if (identifier != upgrader || writerInside || !thoseInside.containsKey(identifier)) {
+            throw new IllegalStateException(describe(identifier) + " is not the upgradable reader inside");
+        }
+    }
+
+    /**
+     * Makes the upgradable reader, now the only one inside, the writer and frees the place of the upgradable one.
+     * Must be called while holding the lock.
+     *
+     * @param identifier the upgradable reader
+     * @param startedAt when the upgrade started, its wait counts as the wait of the writer
+     */
+    private void becomeWriter(Identifier identifier, long startedAt) {
+        long now = System.nanoTime();
+        long admittedAt = thoseInside.put(identifier, now);
+        occupiedPlacesAmount = capacity;
+        writerInside = true;
+        version++;
+        metrics.recordReleased(false, now - admittedAt);
+        metrics.recordAdmitted(true, now - startedAt);
+        emit(EventKind.UPGRADED, identifier, false);
+        releaseUpgrader();
+    }
+
+    /**
+     * Frees the place of the upgradable reader and wakes those waiting for it.
+     * Must be called while holding the lock.
+     */
+    private void releaseUpgrader() {
+        upgrader = null;
+        changed.signalAll();
+    }
+
+    private static String describe(Identifier identifier) {
+        return identifier.getName() + " " + identifier.getId();
+    }
+
+    /**
+     * Passes an event to the sink together with the current state of the library and samples that state.
+     * Must be called while holding the lock.
+     *
+     * @param kind what happened
+     * @param identifier who it happened to
+     * @param writer true if the participant acts as a writer, false if as a reader;
+     *               for a change of role, the role it had before
+     */
+    private void emit(EventKind kind, Identifier identifier, boolean writer) {
+        events.emit(kind, identifier, writer, queue.size(), occupiedPlacesAmount);
+        metrics.sample(queue.size(), occupiedPlacesAmount);
+    }
+
+    /**
+     * Returns the live metrics of the library. Taking their snapshot does not need the lock of the library.
+     *
+     * @return metrics of the library
+     */
+    public LibraryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     * This String consists of information who is in the queue and who is inside the Library
+     *
+     * @return constructed String
+     */
+    @VisibleForTesting
+    String printInfo() {
+        lock.lock();
+        try {
+            return LibraryInfo.describe(queue.identifiers(), thoseInside.keySet());
+        }
+        finally {
+            lock.unlock();
         }
-        sb.delete(sb.length() - 2, sb.length());
-        return sb.toString();
     }
 
     /**
@@ -156,8 +859,15 @@ public class Library {
      * @return attribute occupiedPlacesAmount.
      */
     @TestOnly
-    public synchronized int getOccupiedPlacesAmount() {
-        return occupiedPlacesAmount;
+    @Override
+    public int getOccupiedPlacesAmount() {
+        lock.lock();
+        try {
+            return occupiedPlacesAmount;
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -166,18 +876,32 @@ public class Library {
      * @return size of queue
      */
     @TestOnly
-    public synchronized int getQueueSize() {
-        return queue.size();
+    @Override
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Allows to check if given Identifier is on the list of thoseInside.
+     * Allows to check if given Identifier is in the set of thoseInside.
      *
      * @param identifier Identifier of person whose existence in Library we want to check.
      * @return boolean answer - True if person is in Library.
      */
     @TestOnly
-    public synchronized boolean isInside(Identifier identifier) {
-        return thoseInside.contains(identifier);
+    @Override
+    public boolean isInside(Identifier identifier) {
+        lock.lock();
+        try {
+            return thoseInside.containsKey(identifier);
+        }
+        finally {
+            lock.unlock();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package pl.pz1.problem;
+
+import org.jetbrains.annotations.TestOnly;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common contract of every synchronization engine guarding the shared Library.
+ * Readers and writers only talk to this interface, so engines can be swapped without touching them.
+ */
+public interface LibraryEngine {
+    /**
+     * Allows a writer to start writing in the library.
+     * Writers have exclusive access, so no other writers or readers are allowed simultaneously.
+     *
+     * @param identifier The unique ID of the writer.
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    void startWriting(Identifier identifier) throws InterruptedException;
+
+    /**
+     * Allows a writer to start writing only if it can do so without waiting.
+     * A writer which cannot get in at once does not stay in the queue.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in, false otherwise.
+     */
+    boolean tryStartWriting(Identifier identifier);
+
+    /**
+     * Allows a writer to start writing if it gets in before the given time elapses.
+     * A writer which runs out of time leaves the queue without disturbing anyone waiting behind it.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return true if the writer got in, false if the time elapsed first.
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Allows a writer to stop writing and releases the library for others.
+     * Calls made by someone who is not inside are ignored.
+     *
+     * @param identifier The unique ID of the writer.
+     */
+    void stopWriting(Identifier identifier);
+
+    /**
+     * Allows a reader to start reading in the library.
+     * Multiple readers can read simultaneously, up to the capacity of the library.
+     *
+     * @param identifier The unique ID of the reader.
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    void startReading(Identifier identifier) throws InterruptedException;
+
+    /**
+     * Allows a reader to start reading only if it can do so without waiting.
+     * A reader which cannot get in at once does not stay in the queue.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return true if the reader got in, false otherwise.
+     */
+    boolean tryStartReading(Identifier identifier);
+
+    /**
+     * Allows a reader to start reading if it gets in before the given time elapses.
+     * A reader which runs out of time leaves the queue without disturbing anyone waiting behind it.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param timeout The longest time to wait.
+     * @param unit The unit of the timeout.
+     * @return true if the reader got in, false if the time elapsed first.
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Allows a reader to stop reading and releases the library for others.
+     * Calls made by someone who is not inside are ignored.
+     *
+     * @param identifier The unique ID of the reader.
+     */
+    void stopReading(Identifier identifier);
+
+    /**
+     * Puts a reader in the queue without waiting, if the engine admits participants by a callback.
+     * Whoever admits the reader runs the callback, possibly the calling thread right away and possibly while
+     * holding a lock of the engine; the callback must therefore only hand the reader over, e.g. to an executor,
+     * and never block or call the library. Engines without callbacks do nothing and return false.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param onAdmitted callback run once the reader is inside
+     * @return true if the reader was queued and the callback runs on its admission, false if the engine
+     *         does not admit by a callback
+     */
+    default boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+        return false;
+    }
+
+    /**
+     * Puts a writer in the queue without waiting, if the engine admits participants by a callback,
+     * see {@link #startReadingAsync(Identifier, Runnable)}.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param onAdmitted callback run once the writer is inside
+     * @return true if the writer was queued and the callback runs on its admission, false if the engine
+     *         does not admit by a callback
+     */
+    default boolean startWritingAsync(Identifier identifier, Runnable onAdmitted) {
+        return false;
+    }
+
+    /**
+     * Lets a reader in if it can enter right now, for a participant which keeps asking until it gets in.
+     * Unlike {@link #tryStartReading(Identifier)}, engines record nothing when the reader cannot enter,
+     * so asking again and again does not flood their events with refusals.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return true if the reader got in, false otherwise.
+     */
+    default boolean pollReading(Identifier identifier) {
+        return tryStartReading(identifier);
+    }
+
+    /**
+     * Lets a writer in if it can enter right now, for a participant which keeps asking until it gets in,
+     * see {@link #pollReading(Identifier)}.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in, false otherwise.
+     */
+    default boolean pollWriting(Identifier identifier) {
+        return tryStartWriting(identifier);
+    }
+
+    /**
+     * Returns how many places of the library are currently occupied.
+     * A writer inside occupies all of them.
+     *
+     * @return amount of occupied places.
+     */
+    @TestOnly
+    int getOccupiedPlacesAmount();
+
+    /**
+     * Allows to check size of the queue.
+     *
+     * @return size of queue
+     */
+    @TestOnly
+    int getQueueSize();
+
+    /**
+     * Allows to check if given Identifier is inside the Library.
+     *
+     * @param identifier Identifier of person whose existence in Library we want to check.
+     * @return boolean answer - True if person is in Library.
+     */
+    @TestOnly
+    boolean isInside(Identifier identifier);
+}
@@ -0,0 +1,45 @@
+package pl.pz1.problem;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Collection;
+
+/**
+ * Builds the human-readable description of the Library state shared by all engines.
+ */
+public final class LibraryInfo {
+    private LibraryInfo() {
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     * This String consists of information who is in the queue and who is inside the Library
+     *
+     * @param queue those waiting in the queue, in their order
+     * @param inside those currently inside the Library
+     * @return constructed String
+     */
+    public static String describe(Collection<Identifier> queue, Collection<Identifier> inside) {
+        return "W kolejce: " + print(queue) + ". W bibliotece: " + print(inside) + "\n";
+    }
+
+    /**
+     * Method which converts Collection of Identifiers to String and return this String.
+     * Constructed String is in format like: X-Y, where X is short name of Writer or Reader, and Y is ID number
+     *
+     * @param ids Collection to convert
+     * @return constructed String
+     */
+    public static String print(Collection<Identifier> ids) {
+        StringBuilder sb = new StringBuilder();
+        if(ids.isEmpty()) {
+            return "";
+        }
+
+        for (Identifier id : ids) {
+            sb.append(id.getShortName()).append("-").append(id.getId()).append(", ");
+        }
+        sb.delete(sb.length() - 2, sb.length());
+        return sb.toString();
+    }
+}
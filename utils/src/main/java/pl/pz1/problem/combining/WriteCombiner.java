@@ -0,0 +1,151 @@
+package pl.pz1.problem.combining;
+
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies many small writes to a library in few writer phases, by flat combining.
+ * A writer does not enter the library itself: it publishes its write and waits. Whichever waiting writer
+ * becomes the combiner enters the library once, applies every write published so far back to back,
+ * up to {@link #MAX_BATCH} of them, and leaves, waking their writers up. Readers are thus stalled once per batch
+ * instead of once per write, and writers skip most of the handoffs of the library.
+ * The library sees only the combiner, writing under its own identifier.
+ * Writes must not wait for the library or for each other, since they run inside a writer phase of another thread.
+ */
+public class WriteCombiner {
+    /**
+     * The most writes applied in one writer phase, so readers are not held back for too long.
+     */
+    public static final int MAX_BATCH = 64;
+
+    private final LibraryEngine library;
+    private final Queue<WriteOperation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+    private final LongAdder phases = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+
+    /**
+     * Constructs a WriteCombiner for the given library.
+     *
+     * @param library library the writes are applied in
+     */
+    public WriteCombiner(LibraryEngine library) {
+        this.library = library;
+    }
+
+    /**
+     * Submits a write and waits until it is applied inside the library, possibly by another thread.
+     * Whatever unchecked exception the write throws is rethrown here.
+     *
+     * @param identifier The unique ID of the writer, under which it enters if it becomes the combiner.
+     * @param operation the write
+     * @throws InterruptedException If the thread is interrupted before its write was taken up by a combiner;
+     *                              the write is not applied then.
+     */
+    public void write(Identifier identifier, Runnable operation) throws InterruptedException {
+        WriteOperation write = new WriteOperation(operation);
+        pending.add(write);
+        boolean interrupted = false;
+        while (!write.isDone()) {
+            if (combining.compareAndSet(false, true)) {
+                try {
+                    combine(identifier);
+                }
+                catch (InterruptedException e) {
+                    if (pending.remove(write)) {
+                        throw e;
+                    }
+                    interrupted = true;
+                }
+                finally {
+                    combining.set(false);
+                    wakeNextCombiner();
+                }
+            }
+            else {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    if (pending.remove(write)) {
+                        throw new InterruptedException(identifier.getName() + " " + identifier.getId()
+                                + " zrezygnował z czekania na zapis.");
+                    }
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        write.rethrow();
+    }
+
+    /**
+     * Enters the library as a writer and applies the writes published so far. Only one thread combines at a time.
+     *
+     * @param identifier identity of the combiner
+     * @throws InterruptedException If the combiner is interrupted while waiting for access.
+     */
+    private void combine(Identifier identifier) throws InterruptedException {
+        library.startWriting(identifier);
+        try {
+            int applied = 0;
+            WriteOperation write;
+            while (applied < MAX_BATCH && (write = pending.poll()) != null) {
+                write.apply();
+                applied++;
+                if (write.getOwner() != Thread.currentThread()) {
+                    LockSupport.unpark(write.getOwner());
+                }
+            }
+            phases.increment();
+            operations.add(applied);
+        }
+        finally {
+            library.stopWriting(identifier);
+        }
+    }
+
+    /**
+     * Wakes the writer of the oldest write left, so it becomes the next combiner;
+     * a writer which published its write after the last batch was taken would otherwise wait forever.
+     */
+    private void wakeNextCombiner() {
+        WriteOperation next = pending.peek();
+        if (next != null) {
+            LockSupport.unpark(next.getOwner());
+        }
+    }
+
+    /**
+     * Returns how many writes are waiting for a combiner.
+     *
+     * @return amount of pending writes
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns how many writer phases the combiners went through.
+     *
+     * @return amount of writer phases
+     */
+    public long getPhases() {
+        return phases.sum();
+    }
+
+    /**
+     * Returns how many writes were applied.
+     *
+     * @return amount of applied writes
+     */
+    public long getOperations() {
+        return operations.sum();
+    }
+}
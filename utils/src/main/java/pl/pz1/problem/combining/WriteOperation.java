@@ -0,0 +1,66 @@
+package pl.pz1.problem.combining;
+
+/**
+ * Write submitted to a {@link WriteCombiner}, published by the thread waiting for it and applied by the combiner.
+ */
+class WriteOperation {
+    private final Runnable operation;
+    private final Thread owner;
+    private volatile boolean done;
+    private Throwable failure;
+
+    /**
+     * Constructs a WriteOperation owned by the calling thread.
+     *
+     * @param operation the write
+     */
+    WriteOperation(Runnable operation) {
+        this.operation = operation;
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Applies the write, keeping whatever it throws for its owner, and wakes the owner up.
+     * Must be called by the combiner while it writes.
+     */
+    void apply() {
+        try {
+            operation.run();
+        }
+        catch (Throwable e) {
+            failure = e;
+        }
+        done = true;
+    }
+
+    /**
+     * Returns the thread waiting for the write.
+     *
+     * @return owning thread
+     */
+    Thread getOwner() {
+        return owner;
+    }
+
+    /**
+     * Tells if the write was applied.
+     *
+     * @return true if applied
+     */
+    boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Rethrows in the owning thread whatever the write threw while the combiner applied it.
+     * Only valid once the write is done.
+     */
+    void rethrow() {
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+    }
+}
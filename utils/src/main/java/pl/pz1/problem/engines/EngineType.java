@@ -0,0 +1,81 @@
+package pl.pz1.problem.engines;
+
+import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.events.LibraryEventSink;
+
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * Enumerates the available Library engines, so they can be chosen by name from the command line or a benchmark.
+ */
+public enum EngineType {
+    /**
+     * The original monitor {@link Library}, signalling only the waiters it admits.
+     */
+    MONITOR(Library::new, Library::new, true),
+
+    /**
+     * FIFO engine with direct handoff, see {@link FairLibrary}.
+     */
+    FAIR(FairLibrary::new, FairLibrary::new, true),
+
+    /**
+     * Engine with a lock-free fast path, see {@link LockFreeLibrary}.
+     */
+    LOCK_FREE(LockFreeLibrary::new, LockFreeLibrary::new, true),
+
+    /**
+     * Engine whose reader places are spread over per-core stripes, see {@link StripedLibrary}.
+     */
+    STRIPED(StripedLibrary::new, StripedLibrary::new, true),
+
+    /**
+     * Engine whose readers never wait, taking immutable versions of the data, see {@link SnapshotLibrary}.
+     */
+    SNAPSHOT(SnapshotLibrary::new, SnapshotLibrary::new, false);
+
+    private final IntFunction<LibraryEngine> consoleFactory;
+    private final BiFunction<Integer, LibraryEventSink, LibraryEngine> factory;
+    private final boolean exclusive;
+
+    EngineType(IntFunction<LibraryEngine> consoleFactory,
+               BiFunction<Integer, LibraryEventSink, LibraryEngine> factory, boolean exclusive) {
+        this.consoleFactory = consoleFactory;
+        this.factory = factory;
+        this.exclusive = exclusive;
+    }
+
+    /**
+     * Tells if engines of this type keep readers out while a writer is inside, so a writer may change
+     * the data shared with readers in place. Readers of a {@link SnapshotLibrary} never wait for writers,
+     * so they would see such changes half done.
+     *
+     * @return true if a writer inside excludes readers
+     */
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
+    /**
+     * Creates an engine of this type printing its events to the console.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @return new engine
+     */
+    public LibraryEngine create(int capacity) {
+        return consoleFactory.apply(capacity);
+    }
+
+    /**
+     * Creates an engine of this type with the given sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param events The sink receiving every event of the library.
+     * @return new engine
+     */
+    public LibraryEngine create(int capacity, LibraryEventSink events) {
+        return factory.apply(capacity, events);
+    }
+}
@@ -0,0 +1,332 @@
+package pl.pz1.problem.engines;
+
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.LibraryInfo;
+import pl.pz1.problem.events.ConsoleEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Library engine with FIFO admission and direct handoff.
+ * Instead of waking every waiter on each release, the releasing thread admits the head of the queue
+ * (and, for readers, the whole run of consecutive readers that fits in the capacity) on their behalf
+ * and unparks only those admitted, so every admission costs a single wakeup. Participants queued without a thread
+ * of their own are admitted by running their callback instead.
+ */
+public class FairLibrary implements LibraryEngine {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WaitQueue queue = new WaitQueue();
+    private final Set<Identifier> thoseInside = new LinkedHashSet<>();
+    private int occupiedPlacesAmount = 0;
+    private final int capacity;
+    private final LibraryEventSink events;
+
+    /**
+     * Constructs a FairLibrary with the specified capacity, printing every event to the console.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     */
+    public FairLibrary(int capacity) {
+        this.capacity = capacity;
+        this.events = new ConsoleEventSink(this::printInfo);
+    }
+
+    /**
+     * Constructs a FairLibrary with the specified capacity and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param events The sink receiving every event of the library.
+     */
+    public FairLibrary(int capacity, LibraryEventSink events) {
+        this.capacity = capacity;
+        this.events = events;
+    }
+
+    @Override
+    public void startWriting(Identifier identifier) throws InterruptedException {
+        enter(new WaitNode(identifier, true), false, 0L);
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier) {
+        return tryEnter(new WaitNode(identifier, true));
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return enter(new WaitNode(identifier, true), true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public void stopWriting(Identifier identifier) {
+        leave(identifier, true);
+    }
+
+    @Override
+    public void startReading(Identifier identifier) throws InterruptedException {
+        enter(new WaitNode(identifier, false), false, 0L);
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier) {
+        return tryEnter(new WaitNode(identifier, false));
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return enter(new WaitNode(identifier, false), true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public void stopReading(Identifier identifier) {
+        leave(identifier, false);
+    }
+
+    /**
+     * Puts a reader at the end of the queue without waiting. Whoever admits it runs the callback,
+     * possibly the calling thread right away, while holding the lock of the library.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param onAdmitted callback run once the reader is inside
+     * @return always true
+     */
+    @Override
+    public boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+        enterAsync(new WaitNode(identifier, false, onAdmitted));
+        return true;
+    }
+
+    /**
+     * Puts a writer at the end of the queue without waiting. Whoever admits it runs the callback,
+     * possibly the calling thread right away, while holding the lock of the library.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param onAdmitted callback run once the writer is inside
+     * @return always true
+     */
+    @Override
+    public boolean startWritingAsync(Identifier identifier, Runnable onAdmitted) {
+        enterAsync(new WaitNode(identifier, true, onAdmitted));
+        return true;
+    }
+
+    /**
+     * Puts a waiter with a callback at the end of the queue and admits whoever fits.
+     *
+     * @param waiter queue entry carrying the callback
+     */
+    private void enterAsync(WaitNode waiter) {
+        lock.lock();
+        try {
+            queue.add(waiter);
+            events.emit(EventKind.ENQUEUED, waiter.getIdentifier(), waiter.isWriter(), queue.size(),
+                    occupiedPlacesAmount);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the waiter at the end of the queue and parks until some releasing thread admits it.
+     * A timed wait parks only until the deadline and then takes the waiter off the queue.
+     *
+     * @param waiter queue entry of the calling thread
+     * @param timed true if the wait is limited
+     * @param nanos the longest time to wait, in nanoseconds, if the wait is limited
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted before being admitted.
+     */
+    private boolean enter(WaitNode waiter, boolean timed, long nanos) throws InterruptedException {
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        lock.lock();
+        try {
+            queue.add(waiter);
+            events.emit(EventKind.ENQUEUED, waiter.getIdentifier(), waiter.isWriter(), queue.size(),
+                    occupiedPlacesAmount);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        while (!waiter.isAdmitted()) {
+            if (!timed) {
+                LockSupport.park(this);
+            }
+            else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return giveUp(waiter, EventKind.TIMED_OUT);
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            if (Thread.interrupted()) {
+                if (giveUp(waiter, EventKind.CANCELLED)) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+                throw new InterruptedException(waiter.getIdentifier().getName() + " " + waiter.getIdentifier().getId()
+                        + " zrezygnował z czekania w kolejce.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lets the waiter in only if it is admitted right away, otherwise takes it off the queue.
+     *
+     * @param waiter queue entry of the calling thread
+     * @return true if admitted
+     */
+    private boolean tryEnter(WaitNode waiter) {
+        lock.lock();
+        try {
+            queue.add(waiter);
+            events.emit(EventKind.ENQUEUED, waiter.getIdentifier(), waiter.isWriter(), queue.size(),
+                    occupiedPlacesAmount);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+        return waiter.isAdmitted() || giveUp(waiter, EventKind.TIMED_OUT);
+    }
+
+    /**
+     * Takes a waiter which stopped waiting off the queue in constant time.
+     * Only those whom its leaving lets in are unparked.
+     * If the waiter got admitted in the meantime it stays inside.
+     *
+     * @param waiter queue entry of the waiter
+     * @param kind why the waiter gave up
+     * @return true if the waiter was admitted after all
+     */
+    private boolean giveUp(WaitNode waiter, EventKind kind) {
+        lock.lock();
+        try {
+            if (waiter.isAdmitted()) {
+                return true;
+            }
+            queue.remove(waiter);
+            events.emit(kind, waiter.getIdentifier(), waiter.isWriter(), queue.size(), occupiedPlacesAmount);
+            admitWaiters();
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void leave(Identifier identifier, boolean writer) {
+        lock.lock();
+        try {
+            if (!thoseInside.remove(identifier)) {
+                return;
+            }
+            occupiedPlacesAmount = writer ? 0 : occupiedPlacesAmount - 1;
+            events.emit(EventKind.RELEASED, identifier, writer, queue.size(), occupiedPlacesAmount);
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits waiters from the head of the queue for as long as they fit in the library.
+     * A writer at the head stops the run, so readers never overtake it. Must be called while holding the lock.
+     */
+    private void admitWaiters() {
+        WaitNode head;
+        while ((head = queue.peek()) != null) {
+            if (head.isWriter()) {
+                if (occupiedPlacesAmount > 0) {
+                    return;
+                }
+                occupiedPlacesAmount = capacity;
+            }
+            else {
+                if (occupiedPlacesAmount >= capacity) {
+                    return;
+                }
+                occupiedPlacesAmount++;
+            }
+
+            queue.poll();
+            thoseInside.add(head.getIdentifier());
+            events.emit(EventKind.ADMITTED, head.getIdentifier(), head.isWriter(), queue.size(),
+                    occupiedPlacesAmount);
+            head.markAdmitted();
+            if (head.getOnAdmitted() != null) {
+                head.getOnAdmitted().run();
+            }
+            else if (head.getThread() != Thread.currentThread()) {
+                LockSupport.unpark(head.getThread());
+            }
+        }
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     *
+     * @return constructed String
+     */
+    @VisibleForTesting
+    String printInfo() {
+        lock.lock();
+        try {
+            return LibraryInfo.describe(queue.identifiers(), thoseInside);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public int getOccupiedPlacesAmount() {
+        lock.lock();
+        try {
+            return occupiedPlacesAmount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public boolean isInside(Identifier identifier) {
+        lock.lock();
+        try {
+            return thoseInside.contains(identifier);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
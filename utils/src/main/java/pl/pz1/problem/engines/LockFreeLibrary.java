@@ -0,0 +1,441 @@
+package pl.pz1.problem.engines;
+
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.LibraryInfo;
+import pl.pz1.problem.events.ConsoleEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Library engine whose admission state is packed into a single atomic word.
+ * The word holds the number of readers inside, a writer-active bit and the numbers of queued writers and readers.
+ * While nobody waits, entering and leaving is a single atomic update of that word and never touches a lock.
+ * Once the capacity is full or a writer holds or awaits the library, newcomers fall back to a FIFO queue of parked
+ * threads, and releasing threads hand the library off to the head of that queue just like {@link FairLibrary}.
+ * The default console sink describes the whole library under the queue lock, which serializes the fast path again,
+ * so throughput-sensitive uses should pass an asynchronous or no-op sink.
+ */
+public class LockFreeLibrary implements LibraryEngine {
+    /**
+     * The largest capacity which fits in the readers field of the state word.
+     */
+    public static final int MAX_CAPACITY = (1 << 20) - 1;
+
+    private static final long READERS_MASK = MAX_CAPACITY;
+    private static final long WRITER = 1L << 20;
+    private static final long WAITING_WRITER = 1L << 21;
+    private static final long WAITING_READER = 1L << 42;
+    private static final long WAITING_MASK = ~(READERS_MASK | WRITER);
+    private static final long MAX_WAITING = (1L << 21) - 1;
+
+    private final AtomicLong state = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final WaitQueue queue = new WaitQueue();
+    private final Map<Identifier, Boolean> thoseInside = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final LibraryEventSink events;
+
+    /**
+     * Constructs a LockFreeLibrary with the specified capacity, printing every event to the console.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @throws IllegalArgumentException If the capacity does not fit between 1 and {@link #MAX_CAPACITY}.
+     */
+    public LockFreeLibrary(int capacity) {
+        this.capacity = checkCapacity(capacity);
+        this.events = new ConsoleEventSink(this::printInfo);
+    }
+
+    /**
+     * Constructs a LockFreeLibrary with the specified capacity and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param events The sink receiving every event of the library.
+     * @throws IllegalArgumentException If the capacity does not fit between 1 and {@link #MAX_CAPACITY}.
+     */
+    public LockFreeLibrary(int capacity, LibraryEventSink events) {
+        this.capacity = checkCapacity(capacity);
+        this.events = events;
+    }
+
+    private static int checkCapacity(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        return capacity;
+    }
+
+    @Override
+    public void startWriting(Identifier identifier) throws InterruptedException {
+        if (!tryFastWriting(identifier)) {
+            enter(new WaitNode(identifier, true), false, 0L);
+        }
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier) {
+        if (tryFastWriting(identifier)) {
+            return true;
+        }
+        long current = state.get();
+        events.emit(EventKind.ENQUEUED, identifier, true, waiting(current), occupied(current));
+        events.emit(EventKind.TIMED_OUT, identifier, true, waiting(current), occupied(current));
+        return false;
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryFastWriting(identifier) || enter(new WaitNode(identifier, true), true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Lets the writer in with a single atomic update if nobody is inside or waiting.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in
+     */
+    private boolean tryFastWriting(Identifier identifier) {
+        if (!state.compareAndSet(0, WRITER)) {
+            return false;
+        }
+        thoseInside.put(identifier, Boolean.TRUE);
+        events.emit(EventKind.ENQUEUED, identifier, true, 0, 0);
+        events.emit(EventKind.ADMITTED, identifier, true, 0, capacity);
+        return true;
+    }
+
+    @Override
+    public void stopWriting(Identifier identifier) {
+        if (!thoseInside.remove(identifier, Boolean.TRUE)) {
+            return;
+        }
+        long current = state.addAndGet(-WRITER);
+        events.emit(EventKind.RELEASED, identifier, true, waiting(current), occupied(current));
+        release(current);
+    }
+
+    @Override
+    public void startReading(Identifier identifier) throws InterruptedException {
+        if (!tryFastReading(identifier)) {
+            enter(new WaitNode(identifier, false), false, 0L);
+        }
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier) {
+        if (tryFastReading(identifier)) {
+            return true;
+        }
+        long current = state.get();
+        events.emit(EventKind.ENQUEUED, identifier, false, waiting(current), occupied(current));
+        events.emit(EventKind.TIMED_OUT, identifier, false, waiting(current), occupied(current));
+        return false;
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryFastReading(identifier) || enter(new WaitNode(identifier, false), true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Lets the reader in with a single atomic update if there is room, no writer inside and nobody waiting.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return true if the reader got in
+     */
+    private boolean tryFastReading(Identifier identifier) {
+        long current = state.get();
+        while ((current & ~READERS_MASK) == 0 && current < capacity) {
+            if (state.compareAndSet(current, current + 1)) {
+                thoseInside.put(identifier, Boolean.FALSE);
+                events.emit(EventKind.ENQUEUED, identifier, false, 0, (int) current);
+                events.emit(EventKind.ADMITTED, identifier, false, 0, (int) current + 1);
+                return true;
+            }
+            current = state.get();
+        }
+        return false;
+    }
+
+    @Override
+    public void stopReading(Identifier identifier) {
+        if (!thoseInside.remove(identifier, Boolean.FALSE)) {
+            return;
+        }
+        long current = state.addAndGet(-1);
+        events.emit(EventKind.RELEASED, identifier, false, waiting(current), occupied(current));
+        release(current);
+    }
+
+    /**
+     * Lets a reader in at once if the fast path lets it, otherwise puts it in the queue without waiting.
+     * Whoever admits it runs the callback, possibly the calling thread right away, possibly while holding
+     * the queue lock.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param onAdmitted callback run once the reader is inside
+     * @return always true
+     */
+    @Override
+    public boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+        if (tryFastReading(identifier)) {
+            onAdmitted.run();
+        }
+        else {
+            enterAsync(new WaitNode(identifier, false, onAdmitted));
+        }
+        return true;
+    }
+
+    /**
+     * Lets a writer in at once if the fast path lets it, otherwise puts it in the queue without waiting.
+     * Whoever admits it runs the callback, possibly the calling thread right away, possibly while holding
+     * the queue lock.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param onAdmitted callback run once the writer is inside
+     * @return always true
+     */
+    @Override
+    public boolean startWritingAsync(Identifier identifier, Runnable onAdmitted) {
+        if (tryFastWriting(identifier)) {
+            onAdmitted.run();
+        }
+        else {
+            enterAsync(new WaitNode(identifier, true, onAdmitted));
+        }
+        return true;
+    }
+
+    /**
+     * Registers a waiter with a callback in the queue and in the state word, then admits whoever fits.
+     *
+     * @param waiter queue entry carrying the callback
+     */
+    private void enterAsync(WaitNode waiter) {
+        lock.lock();
+        try {
+            queue.add(waiter);
+            long current = state.addAndGet(waiter.isWriter() ? WAITING_WRITER : WAITING_READER);
+            events.emit(EventKind.ENQUEUED, waiter.getIdentifier(), waiter.isWriter(), waiting(current),
+                    occupied(current));
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the library off to the queue if the state word, after a release, shows anybody waiting.
+     *
+     * @param current the state word right after the release
+     */
+    private void release(long current) {
+        if ((current & WAITING_MASK) == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers the waiter in the queue and in the state word, then parks until some releasing thread admits it.
+     * A timed wait parks only until the deadline and then takes the waiter off the queue.
+     *
+     * @param waiter queue entry of the calling thread
+     * @param timed true if the wait is limited
+     * @param nanos the longest time to wait, in nanoseconds, if the wait is limited
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted before being admitted.
+     */
+    private boolean enter(WaitNode waiter, boolean timed, long nanos) throws InterruptedException {
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        lock.lock();
+        try {
+            queue.add(waiter);
+            long current = state.addAndGet(waiter.isWriter() ? WAITING_WRITER : WAITING_READER);
+            events.emit(EventKind.ENQUEUED, waiter.getIdentifier(), waiter.isWriter(), waiting(current),
+                    occupied(current));
+            admitWaiters();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        while (!waiter.isAdmitted()) {
+            if (!timed) {
+                LockSupport.park(this);
+            }
+            else {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return giveUp(waiter, EventKind.TIMED_OUT);
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            if (Thread.interrupted()) {
+                if (giveUp(waiter, EventKind.CANCELLED)) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+                throw new InterruptedException(waiter.getIdentifier().getName() + " " + waiter.getIdentifier().getId()
+                        + " zrezygnował z czekania w kolejce.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes a waiter which stopped waiting off the queue and out of the state word in constant time.
+     * Only those whom its leaving lets in are unparked.
+     * If the waiter got admitted in the meantime it stays inside.
+     *
+     * @param waiter queue entry of the waiter
+     * @param kind why the waiter gave up
+     * @return true if the waiter was admitted after all
+     */
+    private boolean giveUp(WaitNode waiter, EventKind kind) {
+        lock.lock();
+        try {
+            if (waiter.isAdmitted()) {
+                return true;
+            }
+            queue.remove(waiter);
+            long current = state.addAndGet(waiter.isWriter() ? -WAITING_WRITER : -WAITING_READER);
+            events.emit(kind, waiter.getIdentifier(), waiter.isWriter(), waiting(current), occupied(current));
+            admitWaiters();
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits waiters from the head of the queue for as long as the state word lets them in.
+     * Must be called while holding the lock.
+     */
+    private void admitWaiters() {
+        WaitNode head;
+        long current;
+        while ((head = queue.peek()) != null && (current = handOff(head.isWriter())) != -1) {
+            queue.poll();
+            thoseInside.put(head.getIdentifier(), head.isWriter());
+            events.emit(EventKind.ADMITTED, head.getIdentifier(), head.isWriter(), waiting(current),
+                    occupied(current));
+            head.markAdmitted();
+            if (head.getOnAdmitted() != null) {
+                head.getOnAdmitted().run();
+            }
+            else if (head.getThread() != Thread.currentThread()) {
+                LockSupport.unpark(head.getThread());
+            }
+        }
+    }
+
+    /**
+     * Moves one waiter of the given role from the waiting part of the state word to the inside part.
+     *
+     * @param writer true if the waiter is a writer
+     * @return the state word after the move, or -1 if there was no room for the waiter
+     */
+    private long handOff(boolean writer) {
+        while (true) {
+            long current = state.get();
+            long next;
+            if (writer) {
+                if ((current & (READERS_MASK | WRITER)) != 0) {
+                    return -1;
+                }
+                next = current - WAITING_WRITER + WRITER;
+            }
+            else {
+                if ((current & WRITER) != 0 || (current & READERS_MASK) >= capacity) {
+                    return -1;
+                }
+                next = current - WAITING_READER + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Extracts the number of queued participants from the state word.
+     *
+     * @param current the state word
+     * @return queued writers and readers together
+     */
+    private static int waiting(long current) {
+        return (int) (current >>> 42) + (int) ((current >>> 21) & MAX_WAITING);
+    }
+
+    /**
+     * Extracts the amount of occupied places from the state word, a writer inside occupies all of them.
+     *
+     * @param current the state word
+     * @return amount of occupied places
+     */
+    private int occupied(long current) {
+        return (current & WRITER) != 0 ? capacity : (int) (current & READERS_MASK);
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     *
+     * @return constructed String
+     */
+    @VisibleForTesting
+    String printInfo() {
+        lock.lock();
+        try {
+            return LibraryInfo.describe(queue.identifiers(), thoseInside.keySet());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public int getOccupiedPlacesAmount() {
+        return occupied(state.get());
+    }
+
+    @TestOnly
+    @Override
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public boolean isInside(Identifier identifier) {
+        return thoseInside.containsKey(identifier);
+    }
+}
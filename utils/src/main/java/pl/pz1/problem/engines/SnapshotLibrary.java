@@ -0,0 +1,376 @@
+package pl.pz1.problem.engines;
+
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.LibraryInfo;
+import pl.pz1.problem.events.ConsoleEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.snapshot.EpochReclaimer;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Library engine in which readers never wait, in the manner of read-copy-update.
+ * The guarded data is an immutable version behind an atomic reference: a reader entering takes the current version
+ * and keeps reading it until it leaves, whatever writers do meanwhile. A writer builds a new version and publishes it
+ * at once, and the replaced one is reclaimed by an {@link EpochReclaimer} once every reader which took it has left,
+ * so it may safely be recycled. Writers still exclude each other, entering one after another in the order of their
+ * arrival. Since readers are never held back, not even for room, the capacity is not enforced, and a writer inside
+ * occupies a single place next to the readers. For the same reason a writer must never change data in place
+ * under this engine, see {@link EngineType#isExclusive()}.
+ *
+ * @param <T> type of the versions of the guarded data
+ */
+public class SnapshotLibrary<T> implements LibraryEngine {
+    private final AtomicReference<T> current;
+    private final EpochReclaimer<T> epochs;
+    private final Semaphore writing = new Semaphore(1, true);
+    private final Queue<Identifier> waitingWriters = new ConcurrentLinkedQueue<>();
+    private final Map<Identifier, Pin<T>> readers = new ConcurrentHashMap<>();
+    private volatile Identifier writer;
+    private final LibraryEventSink events;
+
+    /**
+     * Constructs a SnapshotLibrary guarding no data, printing every event to the console.
+     *
+     * @param capacity The nominal capacity of the library, not enforced.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public SnapshotLibrary(int capacity) {
+        checkCapacity(capacity);
+        this.current = new AtomicReference<>();
+        this.epochs = new EpochReclaimer<>(Runtime.getRuntime().availableProcessors(), version -> {
+        });
+        this.events = new ConsoleEventSink(this::printInfo);
+    }
+
+    /**
+     * Constructs a SnapshotLibrary guarding no data, with the specified sink of events.
+     *
+     * @param capacity The nominal capacity of the library, not enforced.
+     * @param events The sink receiving every event of the library.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public SnapshotLibrary(int capacity, LibraryEventSink events) {
+        this(capacity, events, null, version -> {
+        });
+    }
+
+    /**
+     * Constructs a SnapshotLibrary guarding the given data.
+     *
+     * @param capacity The nominal capacity of the library, not enforced.
+     * @param events The sink receiving every event of the library.
+     * @param initial the first version of the data
+     * @param reclaimer what is done with a replaced version once no reader uses it any more
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public SnapshotLibrary(int capacity, LibraryEventSink events, T initial, Consumer<? super T> reclaimer) {
+        checkCapacity(capacity);
+        this.current = new AtomicReference<>(initial);
+        this.epochs = new EpochReclaimer<>(Runtime.getRuntime().availableProcessors(), reclaimer);
+        this.events = events;
+    }
+
+    private static void checkCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+    }
+
+    @Override
+    public void startWriting(Identifier identifier) throws InterruptedException {
+        enqueue(identifier);
+        try {
+            writing.acquire();
+        }
+        catch (InterruptedException e) {
+            giveUp(identifier, EventKind.CANCELLED);
+            throw new InterruptedException(identifier.getName() + " " + identifier.getId()
+                    + " zrezygnował z czekania w kolejce.");
+        }
+        admit(identifier);
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier) {
+        enqueue(identifier);
+        if (!writing.tryAcquire()) {
+            giveUp(identifier, EventKind.TIMED_OUT);
+            return false;
+        }
+        admit(identifier);
+        return true;
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        enqueue(identifier);
+        try {
+            if (!writing.tryAcquire(timeout, unit)) {
+                giveUp(identifier, EventKind.TIMED_OUT);
+                return false;
+            }
+        }
+        catch (InterruptedException e) {
+            giveUp(identifier, EventKind.CANCELLED);
+            throw new InterruptedException(identifier.getName() + " " + identifier.getId()
+                    + " zrezygnował z czekania w kolejce.");
+        }
+        admit(identifier);
+        return true;
+    }
+
+    /**
+     * Lets a writer in if no other writer is inside or waiting, recording nothing otherwise.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in
+     */
+    @Override
+    public boolean pollWriting(Identifier identifier) {
+        if (!waitingWriters.isEmpty() || !writing.tryAcquire()) {
+            return false;
+        }
+        enqueue(identifier);
+        admit(identifier);
+        return true;
+    }
+
+    private void enqueue(Identifier identifier) {
+        waitingWriters.add(identifier);
+        events.emit(EventKind.ENQUEUED, identifier, true, waitingWriters.size(), occupied());
+    }
+
+    private void admit(Identifier identifier) {
+        waitingWriters.remove(identifier);
+        writer = identifier;
+        events.emit(EventKind.ADMITTED, identifier, true, waitingWriters.size(), occupied());
+    }
+
+    private void giveUp(Identifier identifier, EventKind kind) {
+        waitingWriters.remove(identifier);
+        events.emit(kind, identifier, true, waitingWriters.size(), occupied());
+    }
+
+    @Override
+    public void stopWriting(Identifier identifier) {
+        if (writer != identifier) {
+            return;
+        }
+        writer = null;
+        events.emit(EventKind.RELEASED, identifier, true, waitingWriters.size(), occupied());
+        writing.release();
+    }
+
+    /**
+     * Lets the reader in at once and hands it the current version, which it reads until it leaves.
+     *
+     * @param identifier The unique ID of the reader.
+     */
+    @Override
+    public void startReading(Identifier identifier) {
+        events.emit(EventKind.ENQUEUED, identifier, false, waitingWriters.size(), occupied());
+        int slot = epochs.pin();
+        readers.put(identifier, new Pin<>(slot, current.get()));
+        events.emit(EventKind.ADMITTED, identifier, false, waitingWriters.size(), occupied());
+    }
+
+    /**
+     * Lets the reader in at once, as readers never wait.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return always true
+     */
+    @Override
+    public boolean tryStartReading(Identifier identifier) {
+        startReading(identifier);
+        return true;
+    }
+
+    /**
+     * Lets the reader in at once, as readers never wait.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param timeout The longest time to wait, never needed.
+     * @param unit The unit of the timeout.
+     * @return always true
+     */
+    @Override
+    public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) {
+        startReading(identifier);
+        return true;
+    }
+
+    /**
+     * Lets the reader in at once, as readers never wait, and runs the callback on the calling thread.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param onAdmitted callback run once the reader is inside
+     * @return always true
+     */
+    @Override
+    public boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+        startReading(identifier);
+        onAdmitted.run();
+        return true;
+    }
+
+    @Override
+    public void stopReading(Identifier identifier) {
+        Pin<T> pin = readers.remove(identifier);
+        if (pin == null) {
+            return;
+        }
+        epochs.unpin(pin.slot);
+        events.emit(EventKind.RELEASED, identifier, false, waitingWriters.size(), occupied());
+    }
+
+    /**
+     * Returns the version a reader inside took when it entered.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return version of the reader
+     * @throws IllegalStateException If the reader is not inside.
+     */
+    public T getSnapshot(Identifier identifier) {
+        Pin<T> pin = readers.get(identifier);
+        if (pin == null) {
+            throw new IllegalStateException(identifier.getName() + " " + identifier.getId() + " is not reading");
+        }
+        return pin.version;
+    }
+
+    /**
+     * Publishes a new version, which every reader entering from now on takes, and retires the replaced one.
+     *
+     * @param identifier The unique ID of the writer inside.
+     * @param version the new version; it must not be changed once published
+     * @throws IllegalStateException If the writer is not inside.
+     */
+    public void publish(Identifier identifier, T version) {
+        if (writer != identifier) {
+            throw new IllegalStateException(identifier.getName() + " " + identifier.getId() + " is not writing");
+        }
+        T replaced = current.getAndSet(version);
+        if (replaced != null) {
+            epochs.retire(replaced);
+        }
+    }
+
+    /**
+     * Enters as a reader, reads the current version and leaves, never waiting.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param read the read, given the version
+     * @param <R> type of what is read
+     * @return result of the read
+     */
+    public <R> R read(Identifier identifier, Function<? super T, R> read) {
+        startReading(identifier);
+        try {
+            return read.apply(getSnapshot(identifier));
+        }
+        finally {
+            stopReading(identifier);
+        }
+    }
+
+    /**
+     * Enters as a writer, builds a new version from the current one, publishes it and leaves.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param update builds the new version, leaving the current one unchanged
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     */
+    public void update(Identifier identifier, UnaryOperator<T> update) throws InterruptedException {
+        startWriting(identifier);
+        try {
+            publish(identifier, update.apply(current.get()));
+        }
+        finally {
+            stopWriting(identifier);
+        }
+    }
+
+    /**
+     * Returns the version readers entering now would take.
+     *
+     * @return current version
+     */
+    public T getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Returns the reclaimer of replaced versions, e.g. to reclaim them without waiting for the next write.
+     *
+     * @return reclaimer of versions
+     */
+    public EpochReclaimer<T> getEpochs() {
+        return epochs;
+    }
+
+    private int occupied() {
+        return readers.size() + (writer != null ? 1 : 0);
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     *
+     * @return constructed String
+     */
+    @VisibleForTesting
+    String printInfo() {
+        List<Identifier> inside = new ArrayList<>(readers.keySet());
+        Identifier writing = writer;
+        if (writing != null) {
+            inside.add(writing);
+        }
+        return LibraryInfo.describe(new ArrayList<>(waitingWriters), inside);
+    }
+
+    @TestOnly
+    @Override
+    public int getOccupiedPlacesAmount() {
+        return occupied();
+    }
+
+    @TestOnly
+    @Override
+    public int getQueueSize() {
+        return waitingWriters.size();
+    }
+
+    @TestOnly
+    @Override
+    public boolean isInside(Identifier identifier) {
+        return readers.containsKey(identifier) || writer == identifier;
+    }
+
+    /**
+     * Version taken by a reader together with the slot its epoch is pinned in.
+     *
+     * @param <T> type of the version
+     */
+    private static class Pin<T> {
+        private final int slot;
+        private final T version;
+
+        Pin(int slot, T version) {
+            this.slot = slot;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package pl.pz1.problem.engines;
+
+import org.jetbrains.annotations.TestOnly;
+import org.jetbrains.annotations.VisibleForTesting;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.LibraryInfo;
+import pl.pz1.problem.events.ConsoleEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.LibraryEventSink;
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Library engine which spreads the places for readers over per-core stripes, so readers entering and leaving
+ * on different cores do not fight over a single counter.
+ * Every stripe holds permits, each one being a free place, padded to a cache line of its own.
+ * Together the stripes always hold exactly {@code capacity} permits minus the readers inside, so the capacity
+ * is enforced exactly: a reader takes a permit from the stripe of its thread, or steals one from another stripe
+ * if its own is empty, and gives it back to the stripe of the thread which leaves.
+ * A writer announces itself first, so no reader takes a new permit, then drains every stripe
+ * until it holds all the permits, which means no reader is inside.
+ * Those who cannot get in at once wait under a lock; they are not served in FIFO order,
+ * except that writers enter one after another in the order of their arrival.
+ */
+public class StripedLibrary implements LibraryEngine {
+    /**
+     * Distance between two stripes in the counters array, 32 ints keep every stripe on its own 128 bytes,
+     * which also protects it from the adjacent line prefetch.
+     */
+    private static final int PADDING = 32;
+
+    private final AtomicIntegerArray permits;
+    private final int stripes;
+    private final int capacity;
+    private final Map<Identifier, Boolean> thoseInside = new ConcurrentHashMap<>();
+    private final LibraryEventSink events;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final WaitQueue queue = new WaitQueue();
+    private volatile int waiting = 0;
+    private volatile boolean writerPending = false;
+    private volatile boolean writerInside = false;
+    private volatile int heldByWriter = 0;
+
+    /**
+     * Constructs a StripedLibrary with the specified capacity and a stripe per available processor,
+     * printing every event to the console.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public StripedLibrary(int capacity) {
+        this.capacity = checkCapacity(capacity);
+        this.stripes = roundStripes(defaultStripes());
+        this.permits = new AtomicIntegerArray(this.stripes * PADDING);
+        this.events = new ConsoleEventSink(this::printInfo);
+        refill(capacity);
+    }
+
+    /**
+     * Constructs a StripedLibrary with the specified capacity, a stripe per available processor and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param events The sink receiving every event of the library.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public StripedLibrary(int capacity, LibraryEventSink events) {
+        this(capacity, defaultStripes(), events);
+    }
+
+    /**
+     * Constructs a StripedLibrary with the specified capacity, number of stripes and sink of events.
+     *
+     * @param capacity The maximum number of readers allowed at the same time.
+     * @param stripes Number of stripes, rounded up to a power of two.
+     * @param events The sink receiving every event of the library.
+     * @throws IllegalArgumentException If the capacity or the number of stripes is not positive.
+     */
+    public StripedLibrary(int capacity, int stripes, LibraryEventSink events) {
+        this.capacity = checkCapacity(capacity);
+        this.stripes = roundStripes(stripes);
+        this.permits = new AtomicIntegerArray(this.stripes * PADDING);
+        this.events = events;
+        refill(capacity);
+    }
+
+    private static int checkCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        return capacity;
+    }
+
+    private static int roundStripes(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + stripes);
+        }
+        int rounded = 1;
+        while (rounded < stripes) {
+            rounded <<= 1;
+        }
+        return rounded;
+    }
+
+    private static int defaultStripes() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void startReading(Identifier identifier) throws InterruptedException {
+        if (!tryFastReading(identifier)) {
+            enterReading(new WaitNode(identifier, false), false, 0L);
+        }
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier) {
+        if (tryFastReading(identifier)) {
+            return true;
+        }
+        if (events.isEnabled()) {
+            int occupied = occupied();
+            events.emit(EventKind.ENQUEUED, identifier, false, waiting, occupied);
+            events.emit(EventKind.TIMED_OUT, identifier, false, waiting, occupied);
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryFastReading(identifier) || enterReading(new WaitNode(identifier, false), true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Lets the reader in by taking a permit, unless a writer is pending or no stripe has any permit left.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return true if the reader got in
+     */
+    private boolean tryFastReading(Identifier identifier) {
+        if (writerPending || !takePermit()) {
+            return false;
+        }
+        thoseInside.put(identifier, Boolean.FALSE);
+        if (events.isEnabled()) {
+            int occupied = occupied();
+            events.emit(EventKind.ENQUEUED, identifier, false, waiting, occupied);
+            events.emit(EventKind.ADMITTED, identifier, false, waiting, occupied);
+        }
+        return true;
+    }
+
+    /**
+     * Waits under the lock until the reader can take a permit.
+     *
+     * @param node queue entry of the calling thread
+     * @param timed true if the wait is limited
+     * @param nanos the longest time to wait, in nanoseconds, if the wait is limited
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted before being admitted.
+     */
+    private boolean enterReading(WaitNode node, boolean timed, long nanos) throws InterruptedException {
+        lock.lock();
+        try {
+            enqueue(node);
+            while (writerPending || !takePermit()) {
+                if (!timed) {
+                    changed.await();
+                }
+                else if (nanos > 0) {
+                    nanos = changed.awaitNanos(nanos);
+                }
+                else {
+                    giveUp(node, EventKind.TIMED_OUT, false);
+                    return false;
+                }
+            }
+            dequeue(node);
+            thoseInside.put(node.getIdentifier(), Boolean.FALSE);
+            events.emit(EventKind.ADMITTED, node.getIdentifier(), false, queue.size(), occupied());
+            return true;
+        }
+        catch (InterruptedException e) {
+            giveUp(node, EventKind.CANCELLED, false);
+            throw new InterruptedException(node.getIdentifier().getName() + " " + node.getIdentifier().getId()
+                    + " zrezygnował z czekania w kolejce.");
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stopReading(Identifier identifier) {
+        if (!thoseInside.remove(identifier, Boolean.FALSE)) {
+            return;
+        }
+        permits.getAndIncrement(stripe());
+        if (events.isEnabled()) {
+            events.emit(EventKind.RELEASED, identifier, false, waiting, occupied());
+        }
+        if (writerPending || waiting > 0) {
+            lock.lock();
+            try {
+                changed.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void startWriting(Identifier identifier) throws InterruptedException {
+        enterWriting(new WaitNode(identifier, true), false, 0L);
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier) {
+        lock.lock();
+        try {
+            if (tryFastWriting(identifier)) {
+                return true;
+            }
+            events.emit(EventKind.ENQUEUED, identifier, true, queue.size(), occupied());
+            events.emit(EventKind.TIMED_OUT, identifier, true, queue.size(), occupied());
+            return false;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lets the writer in by draining every permit, if no other writer is inside, pending or queued
+     * and no reader is inside. Must be called while holding the lock.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in
+     */
+    private boolean tryFastWriting(Identifier identifier) {
+        if (queue.writers() > 0 || writerInside || writerPending || occupied() > 0) {
+            return false;
+        }
+        int drained = drain();
+        if (drained == capacity) {
+            writerPending = true;
+            writerInside = true;
+            thoseInside.put(identifier, Boolean.TRUE);
+            events.emit(EventKind.ENQUEUED, identifier, true, queue.size(), 0);
+            events.emit(EventKind.ADMITTED, identifier, true, queue.size(), capacity);
+            return true;
+        }
+        refill(drained);
+        changed.signalAll();
+        return false;
+    }
+
+    /**
+     * Lets a reader in if it can take a permit right now, recording nothing otherwise.
+     *
+     * @param identifier The unique ID of the reader.
+     * @return true if the reader got in
+     */
+    @Override
+    public boolean pollReading(Identifier identifier) {
+        return tryFastReading(identifier);
+    }
+
+    /**
+     * Lets a writer in if it can drain every permit right now, recording nothing otherwise.
+     *
+     * @param identifier The unique ID of the writer.
+     * @return true if the writer got in
+     */
+    @Override
+    public boolean pollWriting(Identifier identifier) {
+        lock.lock();
+        try {
+            return tryFastWriting(identifier);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+        return enterWriting(new WaitNode(identifier, true), true, unit.toNanos(timeout));
+    }
+
+    /**
+     * Waits under the lock for the turn of the writer, then drains the stripes until it holds every permit.
+     *
+     * @param node queue entry of the calling thread
+     * @param timed true if the wait is limited
+     * @param nanos the longest time to wait, in nanoseconds, if the wait is limited
+     * @return true if admitted, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted before being admitted.
+     */
+    private boolean enterWriting(WaitNode node, boolean timed, long nanos) throws InterruptedException {
+        boolean draining = false;
+        lock.lock();
+        try {
+            enqueue(node);
+            while (queue.firstWriter() != node || writerInside || writerPending) {
+                if (!timed) {
+                    changed.await();
+                }
+                else if (nanos > 0) {
+                    nanos = changed.awaitNanos(nanos);
+                }
+                else {
+                    giveUp(node, EventKind.TIMED_OUT, false);
+                    return false;
+                }
+            }
+
+            writerPending = true;
+            draining = true;
+            heldByWriter = drain();
+            while (heldByWriter < capacity) {
+                if (!timed) {
+                    changed.await();
+                }
+                else if (nanos > 0) {
+                    nanos = changed.awaitNanos(nanos);
+                }
+                else {
+                    giveUp(node, EventKind.TIMED_OUT, true);
+                    return false;
+                }
+                heldByWriter += drain();
+            }
+
+            dequeue(node);
+            heldByWriter = 0;
+            writerInside = true;
+            thoseInside.put(node.getIdentifier(), Boolean.TRUE);
+            events.emit(EventKind.ADMITTED, node.getIdentifier(), true, queue.size(), capacity);
+            return true;
+        }
+        catch (InterruptedException e) {
+            giveUp(node, EventKind.CANCELLED, draining);
+            throw new InterruptedException(node.getIdentifier().getName() + " " + node.getIdentifier().getId()
+                    + " zrezygnował z czekania w kolejce.");
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stopWriting(Identifier identifier) {
+        lock.lock();
+        try {
+            if (!thoseInside.remove(identifier, Boolean.TRUE)) {
+                return;
+            }
+            writerInside = false;
+            refill(capacity);
+            writerPending = false;
+            events.emit(EventKind.RELEASED, identifier, true, queue.size(), 0);
+            changed.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a single permit, from the stripe of the calling thread if possible, otherwise from any other stripe.
+     *
+     * @return true if a permit was taken, false if no stripe has any
+     */
+    private boolean takePermit() {
+        int home = stripe() / PADDING;
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) & (stripes - 1)) * PADDING;
+            int available;
+            while ((available = permits.get(index)) > 0) {
+                if (permits.compareAndSet(index, available, available - 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Takes all the permits currently held by the stripes. Must be called by the pending writer.
+     *
+     * @return number of permits taken
+     */
+    private int drain() {
+        int drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += permits.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Spreads the given number of permits evenly over the stripes.
+     *
+     * @param amount number of permits to give back
+     */
+    private void refill(int amount) {
+        for (int i = 0; i < stripes; i++) {
+            int share = amount / stripes + (i < amount % stripes ? 1 : 0);
+            if (share > 0) {
+                permits.getAndAdd(i * PADDING, share);
+            }
+        }
+    }
+
+    /**
+     * Picks the stripe of the calling thread.
+     *
+     * @return index of the stripe in the counters array
+     */
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & (stripes - 1)) * PADDING;
+    }
+
+    /**
+     * Puts the waiter in the queue. Must be called while holding the lock.
+     *
+     * @param node queue entry of the calling thread
+     */
+    private void enqueue(WaitNode node) {
+        queue.add(node);
+        waiting = queue.size();
+        events.emit(EventKind.ENQUEUED, node.getIdentifier(), node.isWriter(), queue.size(), occupied());
+    }
+
+    /**
+     * Takes the admitted waiter out of the queue. Must be called while holding the lock.
+     *
+     * @param node queue entry of the calling thread
+     */
+    private void dequeue(WaitNode node) {
+        queue.remove(node);
+        waiting = queue.size();
+    }
+
+    /**
+     * Takes a waiter which stopped waiting off the queue in constant time.
+     * A writer which was already draining the stripes gives its permits back, and only then the others
+     * are woken up, as nobody else can get in thanks to a waiter leaving the queue.
+     * Must be called while holding the lock.
+     *
+     * @param node queue entry of the waiter
+     * @param kind why the waiter gave up
+     * @param draining true if the waiter is the writer draining the stripes
+     */
+    private void giveUp(WaitNode node, EventKind kind, boolean draining) {
+        if (draining) {
+            refill(heldByWriter);
+            heldByWriter = 0;
+            writerPending = false;
+        }
+        dequeue(node);
+        events.emit(kind, node.getIdentifier(), node.isWriter(), queue.size(), occupied());
+        if (draining) {
+            changed.signalAll();
+        }
+    }
+
+    /**
+     * Computes the amount of occupied places from the permits missing in the stripes.
+     * Without the lock the result is only an estimate, as readers keep entering and leaving meanwhile.
+     * Summing the stripes touches the cache line of every one of them, so readers entering and leaving without
+     * the lock compute it only for a sink which records events at all.
+     *
+     * @return amount of occupied places
+     */
+    private int occupied() {
+        int free = 0;
+        for (int i = 0; i < stripes; i++) {
+            free += permits.get(i * PADDING);
+        }
+        return writerInside ? capacity : capacity - free - heldByWriter;
+    }
+
+    /**
+     * Method which construct String representing the Library information.
+     *
+     * @return constructed String
+     */
+    @VisibleForTesting
+    String printInfo() {
+        lock.lock();
+        try {
+            return LibraryInfo.describe(queue.identifiers(), thoseInside.keySet());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stripes the permits are spread over.
+     *
+     * @return number of stripes, a power of two
+     */
+    @TestOnly
+    int getStripes() {
+        return stripes;
+    }
+
+    @TestOnly
+    @Override
+    public int getOccupiedPlacesAmount() {
+        lock.lock();
+        try {
+            return occupied();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public int getQueueSize() {
+        lock.lock();
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @TestOnly
+    @Override
+    public boolean isInside(Identifier identifier) {
+        return thoseInside.containsKey(identifier);
+    }
+}
@@ -0,0 +1,150 @@
+package pl.pz1.problem.events;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink storing events in a preallocated ring buffer which a background thread drains in batches into an
+ * {@link EventWriter}. Emitting an event only claims a slot and copies a few primitives into it, so it neither
+ * allocates nor blocks; when the buffer is full the event is dropped and counted instead of stalling the library.
+ */
+public class AsyncEventSink implements LibraryEventSink {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int mask;
+    private final AtomicLongArray published;
+    private final byte[] kinds;
+    private final int[] ids;
+    private final boolean[] writers;
+    private final long[] timestamps;
+    private final int[] queueDepths;
+    private final int[] occupiedPlaces;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long drained;
+    private volatile boolean closed;
+
+    private final EventWriter writer;
+    private final Thread drainer;
+
+    /**
+     * Constructs an AsyncEventSink and starts its background thread.
+     *
+     * @param capacity number of slots of the ring buffer, rounded up to a power of two
+     * @param writer destination of drained events
+     */
+    public AsyncEventSink(int capacity, EventWriter writer) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.kinds = new byte[size];
+        this.ids = new int[size];
+        this.writers = new boolean[size];
+        this.timestamps = new long[size];
+        this.queueDepths = new int[size];
+        this.occupiedPlaces = new int[size];
+        this.writer = writer;
+
+        this.drainer = new Thread(this::drainLoop, "library-events");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void emit(EventKind kind, Identifier identifier, boolean writer, int queueDepth, int occupiedPlaces) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - drained > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        kinds[slot] = (byte) kind.ordinal();
+        ids[slot] = identifier.getId();
+        writers[slot] = writer;
+        timestamps[slot] = System.nanoTime();
+        queueDepths[slot] = queueDepth;
+        this.occupiedPlaces[slot] = occupiedPlaces;
+        published.lazySet(slot, sequence + 1);
+    }
+
+    /**
+     * Returns how many events were dropped because the ring buffer was full.
+     *
+     * @return amount of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Drains every event emitted so far, flushes the writer and stops the background thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        EventKind[] values = EventKind.values();
+        while (true) {
+            boolean finishing = closed;
+            long next = drained;
+            int batch = 0;
+            int slot = (int) (next & mask);
+            while (published.get(slot) == next + 1) {
+                try {
+                    writer.write(values[kinds[slot]], ids[slot], writers[slot], timestamps[slot],
+                            queueDepths[slot], occupiedPlaces[slot]);
+                }
+                catch (IOException e) {
+                    dropped.incrementAndGet();
+                }
+                drained = ++next;
+                slot = (int) (next & mask);
+                batch++;
+            }
+
+            if (batch > 0) {
+                flush();
+            }
+            else if (finishing && next == claimed.get()) {
+                return;
+            }
+            else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        }
+        catch (IOException e) {
+            dropped.incrementAndGet();
+        }
+    }
+}
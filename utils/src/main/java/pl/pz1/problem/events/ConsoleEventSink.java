@@ -0,0 +1,31 @@
+package pl.pz1.problem.events;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.function.Supplier;
+
+/**
+ * Synchronous sink printing every event to {@link System#out} right away, together with the full description
+ * of the library state. It is what engines use by default, but it makes each event cost a walk over the queue
+ * and a blocking write, so heavily loaded libraries should use {@link AsyncEventSink} instead.
+ */
+public class ConsoleEventSink implements LibraryEventSink {
+    private final PolishEventFormatter formatter = new PolishEventFormatter();
+    private final Supplier<String> details;
+
+    /**
+     * Constructs a ConsoleEventSink.
+     *
+     * @param details supplier of the library description appended to every message
+     */
+    public ConsoleEventSink(Supplier<String> details) {
+        this.details = details;
+    }
+
+    @Override
+    public void emit(EventKind kind, Identifier identifier, boolean writer, int queueDepth, int occupiedPlaces) {
+        StringBuilder sb = new StringBuilder();
+        formatter.appendHeadline(sb, kind, identifier.getId(), writer);
+        System.out.println(sb.append(' ').append(details.get()));
+    }
+}
@@ -0,0 +1,20 @@
+package pl.pz1.problem.events;
+
+/**
+ * Turns the binary fields of an event into text.
+ */
+public interface EventFormatter {
+    /**
+     * Appends the textual form of an event, without a trailing line separator.
+     *
+     * @param sb builder to append to
+     * @param kind what happened
+     * @param id ID number of the participant
+     * @param writer true if the participant acts as a writer
+     * @param timestamp {@link System#nanoTime()} at which the event was emitted
+     * @param queueDepth size of the queue right after the event
+     * @param occupiedPlaces amount of occupied places right after the event
+     */
+    void format(StringBuilder sb, EventKind kind, int id, boolean writer, long timestamp,
+                int queueDepth, int occupiedPlaces);
+}
@@ -0,0 +1,41 @@
+package pl.pz1.problem.events;
+
+/**
+ * Kinds of events emitted by Library engines about participants moving through the library.
+ */
+public enum EventKind {
+    /**
+     * Participant joined the queue.
+     */
+    ENQUEUED,
+
+    /**
+     * Participant was let inside.
+     */
+    ADMITTED,
+
+    /**
+     * Participant left the library.
+     */
+    RELEASED,
+
+    /**
+     * Participant gave up waiting because it was interrupted.
+     */
+    CANCELLED,
+
+    /**
+     * Participant gave up waiting because its time to wait elapsed, or it did not want to wait at all.
+     */
+    TIMED_OUT,
+
+    /**
+     * Reader inside became the writer without leaving. Reported with the role it had before.
+     */
+    UPGRADED,
+
+    /**
+     * Writer inside became a reader without leaving. Reported with the role it had before.
+     */
+    DOWNGRADED
+}
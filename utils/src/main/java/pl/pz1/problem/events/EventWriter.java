@@ -0,0 +1,30 @@
+package pl.pz1.problem.events;
+
+import java.io.IOException;
+
+/**
+ * Destination to which {@link AsyncEventSink} hands drained events from its background thread.
+ * Implementations are only ever called from that single thread.
+ */
+public interface EventWriter {
+    /**
+     * Writes a single event.
+     *
+     * @param kind what happened
+     * @param id ID number of the participant
+     * @param writer true if the participant acts as a writer
+     * @param timestamp {@link System#nanoTime()} at which the event was emitted
+     * @param queueDepth size of the queue right after the event
+     * @param occupiedPlaces amount of occupied places right after the event
+     * @throws IOException If the event could not be written.
+     */
+    void write(EventKind kind, int id, boolean writer, long timestamp, int queueDepth, int occupiedPlaces)
+            throws IOException;
+
+    /**
+     * Called after every drained batch.
+     *
+     * @throws IOException If buffered events could not be written.
+     */
+    void flush() throws IOException;
+}
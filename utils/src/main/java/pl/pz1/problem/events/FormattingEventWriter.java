@@ -0,0 +1,42 @@
+package pl.pz1.problem.events;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writer formatting events into lines of text which are written out once per batch.
+ */
+public class FormattingEventWriter implements EventWriter {
+    private final Appendable out;
+    private final EventFormatter formatter;
+    private final StringBuilder batch = new StringBuilder();
+
+    /**
+     * Constructs a FormattingEventWriter.
+     *
+     * @param out where the lines go, like {@link System#out}
+     * @param formatter formatter of every line
+     */
+    public FormattingEventWriter(Appendable out, EventFormatter formatter) {
+        this.out = out;
+        this.formatter = formatter;
+    }
+
+    @Override
+    public void write(EventKind kind, int id, boolean writer, long timestamp, int queueDepth, int occupiedPlaces) {
+        formatter.format(batch, kind, id, writer, timestamp, queueDepth, occupiedPlaces);
+        batch.append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        out.append(batch);
+        batch.setLength(0);
+        if (out instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+}
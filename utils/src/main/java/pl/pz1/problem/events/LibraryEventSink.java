@@ -0,0 +1,37 @@
+package pl.pz1.problem.events;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+/**
+ * Receiver of the events emitted by Library engines.
+ * Engines call it on their hot path, often while holding their lock, so implementations should return quickly.
+ */
+public interface LibraryEventSink extends AutoCloseable {
+    /**
+     * Records a single event.
+     *
+     * @param kind what happened
+     * @param identifier who it happened to
+     * @param writer true if the participant acts as a writer, false if as a reader
+     * @param queueDepth size of the queue right after the event
+     * @param occupiedPlaces amount of occupied places right after the event
+     */
+    void emit(EventKind kind, Identifier identifier, boolean writer, int queueDepth, int occupiedPlaces);
+
+    /**
+     * Tells if the sink records events at all. Engines may skip computing what only the events carry,
+     * e.g. the occupied places, when it does not.
+     *
+     * @return true unless every event is discarded
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Flushes whatever the sink still buffers and releases its resources.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,26 @@
+package pl.pz1.problem.events;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+/**
+ * Sink which discards every event. Meant for benchmarks, where logging would distort the measured lock.
+ */
+public final class NoOpEventSink implements LibraryEventSink {
+    /**
+     * The only instance, the sink holds no state.
+     */
+    public static final NoOpEventSink INSTANCE = new NoOpEventSink();
+
+    private NoOpEventSink() {
+    }
+
+    @Override
+    public void emit(EventKind kind, Identifier identifier, boolean writer, int queueDepth, int occupiedPlaces) {
+        // events are deliberately dropped
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package pl.pz1.problem.events;
+
+import static pl.pz1.problem.visitors.identifier.Identifier.READER;
+import static pl.pz1.problem.visitors.identifier.Identifier.WRITER;
+
+/**
+ * Formatter producing the Polish console messages the Library has always printed,
+ * followed by the queue depth and the amount of occupied places.
+ */
+public class PolishEventFormatter implements EventFormatter {
+    @Override
+    public void format(StringBuilder sb, EventKind kind, int id, boolean writer, long timestamp,
+                       int queueDepth, int occupiedPlaces) {
+        appendHeadline(sb, kind, id, writer);
+        sb.append(" W kolejce: ").append(queueDepth).append(". Zajęte miejsca: ").append(occupiedPlaces);
+    }
+
+    /**
+     * Appends the sentence describing the event itself, like "Czytelnik 1 wszedł i czyta...".
+     *
+     * @param sb builder to append to
+     * @param kind what happened
+     * @param id ID number of the participant
+     * @param writer true if the participant acts as a writer
+     */
+    public void appendHeadline(StringBuilder sb, EventKind kind, int id, boolean writer) {
+        sb.append(writer ? WRITER : READER).append(' ').append(id);
+        switch (kind) {
+            case ENQUEUED -> sb.append(" stanął w kolejce i czeka na wejście.");
+            case ADMITTED -> sb.append(writer ? " wszedł i pisze..." : " wszedł i czyta...");
+            case RELEASED -> sb.append(" opuścił bibliotekę.");
+            case CANCELLED -> sb.append(" zrezygnował z czekania w kolejce.");
+            case TIMED_OUT -> sb.append(" nie doczekał się wejścia i opuścił kolejkę.");
+            case UPGRADED -> sb.append(" skończył czytać i pisze, nie opuszczając biblioteki...");
+            case DOWNGRADED -> sb.append(" skończył pisać i czyta, nie opuszczając biblioteki...");
+        }
+    }
+}
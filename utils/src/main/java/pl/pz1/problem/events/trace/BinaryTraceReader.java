@@ -0,0 +1,99 @@
+package pl.pz1.problem.events.trace;
+
+import pl.pz1.problem.events.EventKind;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads back, one by one, the events of a trace file written by {@link BinaryTraceWriter}.
+ * The file is streamed, so traces much larger than the memory can be replayed.
+ * Reading ends at the end of the file or at the first record never written, which is where a trace
+ * of a process that died without closing its writer ends.
+ */
+public class BinaryTraceReader implements Closeable {
+    private static final EventKind[] KINDS = EventKind.values();
+
+    private final DataInputStream in;
+    private final long startNanos;
+    private final long startEpochMillis;
+    private final byte[] record = new byte[BinaryTraceWriter.RECORD_SIZE];
+    private final ByteBuffer fields = ByteBuffer.wrap(record);
+    private boolean finished;
+
+    /**
+     * Opens a trace file and reads its header.
+     *
+     * @param file trace file
+     * @throws IOException If the file cannot be read or is not a trace of a known version.
+     */
+    public BinaryTraceReader(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            int magic = in.readInt();
+            short version = in.readShort();
+            short recordSize = in.readShort();
+            if (magic != BinaryTraceWriter.MAGIC || version != BinaryTraceWriter.FORMAT_VERSION
+                    || recordSize != BinaryTraceWriter.RECORD_SIZE) {
+                throw new IOException("Not a library trace of version " + BinaryTraceWriter.FORMAT_VERSION
+                        + ": " + file);
+            }
+            this.startNanos = in.readLong();
+            this.startEpochMillis = in.readLong();
+            in.skipNBytes(BinaryTraceWriter.HEADER_SIZE - 24);
+        }
+        catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the wall-clock time at which the trace was started.
+     *
+     * @return milliseconds since the epoch
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Reads the next event.
+     *
+     * @return the next event, or null if there are no more
+     * @throws IOException If the file cannot be read or holds an unknown kind of event.
+     */
+    public TraceEvent next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            in.readFully(record);
+        }
+        catch (EOFException e) {
+            finished = true;
+            return null;
+        }
+        int kind = fields.get(20);
+        if (kind == 0) {
+            finished = true;
+            return null;
+        }
+        if (kind > KINDS.length) {
+            throw new IOException("Unknown kind of event: " + kind);
+        }
+        return new TraceEvent(KINDS[kind - 1], fields.getInt(8), fields.get(21) != 0,
+                fields.getLong(0) - startNanos, fields.getInt(12), fields.getInt(16));
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,141 @@
+package pl.pz1.problem.events.trace;
+
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.EventWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer appending every event as a fixed-size binary record to a trace file, meant to be drained into by
+ * {@link pl.pz1.problem.events.AsyncEventSink}. The file is written through memory-mapped segments of the file,
+ * so a record costs a few stores into memory and no system call; a new segment is mapped only when the previous
+ * one is full. Records already stored stay in the page cache even if the process dies without closing the writer,
+ * and {@link BinaryTraceReader} stops at the first record never written.
+ *
+ * <p>The file starts with a header of {@value #HEADER_SIZE} bytes: the magic number, the version of the format,
+ * the size of a record, and the {@link System#nanoTime()} and {@link System#currentTimeMillis()} at its creation.
+ * Every record of {@value #RECORD_SIZE} bytes holds the timestamp, the ID of the participant, the size of the queue
+ * and the amount of occupied places right after the event, the kind of the event increased by one, and whether
+ * the participant acted as a writer. All numbers are big-endian.
+ */
+public class BinaryTraceWriter implements EventWriter, Closeable {
+    /**
+     * Magic number at the start of every trace file.
+     */
+    public static final int MAGIC = 0x4C425452;
+
+    /**
+     * Version of the format of the file.
+     */
+    public static final short FORMAT_VERSION = 1;
+
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    /**
+     * Size of a single record in bytes.
+     */
+    public static final int RECORD_SIZE = 24;
+
+    private static final int DEFAULT_SEGMENT_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long records;
+
+    /**
+     * Constructs a BinaryTraceWriter mapping the file in segments of 32768 records.
+     *
+     * @param file file to write, replaced if it exists
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public BinaryTraceWriter(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Constructs a BinaryTraceWriter mapping the file in segments of the given number of records.
+     *
+     * @param file file to write, replaced if it exists
+     * @param segmentRecords number of records of a single mapped segment
+     * @throws IOException If the file cannot be created or mapped.
+     * @throws IllegalArgumentException If the number of records of a segment is not positive.
+     */
+    public BinaryTraceWriter(Path file, int segmentRecords) throws IOException {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Segment must hold at least one record: " + segmentRecords);
+        }
+        this.segmentSize = (long) segmentRecords * RECORD_SIZE;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putInt(MAGIC)
+                .putShort(FORMAT_VERSION)
+                .putShort((short) RECORD_SIZE)
+                .putLong(System.nanoTime())
+                .putLong(System.currentTimeMillis());
+        this.segmentStart = HEADER_SIZE;
+        this.segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, segmentSize);
+    }
+
+    @Override
+    public void write(EventKind kind, int id, boolean writer, long timestamp, int queueDepth, int occupiedPlaces)
+            throws IOException {
+        if (!segment.hasRemaining()) {
+            segmentStart += segmentSize;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, segmentSize);
+        }
+        segment.putLong(timestamp)
+                .putInt(id)
+                .putInt(queueDepth)
+                .putInt(occupiedPlaces)
+                .put((byte) (kind.ordinal() + 1))
+                .put((byte) (writer ? 1 : 0))
+                .putShort((short) 0);
+        records++;
+    }
+
+    /**
+     * Does nothing, records are visible in the file as soon as they are written.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Returns how many records were written.
+     *
+     * @return amount of records
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Cuts off the unused rest of the last segment and closes the file.
+     *
+     * @throws IOException If the file cannot be truncated or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+        }
+        finally {
+            segment = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package pl.pz1.problem.events.trace;
+
+import pl.pz1.problem.events.EventKind;
+
+/**
+ * Single event read back from a trace file by {@link BinaryTraceReader}.
+ */
+public class TraceEvent {
+    private final EventKind kind;
+    private final int id;
+    private final boolean writer;
+    private final long time;
+    private final int queueDepth;
+    private final int occupiedPlaces;
+
+    /**
+     * Constructs a TraceEvent.
+     *
+     * @param kind what happened
+     * @param id ID number of the participant
+     * @param writer true if the participant acted as a writer
+     * @param time nanoseconds since the trace was started
+     * @param queueDepth size of the queue right after the event
+     * @param occupiedPlaces amount of occupied places right after the event
+     */
+    public TraceEvent(EventKind kind, int id, boolean writer, long time, int queueDepth, int occupiedPlaces) {
+        this.kind = kind;
+        this.id = id;
+        this.writer = writer;
+        this.time = time;
+        this.queueDepth = queueDepth;
+        this.occupiedPlaces = occupiedPlaces;
+    }
+
+    /**
+     * Returns what happened.
+     *
+     * @return kind of the event
+     */
+    public EventKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the ID number of the participant.
+     *
+     * @return ID number of the participant
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Tells if the participant acted as a writer.
+     *
+     * @return true for a writer, false for a reader
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns when the event happened.
+     *
+     * @return nanoseconds since the trace was started
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the size of the queue right after the event.
+     *
+     * @return size of the queue
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns the amount of occupied places right after the event.
+     *
+     * @return amount of occupied places
+     */
+    public int getOccupiedPlaces() {
+        return occupiedPlaces;
+    }
+}
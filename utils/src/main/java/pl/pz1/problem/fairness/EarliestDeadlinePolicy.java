@@ -0,0 +1,85 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Earliest deadline first: admits the waiter due first, whatever its role and order of arrival,
+ * where a waiter is due at its arrival plus the deadline of its {@link pl.pz1.problem.queue.PriorityClass}.
+ * A deadline is fixed on arrival, so waiting ages a waiter: a batch job which has waited long enough
+ * is due before every request arriving after it, however urgent, and cannot starve.
+ * Readers are still admitted in batches: once the reader due first enters, the readers waiting at that moment
+ * join it in the order of their deadlines while they fit, even ahead of a writer due earlier, since that writer
+ * has to wait for the first reader anyway. The batch ends with the first reader which does not fit.
+ * Waiters are indexed by deadline in a heap per role when they arrive; those which gave up
+ * are dropped lazily once they reach the top.
+ */
+public class EarliestDeadlinePolicy implements FairnessPolicy {
+    private static final Comparator<WaitNode> BY_DEADLINE = Comparator.comparingLong(WaitNode::getDeadline);
+
+    private final PriorityQueue<WaitNode> readers = new PriorityQueue<>(BY_DEADLINE);
+    private final PriorityQueue<WaitNode> writers = new PriorityQueue<>(BY_DEADLINE);
+    private int batchReaders = 0;
+
+    @Override
+    public void enqueued(WaitNode node) {
+        (node.isWriter() ? writers : readers).add(node);
+    }
+
+    @Override
+    public WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity) {
+        WaitNode reader = first(readers);
+        WaitNode writer = first(writers);
+        if (batchReaders > 0) {
+            if (reader != null && FairnessPolicy.fits(reader, readersInside, writerInside, capacity)) {
+                return reader;
+            }
+            batchReaders = 0;
+        }
+
+        if (writer != null && (reader == null || writer.getDeadline() <= reader.getDeadline())) {
+            return FairnessPolicy.fits(writer, readersInside, writerInside, capacity) ? writer : null;
+        }
+        if (reader != null && FairnessPolicy.fits(reader, readersInside, writerInside, capacity)) {
+            return reader;
+        }
+        return null;
+    }
+
+    @Override
+    public void admitted(WaitNode node, WaitQueue queue) {
+        PriorityQueue<WaitNode> heap = node.isWriter() ? writers : readers;
+        if (heap.peek() == node) {
+            heap.poll();
+        }
+        else {
+            heap.remove(node);
+        }
+        if (node.isWriter()) {
+            batchReaders = 0;
+        }
+        else if (batchReaders > 0) {
+            batchReaders--;
+        }
+        else {
+            batchReaders = queue.readers();
+        }
+    }
+
+    /**
+     * Returns the waiter of the heap due first, dropping those which are no longer queued.
+     *
+     * @param heap waiters of one role
+     * @return the waiter due first, or null if none waits
+     */
+    private static WaitNode first(PriorityQueue<WaitNode> heap) {
+        WaitNode head;
+        while ((head = heap.peek()) != null && !head.isQueued()) {
+            heap.poll();
+        }
+        return head;
+    }
+}
@@ -0,0 +1,73 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+/**
+ * Decides which of the waiting participants enters the library next.
+ * The library asks the policy repeatedly, admitting every chosen waiter, until the policy has nobody to let in.
+ * Policies may keep state between decisions, so every library needs its own instance.
+ * They are not thread-safe, the library only calls them while holding its lock.
+ * Every policy admits the waiters of one role and one class of service in their order of arrival, so a reader
+ * taking many places is never overtaken by lighter readers of its class behind it: those wait until it fits,
+ * and it cannot starve. Only {@link EarliestDeadlinePolicy} looks at the class: there a heavy reader is overtaken
+ * by lighter readers of a more urgent class arriving after it, which fit sooner, until it is due before them.
+ */
+public interface FairnessPolicy {
+    /**
+     * Chooses the next waiter to admit.
+     * The chosen one must fit in the library: a writer only when nobody is inside,
+     * a reader only when no writer is inside and its weight fits into the places the readers inside left free.
+     *
+     * @param queue those waiting, in the order of arrival
+     * @param readersInside places taken by the readers currently inside, the sum of their weights
+     * @param writerInside true if a writer is currently inside
+     * @param capacity the maximum number of readers allowed at the same time
+     * @return the waiter to admit, or null if nobody should enter now
+     */
+    WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity);
+
+    /**
+     * Notifies the policy that a waiter was just added to the end of the queue.
+     * Policies ordering waiters otherwise than by arrival may index it here.
+     *
+     * @param node new waiter
+     */
+    default void enqueued(WaitNode node) {
+    }
+
+    /**
+     * Notifies the policy that the waiter it chose was admitted and already removed from the queue.
+     *
+     * @param node admitted waiter
+     * @param queue those still waiting
+     */
+    default void admitted(WaitNode node, WaitQueue queue) {
+    }
+
+    /**
+     * Notifies the policy that a waiter gave up, having timed out or been cancelled.
+     * It is called while the waiter is still queued, right before it is removed.
+     *
+     * @param node waiter giving up
+     * @param queue those waiting, the waiter included
+     */
+    default void gaveUp(WaitNode node, WaitQueue queue) {
+    }
+
+    /**
+     * Tells if the waiter fits in the library right now.
+     *
+     * @param node the waiter
+     * @param readersInside places taken by the readers currently inside, the sum of their weights
+     * @param writerInside true if a writer is currently inside
+     * @param capacity the maximum number of readers allowed at the same time
+     * @return true if the waiter could enter
+     */
+    static boolean fits(WaitNode node, int readersInside, boolean writerInside, int capacity) {
+        if (writerInside) {
+            return false;
+        }
+        return node.isWriter() ? readersInside == 0 : readersInside + node.getWeight() <= capacity;
+    }
+}
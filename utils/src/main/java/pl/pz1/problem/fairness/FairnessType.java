@@ -0,0 +1,49 @@
+package pl.pz1.problem.fairness;
+
+import java.util.function.Supplier;
+
+/**
+ * Fairness policies available for the Library, each creating a fresh policy for every library.
+ */
+public enum FairnessType {
+    /**
+     * {@link FifoPolicy}, the strict order of arrival.
+     */
+    FIFO(FifoPolicy::new),
+    /**
+     * {@link ReaderPreferencePolicy}, readers overtake waiting writers.
+     */
+    READER_PREFERENCE(ReaderPreferencePolicy::new),
+    /**
+     * {@link WriterPreferencePolicy} with a starvation window of {@link #DEFAULT_WINDOW} writers.
+     */
+    WRITER_PREFERENCE(() -> new WriterPreferencePolicy(FairnessType.DEFAULT_WINDOW)),
+    /**
+     * {@link PhaseFairPolicy}, reader and writer phases alternate.
+     */
+    PHASE_FAIR(PhaseFairPolicy::new),
+    /**
+     * {@link EarliestDeadlinePolicy}, the waiter due first enters first.
+     */
+    EARLIEST_DEADLINE(EarliestDeadlinePolicy::new);
+
+    /**
+     * How many writers in a row may overtake waiting readers under {@link #WRITER_PREFERENCE}.
+     */
+    public static final int DEFAULT_WINDOW = 4;
+
+    private final Supplier<FairnessPolicy> factory;
+
+    FairnessType(Supplier<FairnessPolicy> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new policy of this type.
+     *
+     * @return policy for a single library
+     */
+    public FairnessPolicy create() {
+        return factory.get();
+    }
+}
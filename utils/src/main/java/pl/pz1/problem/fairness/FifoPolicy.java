@@ -0,0 +1,19 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+/**
+ * Strict order of arrival: only the head of the queue may enter, so nobody is ever overtaken.
+ * A writer at the head holds back every reader behind it, even when there is room for them.
+ */
+public class FifoPolicy implements FairnessPolicy {
+    @Override
+    public WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity) {
+        WaitNode head = queue.peek();
+        if (head == null || !FairnessPolicy.fits(head, readersInside, writerInside, capacity)) {
+            return null;
+        }
+        return head;
+    }
+}
@@ -0,0 +1,60 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+/**
+ * Reader and writer phases alternate. While a writer waits, new readers are held back, so the writer enters
+ * once the current reader phase drains. When a writer leaves, every reader waiting at that moment forms
+ * the next reader phase and enters (as places allow) before the next writer.
+ * Hence a reader waits for at most one writer, and a writer waits for at most one reader phase
+ * per writer ahead of it. Writers enter in the order of their arrival.
+ * The phase ends with the last reader waiting when it opened, so readers of the phase which give up
+ * shorten it rather than leave their turn to readers which arrived later.
+ */
+public class PhaseFairPolicy implements FairnessPolicy {
+    private boolean writerPhase = false;
+    private WaitNode lastOfPhase;
+
+    @Override
+    public WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity) {
+        if (writerInside) {
+            return null;
+        }
+        if (writerPhase) {
+            writerPhase = false;
+            lastOfPhase = queue.lastReader();
+        }
+
+        WaitNode reader = queue.firstReader();
+        if (lastOfPhase != null) {
+            return FairnessPolicy.fits(reader, readersInside, false, capacity) ? reader : null;
+        }
+
+        WaitNode writer = queue.firstWriter();
+        if (writer != null) {
+            return FairnessPolicy.fits(writer, readersInside, false, capacity) ? writer : null;
+        }
+        if (reader != null && FairnessPolicy.fits(reader, readersInside, false, capacity)) {
+            return reader;
+        }
+        return null;
+    }
+
+    @Override
+    public void admitted(WaitNode node, WaitQueue queue) {
+        if (node.isWriter()) {
+            writerPhase = true;
+        }
+        else if (node == lastOfPhase) {
+            lastOfPhase = null;
+        }
+    }
+
+    @Override
+    public void gaveUp(WaitNode node, WaitQueue queue) {
+        if (node == lastOfPhase) {
+            lastOfPhase = queue.previousOfRole(node);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+/**
+ * Readers go first: a reader enters whenever no writer is inside and there is room, overtaking waiting writers.
+ * A writer enters only once no reader is inside or waiting.
+ * Readers never wait for writers that have not entered yet, but a steady stream of readers starves the writers.
+ */
+public class ReaderPreferencePolicy implements FairnessPolicy {
+    @Override
+    public WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity) {
+        WaitNode reader = queue.firstReader();
+        if (reader != null) {
+            return FairnessPolicy.fits(reader, readersInside, writerInside, capacity) ? reader : null;
+        }
+        WaitNode writer = queue.firstWriter();
+        if (writer != null && FairnessPolicy.fits(writer, readersInside, writerInside, capacity)) {
+            return writer;
+        }
+        return null;
+    }
+}
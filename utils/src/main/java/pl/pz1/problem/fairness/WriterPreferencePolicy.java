@@ -0,0 +1,76 @@
+package pl.pz1.problem.fairness;
+
+import pl.pz1.problem.queue.WaitNode;
+import pl.pz1.problem.queue.WaitQueue;
+
+/**
+ * Writers go first: while a writer waits, no new reader enters, so the writer gets in as soon as
+ * the readers inside leave. To keep readers from starving, at most {@code window} writers in a row may enter
+ * while readers wait; after that every reader waiting at that moment enters before the next writer.
+ * Hence a reader is overtaken by at most {@code window} writers.
+ * The readers owed their turn end with the last reader waiting when the window closed, so those which give up
+ * shorten the turn rather than leave their places to readers which arrived later.
+ */
+public class WriterPreferencePolicy implements FairnessPolicy {
+    private final int window;
+    private int writersInRow = 0;
+    private WaitNode lastOwed;
+
+    /**
+     * Constructs a WriterPreferencePolicy with the specified starvation window.
+     *
+     * @param window how many writers in a row may enter while readers wait
+     * @throws IllegalArgumentException If the window is not positive.
+     */
+    public WriterPreferencePolicy(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Starvation window must be positive: " + window);
+        }
+        this.window = window;
+    }
+
+    @Override
+    public WaitNode select(WaitQueue queue, int readersInside, boolean writerInside, int capacity) {
+        WaitNode reader = queue.firstReader();
+        if (reader == null) {
+            lastOwed = null;
+        }
+        if (lastOwed != null) {
+            return FairnessPolicy.fits(reader, readersInside, writerInside, capacity) ? reader : null;
+        }
+
+        WaitNode writer = queue.firstWriter();
+        if (writer != null) {
+            return FairnessPolicy.fits(writer, readersInside, writerInside, capacity) ? writer : null;
+        }
+        if (reader != null && FairnessPolicy.fits(reader, readersInside, writerInside, capacity)) {
+            return reader;
+        }
+        return null;
+    }
+
+    @Override
+    public void admitted(WaitNode node, WaitQueue queue) {
+        if (!node.isWriter()) {
+            if (node == lastOwed) {
+                lastOwed = null;
+            }
+            return;
+        }
+
+        if (queue.readers() == 0) {
+            writersInRow = 0;
+        }
+        else if (++writersInRow == window) {
+            writersInRow = 0;
+            lastOwed = queue.lastReader();
+        }
+    }
+
+    @Override
+    public void gaveUp(WaitNode node, WaitQueue queue) {
+        if (node == lastOwed) {
+            lastOwed = queue.previousOfRole(node);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pl.pz1.problem.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends every snapshot of the metrics to a local file as a single line of {@code name=value} pairs,
+ * see {@link MetricsSnapshot#format()}. A failed write is counted and skipped, the next period tries again.
+ */
+public class FileMetricsExporter extends MetricsExporter {
+    private final BufferedWriter out;
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Constructs a FileMetricsExporter and starts exporting.
+     *
+     * @param metrics metrics to export
+     * @param file file to append to, created if it does not exist
+     * @param period time between two exports
+     * @param unit unit of the period
+     * @throws IOException If the file cannot be opened.
+     */
+    public FileMetricsExporter(LibraryMetrics metrics, Path file, long period, TimeUnit unit) throws IOException {
+        super(metrics);
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        start(period, unit);
+    }
+
+    @Override
+    protected synchronized void export(MetricsSnapshot snapshot) {
+        try {
+            out.write(snapshot.format());
+            out.newLine();
+            out.flush();
+        }
+        catch (IOException e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns how many snapshots could not be written.
+     *
+     * @return amount of failed writes
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Writes the final snapshot and closes the file.
+     */
+    @Override
+    public void close() {
+        try {
+            super.close();
+        }
+        finally {
+            try {
+                out.close();
+            }
+            catch (IOException e) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+}
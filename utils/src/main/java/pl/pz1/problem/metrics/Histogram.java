@@ -0,0 +1,101 @@
+package pl.pz1.problem.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative long values laid out like an HdrHistogram: every power of two is split into the same
+ * number of linear sub-buckets, so the relative error of a recorded value stays below 1/32 from 1 up to
+ * {@link Long#MAX_VALUE} in a fixed array of counters.
+ * Recording is a single atomic increment of a counter plus updates of the extremes which rarely change,
+ * so it takes no lock and many threads can record into the same histogram at once.
+ */
+public class Histogram {
+    /**
+     * Number of bits of a value kept exactly, so every power of two is split into 2^SUB_BUCKET_BITS / 2 sub-buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+    private static final int LENGTH = SUB_BUCKET_COUNT + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Records a single value. Negative values are recorded as zero.
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        long recorded = Math.max(value, 0L);
+        counts.incrementAndGet(indexOf(recorded));
+
+        long current = min.get();
+        while (recorded < current && !min.compareAndSet(current, recorded)) {
+            current = min.get();
+        }
+        current = max.get();
+        while (recorded > current && !max.compareAndSet(current, recorded)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Copies the counters into an immutable snapshot. Values recorded meanwhile may or may not be included.
+     *
+     * @return snapshot of the histogram
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, min.get(), max.get());
+    }
+
+    /**
+     * Finds the counter of a value.
+     *
+     * @param value non-negative value
+     * @return index of its counter
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + subBucket - SUB_BUCKET_HALF;
+    }
+
+    /**
+     * Returns the smallest value counted by a counter.
+     *
+     * @param index index of the counter
+     * @return lowest value of the counter
+     */
+    static long lowestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return subBucket << shift;
+    }
+
+    /**
+     * Returns the greatest value counted by a counter.
+     *
+     * @param index index of the counter
+     * @return highest value of the counter
+     */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        return lowestValueAt(index) + ((1L << shift) - 1);
+    }
+}
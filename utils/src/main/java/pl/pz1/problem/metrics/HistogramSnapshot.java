@@ -0,0 +1,102 @@
+package pl.pz1.problem.metrics;
+
+/**
+ * Immutable copy of a {@link Histogram} taken at one moment, answering questions about the recorded values.
+ * Percentiles and the mean are exact up to the resolution of the histogram, the extremes are exact.
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long min;
+    private final long max;
+
+    /**
+     * Constructs a snapshot from copied counters.
+     *
+     * @param counts counters of the histogram, owned by the snapshot from now on
+     * @param min smallest recorded value, {@link Long#MAX_VALUE} if nothing was recorded
+     * @param max greatest recorded value, {@link Long#MIN_VALUE} if nothing was recorded
+     */
+    HistogramSnapshot(long[] counts, long min, long max) {
+        long total = 0;
+        for (long bucket : counts) {
+            total += bucket;
+        }
+        this.counts = counts;
+        this.count = total;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Returns how many values were recorded.
+     *
+     * @return amount of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return smallest value, 0 if nothing was recorded
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the greatest recorded value.
+     *
+     * @return greatest value, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Returns the mean of the recorded values, counting each of them as the middle of its sub-bucket.
+     *
+     * @return mean value, 0 if nothing was recorded
+     */
+    public double getMean() {
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                double middle = Histogram.lowestValueAt(i) / 2.0 + Histogram.highestValueAt(i) / 2.0;
+                sum += middle * counts[i];
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values lie.
+     * The value reported is the highest one its sub-bucket counts, but never more than the greatest recorded value.
+     *
+     * @param percentile percentage between 0 and 100
+     * @return value at the percentile, 0 if nothing was recorded
+     * @throws IllegalArgumentException If the percentile is out of range.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long wanted = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= wanted) {
+                return Math.min(Histogram.highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,145 @@
+package pl.pz1.problem.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the metrics of a library as an MXBean of the platform MBean server, so they can be watched
+ * with JConsole or any other JMX client. Attributes show the snapshot of the latest periodic export,
+ * reading them never touches the live metrics.
+ */
+public class JmxMetricsExporter extends MetricsExporter implements LibraryMetricsMXBean {
+    private final ObjectName objectName;
+    private volatile MetricsSnapshot previous;
+    private volatile MetricsSnapshot latest;
+
+    /**
+     * Constructs a JmxMetricsExporter, registers it and starts exporting.
+     *
+     * @param metrics metrics to export
+     * @param name name of the library, becomes the {@code name} key of the object name
+     * @param period time between two exports
+     * @param unit unit of the period
+     * @throws JMException If the name is malformed or already registered.
+     */
+    public JmxMetricsExporter(LibraryMetrics metrics, String name, long period, TimeUnit unit) throws JMException {
+        super(metrics);
+        this.latest = metrics.snapshot();
+        this.previous = latest;
+        this.objectName = new ObjectName("pl.pz1.problem:type=LibraryMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        start(period, unit);
+    }
+
+    @Override
+    protected synchronized void export(MetricsSnapshot snapshot) {
+        previous = latest;
+        latest = snapshot;
+    }
+
+    /**
+     * Returns the name the exporter is registered under.
+     *
+     * @return object name of the MXBean
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Stops the periodic export and unregisters the MXBean.
+     */
+    @Override
+    public void close() {
+        super.close();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        }
+        catch (JMException e) {
+            // Already unregistered by someone else, nothing left to release.
+        }
+    }
+
+    @Override
+    public long getReadersAdmitted() {
+        return latest.getReaders().getAdmitted();
+    }
+
+    @Override
+    public long getWritersAdmitted() {
+        return latest.getWriters().getAdmitted();
+    }
+
+    @Override
+    public long getReadersCancelled() {
+        return latest.getReaders().getCancelled();
+    }
+
+    @Override
+    public long getWritersCancelled() {
+        return latest.getWriters().getCancelled();
+    }
+
+    @Override
+    public long getReadersTimedOut() {
+        return latest.getReaders().getTimedOut();
+    }
+
+    @Override
+    public long getWritersTimedOut() {
+        return latest.getWriters().getTimedOut();
+    }
+
+    @Override
+    public long getReaderWaitP50Micros() {
+        return micros(latest.getReaders().getWaitTimes().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getReaderWaitP99Micros() {
+        return micros(latest.getReaders().getWaitTimes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getWriterWaitP50Micros() {
+        return micros(latest.getWriters().getWaitTimes().getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getWriterWaitP99Micros() {
+        return micros(latest.getWriters().getWaitTimes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getReaderHoldP99Micros() {
+        return micros(latest.getReaders().getHoldTimes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getWriterHoldP99Micros() {
+        return micros(latest.getWriters().getHoldTimes().getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getMeanOccupancy() {
+        return latest.getOccupancy().getMean();
+    }
+
+    @Override
+    public double getMeanQueueDepth() {
+        return latest.getQueueDepth().getMean();
+    }
+
+    @Override
+    public synchronized double getThroughput() {
+        return latest.getThroughputSince(previous);
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
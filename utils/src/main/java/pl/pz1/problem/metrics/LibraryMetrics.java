@@ -0,0 +1,174 @@
+package pl.pz1.problem.metrics;
+
+import pl.pz1.problem.queue.PriorityClass;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of a single library: how long readers and writers wait in the queue and stay inside,
+ * how many of them were admitted, released, gave up or timed out, and how deep the queue and how full the library
+ * were whenever they changed. Every recording method is lock-free, so the metrics can be fed from inside
+ * the critical section of the library without lengthening it noticeably.
+ * Occupancy and queue depth change on every event, so only every n-th change may be sampled to save even more.
+ * Waiting times are also kept per {@link PriorityClass}, together with how late those which missed the objective
+ * of their class were.
+ */
+public class LibraryMetrics {
+    private final Role readers = new Role();
+    private final Role writers = new Role();
+    private final Histogram occupancy = new Histogram();
+    private final Histogram queueDepth = new Histogram();
+    private final ServiceLevel[] serviceLevels = new ServiceLevel[PriorityClass.values().length];
+    private final AtomicLong changes = new AtomicLong();
+    private final long sampleMask;
+    private final long createdAt = System.nanoTime();
+
+    /**
+     * Constructs LibraryMetrics sampling every change of occupancy and queue depth.
+     */
+    public LibraryMetrics() {
+        this(1);
+    }
+
+    /**
+     * Constructs LibraryMetrics sampling only some changes of occupancy and queue depth.
+     *
+     * @param sampleEvery how many changes make one sample, rounded up to a power of two
+     * @throws IllegalArgumentException If sampleEvery is not between 1 and 2^30.
+     */
+    public LibraryMetrics(int sampleEvery) {
+        if (sampleEvery < 1 || sampleEvery > 1 << 30) {
+            throw new IllegalArgumentException("Sampling interval must be between 1 and 2^30: " + sampleEvery);
+        }
+        int interval = Integer.highestOneBit(sampleEvery);
+        if (interval < sampleEvery) {
+            interval <<= 1;
+        }
+        this.sampleMask = interval - 1L;
+        for (int i = 0; i < serviceLevels.length; i++) {
+            serviceLevels[i] = new ServiceLevel();
+        }
+    }
+
+    /**
+     * Records that a participant was admitted.
+     *
+     * @param writer true for a writer, false for a reader
+     * @param waitedNanos how long the participant waited in the queue, in nanoseconds
+     */
+    public void recordAdmitted(boolean writer, long waitedNanos) {
+        Role role = role(writer);
+        role.admitted.increment();
+        role.waitTimes.record(waitedNanos);
+    }
+
+    /**
+     * Records the wait of an admitted participant against the objective of its class of service.
+     *
+     * @param priority class of service of the participant
+     * @param waitedNanos how long the participant waited in the queue, in nanoseconds
+     */
+    public void recordServiceLevel(PriorityClass priority, long waitedNanos) {
+        ServiceLevel level = serviceLevels[priority.ordinal()];
+        level.waitTimes.record(waitedNanos);
+        long late = waitedNanos - priority.getDeadlineNanos();
+        if (late > 0) {
+            level.lateness.record(late);
+        }
+    }
+
+    /**
+     * Returns how well waiters of a class of service met its objective so far.
+     *
+     * @param priority class of service
+     * @return waiting times and misses of the class
+     */
+    public ServiceLevelSnapshot serviceLevel(PriorityClass priority) {
+        ServiceLevel level = serviceLevels[priority.ordinal()];
+        return new ServiceLevelSnapshot(priority, level.waitTimes.snapshot(), level.lateness.snapshot());
+    }
+
+    /**
+     * Records that a participant left the library.
+     *
+     * @param writer true for a writer, false for a reader
+     * @param heldNanos how long the participant stayed inside, in nanoseconds
+     */
+    public void recordReleased(boolean writer, long heldNanos) {
+        Role role = role(writer);
+        role.released.increment();
+        role.holdTimes.record(heldNanos);
+    }
+
+    /**
+     * Records that a waiting participant was interrupted and gave up waiting.
+     *
+     * @param writer true for a writer, false for a reader
+     */
+    public void recordCancelled(boolean writer) {
+        role(writer).cancelled.increment();
+    }
+
+    /**
+     * Records that a participant was not admitted in the time it was ready to wait.
+     *
+     * @param writer true for a writer, false for a reader
+     */
+    public void recordTimedOut(boolean writer) {
+        role(writer).timedOut.increment();
+    }
+
+    /**
+     * Records the state of the library after a change, if this change is one of those sampled.
+     *
+     * @param queueDepth size of the queue
+     * @param occupiedPlaces amount of occupied places
+     */
+    public void sample(int queueDepth, int occupiedPlaces) {
+        if ((changes.getAndIncrement() & sampleMask) == 0) {
+            this.queueDepth.record(queueDepth);
+            this.occupancy.record(occupiedPlaces);
+        }
+    }
+
+    /**
+     * Copies every metric into an immutable snapshot. Recording goes on meanwhile, so the metrics of a snapshot
+     * may disagree slightly with each other, e.g. by a participant admitted after its role's counters were copied.
+     *
+     * @return snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(System.nanoTime() - createdAt, readers.snapshot(), writers.snapshot(),
+                occupancy.snapshot(), queueDepth.snapshot());
+    }
+
+    private Role role(boolean writer) {
+        return writer ? writers : readers;
+    }
+
+    /**
+     * Waiting times and lateness of a single class of service.
+     */
+    private static class ServiceLevel {
+        private final Histogram waitTimes = new Histogram();
+        private final Histogram lateness = new Histogram();
+    }
+
+    /**
+     * Metrics of either readers or writers.
+     */
+    private static class Role {
+        private final Histogram waitTimes = new Histogram();
+        private final Histogram holdTimes = new Histogram();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder released = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+
+        private RoleSnapshot snapshot() {
+            return new RoleSnapshot(admitted.sum(), released.sum(), cancelled.sum(), timedOut.sum(),
+                    waitTimes.snapshot(), holdTimes.snapshot());
+        }
+    }
+}
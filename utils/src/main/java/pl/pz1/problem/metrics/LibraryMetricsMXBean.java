@@ -0,0 +1,112 @@
+package pl.pz1.problem.metrics;
+
+/**
+ * Management interface under which {@link JmxMetricsExporter} publishes the latest snapshot of library metrics.
+ * Times are in microseconds, throughput is the amount of admissions per second since the previous export.
+ */
+public interface LibraryMetricsMXBean {
+    /**
+     * Returns the amount of readers admitted.
+     *
+     * @return amount of readers admitted
+     */
+    long getReadersAdmitted();
+
+    /**
+     * Returns the amount of writers admitted.
+     *
+     * @return amount of writers admitted
+     */
+    long getWritersAdmitted();
+
+    /**
+     * Returns the amount of readers which gave up waiting after an interrupt.
+     *
+     * @return amount of readers which gave up waiting after an interrupt
+     */
+    long getReadersCancelled();
+
+    /**
+     * Returns the amount of writers which gave up waiting after an interrupt.
+     *
+     * @return amount of writers which gave up waiting after an interrupt
+     */
+    long getWritersCancelled();
+
+    /**
+     * Returns the amount of readers not admitted in the time they were ready to wait.
+     *
+     * @return amount of readers not admitted in the time they were ready to wait
+     */
+    long getReadersTimedOut();
+
+    /**
+     * Returns the amount of writers not admitted in the time they were ready to wait.
+     *
+     * @return amount of writers not admitted in the time they were ready to wait
+     */
+    long getWritersTimedOut();
+
+    /**
+     * Returns the median time readers waited in the queue.
+     *
+     * @return median time readers waited in the queue
+     */
+    long getReaderWaitP50Micros();
+
+    /**
+     * Returns the 99th percentile of the time readers waited in the queue.
+     *
+     * @return 99th percentile of the time readers waited in the queue
+     */
+    long getReaderWaitP99Micros();
+
+    /**
+     * Returns the median time writers waited in the queue.
+     *
+     * @return median time writers waited in the queue
+     */
+    long getWriterWaitP50Micros();
+
+    /**
+     * Returns the 99th percentile of the time writers waited in the queue.
+     *
+     * @return 99th percentile of the time writers waited in the queue
+     */
+    long getWriterWaitP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time readers stayed inside.
+     *
+     * @return 99th percentile of the time readers stayed inside
+     */
+    long getReaderHoldP99Micros();
+
+    /**
+     * Returns the 99th percentile of the time writers stayed inside.
+     *
+     * @return 99th percentile of the time writers stayed inside
+     */
+    long getWriterHoldP99Micros();
+
+    /**
+     * Returns the mean sampled amount of occupied places.
+     *
+     * @return mean sampled amount of occupied places
+     */
+    double getMeanOccupancy();
+
+    /**
+     * Returns the mean sampled size of the queue.
+     *
+     * @return mean sampled size of the queue
+     */
+    double getMeanQueueDepth();
+
+    /**
+     * Returns the admissions per second since the previous export.
+     *
+     * @return admissions per second since the previous export
+     */
+    double getThroughput();
+}
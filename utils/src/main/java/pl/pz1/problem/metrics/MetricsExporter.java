@@ -0,0 +1,72 @@
+package pl.pz1.problem.metrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes snapshots of {@link LibraryMetrics} periodically on a background thread and hands them to a destination
+ * chosen by the subclass. The library itself never waits for the export.
+ * Closing the exporter stops the background thread and exports the final state of the metrics once more.
+ */
+public abstract class MetricsExporter implements AutoCloseable {
+    private final LibraryMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a MetricsExporter, which does nothing until {@link #start(long, TimeUnit)} is called.
+     *
+     * @param metrics metrics to export
+     */
+    protected MetricsExporter(LibraryMetrics metrics) {
+        this.metrics = metrics;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "library-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts exporting periodically. Subclasses call it once they are fully constructed.
+     *
+     * @param period time between two exports
+     * @param unit unit of the period
+     * @throws IllegalArgumentException If the period is not positive.
+     */
+    protected final void start(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period of export must be positive: " + period);
+        }
+        scheduler.scheduleAtFixedRate(this::exportNow, period, period, unit);
+    }
+
+    /**
+     * Exports the current state of the metrics right away, on the calling thread.
+     */
+    public void exportNow() {
+        export(metrics.snapshot());
+    }
+
+    /**
+     * Hands a snapshot to the destination of the exporter. Called by one thread at a time.
+     *
+     * @param snapshot snapshot to export
+     */
+    protected abstract void export(MetricsSnapshot snapshot);
+
+    /**
+     * Stops the periodic export and exports the final state of the metrics.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exportNow();
+    }
+}
@@ -0,0 +1,136 @@
+package pl.pz1.problem.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable copy of {@link LibraryMetrics} taken at one moment.
+ * Two snapshots of the same metrics give the throughput of the time between them.
+ */
+public class MetricsSnapshot {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long uptimeNanos;
+    private final RoleSnapshot readers;
+    private final RoleSnapshot writers;
+    private final HistogramSnapshot occupancy;
+    private final HistogramSnapshot queueDepth;
+
+    MetricsSnapshot(long uptimeNanos, RoleSnapshot readers, RoleSnapshot writers,
+                    HistogramSnapshot occupancy, HistogramSnapshot queueDepth) {
+        this.uptimeNanos = uptimeNanos;
+        this.readers = readers;
+        this.writers = writers;
+        this.occupancy = occupancy;
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Returns how long the metrics had been recording when the snapshot was taken.
+     *
+     * @return time since the metrics were created, in nanoseconds
+     */
+    public long getUptimeNanos() {
+        return uptimeNanos;
+    }
+
+    /**
+     * Returns the metrics of readers.
+     *
+     * @return metrics of readers
+     */
+    public RoleSnapshot getReaders() {
+        return readers;
+    }
+
+    /**
+     * Returns the metrics of writers.
+     *
+     * @return metrics of writers
+     */
+    public RoleSnapshot getWriters() {
+        return writers;
+    }
+
+    /**
+     * Returns the sampled amounts of occupied places.
+     *
+     * @return histogram of occupancy
+     */
+    public HistogramSnapshot getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Returns the sampled sizes of the queue.
+     *
+     * @return histogram of queue depth
+     */
+    public HistogramSnapshot getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Returns the average amount of admissions per second since the metrics were created.
+     *
+     * @return admissions of both roles per second
+     */
+    public double getThroughput() {
+        return uptimeNanos == 0 ? 0 : admitted() * NANOS_PER_SECOND / uptimeNanos;
+    }
+
+    /**
+     * Returns the average amount of admissions per second between an earlier snapshot and this one.
+     *
+     * @param earlier snapshot of the same metrics taken before this one
+     * @return admissions of both roles per second
+     */
+    public double getThroughputSince(MetricsSnapshot earlier) {
+        long elapsed = uptimeNanos - earlier.uptimeNanos;
+        return elapsed <= 0 ? 0 : (admitted() - earlier.admitted()) * NANOS_PER_SECOND / elapsed;
+    }
+
+    /**
+     * Describes the snapshot in a single line of {@code name=value} pairs, times in microseconds.
+     *
+     * @return line describing the snapshot
+     */
+    public String format() {
+        StringBuilder line = new StringBuilder();
+        line.append("uptime_ms=").append(TimeUnit.NANOSECONDS.toMillis(uptimeNanos));
+        line.append(String.format(Locale.ROOT, " throughput=%.1f", getThroughput()));
+        appendRole(line, "readers", readers);
+        appendRole(line, "writers", writers);
+        appendValues(line, "occupancy", occupancy);
+        appendValues(line, "queue", queueDepth);
+        return line.toString();
+    }
+
+    private long admitted() {
+        return readers.getAdmitted() + writers.getAdmitted();
+    }
+
+    private static void appendRole(StringBuilder line, String name, RoleSnapshot role) {
+        line.append(' ').append(name).append(".admitted=").append(role.getAdmitted());
+        line.append(' ').append(name).append(".released=").append(role.getReleased());
+        line.append(' ').append(name).append(".cancelled=").append(role.getCancelled());
+        line.append(' ').append(name).append(".timed_out=").append(role.getTimedOut());
+        appendTimes(line, name + ".wait", role.getWaitTimes());
+        appendTimes(line, name + ".hold", role.getHoldTimes());
+    }
+
+    private static void appendTimes(StringBuilder line, String name, HistogramSnapshot times) {
+        line.append(' ').append(name).append(".p50_us=").append(micros(times.getValueAtPercentile(50)));
+        line.append(' ').append(name).append(".p99_us=").append(micros(times.getValueAtPercentile(99)));
+        line.append(' ').append(name).append(".max_us=").append(micros(times.getMax()));
+    }
+
+    private static void appendValues(StringBuilder line, String name, HistogramSnapshot values) {
+        line.append(String.format(Locale.ROOT, " %s.mean=%.2f", name, values.getMean()));
+        line.append(' ').append(name).append(".max=").append(values.getMax());
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
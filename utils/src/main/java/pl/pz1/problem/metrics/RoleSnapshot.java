@@ -0,0 +1,77 @@
+package pl.pz1.problem.metrics;
+
+/**
+ * Immutable metrics of either readers or writers of a library, part of a {@link MetricsSnapshot}.
+ */
+public class RoleSnapshot {
+    private final long admitted;
+    private final long released;
+    private final long cancelled;
+    private final long timedOut;
+    private final HistogramSnapshot waitTimes;
+    private final HistogramSnapshot holdTimes;
+
+    RoleSnapshot(long admitted, long released, long cancelled, long timedOut,
+                 HistogramSnapshot waitTimes, HistogramSnapshot holdTimes) {
+        this.admitted = admitted;
+        this.released = released;
+        this.cancelled = cancelled;
+        this.timedOut = timedOut;
+        this.waitTimes = waitTimes;
+        this.holdTimes = holdTimes;
+    }
+
+    /**
+     * Returns how many participants of the role were admitted.
+     *
+     * @return amount of admissions
+     */
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * Returns how many participants of the role left the library.
+     *
+     * @return amount of releases
+     */
+    public long getReleased() {
+        return released;
+    }
+
+    /**
+     * Returns how many waiting participants of the role were interrupted and gave up.
+     *
+     * @return amount of cancellations
+     */
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns how many participants of the role were not admitted in the time they were ready to wait.
+     *
+     * @return amount of timeouts
+     */
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Returns the times participants of the role spent in the queue before being admitted.
+     *
+     * @return histogram of waiting times, in nanoseconds
+     */
+    public HistogramSnapshot getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Returns the times participants of the role spent inside the library.
+     *
+     * @return histogram of holding times, in nanoseconds
+     */
+    public HistogramSnapshot getHoldTimes() {
+        return holdTimes;
+    }
+}
@@ -0,0 +1,72 @@
+package pl.pz1.problem.metrics;
+
+import pl.pz1.problem.queue.PriorityClass;
+
+/**
+ * Immutable waiting times of one class of service of a library, with the misses of its objective.
+ */
+public class ServiceLevelSnapshot {
+    private final PriorityClass priority;
+    private final HistogramSnapshot waitTimes;
+    private final HistogramSnapshot lateness;
+
+    ServiceLevelSnapshot(PriorityClass priority, HistogramSnapshot waitTimes, HistogramSnapshot lateness) {
+        this.priority = priority;
+        this.waitTimes = waitTimes;
+        this.lateness = lateness;
+    }
+
+    /**
+     * Returns the class of service.
+     *
+     * @return class of service
+     */
+    public PriorityClass getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns how many waiters of the class were admitted.
+     *
+     * @return amount of admissions
+     */
+    public long getAdmitted() {
+        return waitTimes.getCount();
+    }
+
+    /**
+     * Returns how many waiters of the class were admitted after their deadline.
+     *
+     * @return amount of misses
+     */
+    public long getMissed() {
+        return lateness.getCount();
+    }
+
+    /**
+     * Returns the fraction of admitted waiters of the class which missed their deadline.
+     *
+     * @return fraction of misses, zero if nobody was admitted
+     */
+    public double getMissRatio() {
+        return waitTimes.getCount() == 0 ? 0 : (double) lateness.getCount() / waitTimes.getCount();
+    }
+
+    /**
+     * Returns the times waiters of the class spent in the queue.
+     *
+     * @return histogram of waiting times, in nanoseconds
+     */
+    public HistogramSnapshot getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Returns how late the waiters which missed their deadline were admitted.
+     *
+     * @return histogram of time past the deadline, in nanoseconds
+     */
+    public HistogramSnapshot getLateness() {
+        return lateness;
+    }
+}
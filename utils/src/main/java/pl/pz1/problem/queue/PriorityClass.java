@@ -0,0 +1,49 @@
+package pl.pz1.problem.queue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classes of service of those waiting for the library, each with its own objective of waiting time.
+ * A waiter of a class is due at its arrival plus the deadline of the class, which is what an
+ * {@link pl.pz1.problem.fairness.EarliestDeadlinePolicy} orders by and what misses of the objective are counted
+ * against in {@link pl.pz1.problem.metrics.LibraryMetrics}.
+ */
+public enum PriorityClass {
+    /**
+     * Latency-critical requests, due within a millisecond.
+     */
+    CRITICAL(TimeUnit.MILLISECONDS.toNanos(1)),
+    /**
+     * Ordinary requests, due within ten milliseconds; the class of every waiter which does not name one.
+     */
+    NORMAL(TimeUnit.MILLISECONDS.toNanos(10)),
+    /**
+     * Batch jobs, due within a hundred milliseconds.
+     */
+    BATCH(TimeUnit.MILLISECONDS.toNanos(100));
+
+    private final long deadlineNanos;
+
+    PriorityClass(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns how long a waiter of the class may wait without missing its objective.
+     *
+     * @return relative deadline, in nanoseconds
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Returns when a waiter of the class arriving at the given time is due.
+     *
+     * @param arrivedAt value of {@link System#nanoTime()} at arrival
+     * @return absolute deadline, comparable with {@link System#nanoTime()}
+     */
+    public long deadline(long arrivedAt) {
+        return arrivedAt + deadlineNanos;
+    }
+}
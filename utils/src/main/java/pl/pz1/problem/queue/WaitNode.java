@@ -0,0 +1,205 @@
+package pl.pz1.problem.queue;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Entry of a {@link WaitQueue}, created by the thread which waits for admission to the library.
+ * The node links itself into the queue, so it can be unlinked in constant time when its owner gives up waiting.
+ * Besides the order of arrival it is linked with the other waiters of its role, so the first reader
+ * or the first writer is found without scanning the queue.
+ * A node may instead carry a callback, for a participant which does not wait on any thread
+ * and is told about its admission by whoever admits it.
+ * A reader may take more than one place of the library, according to its weight.
+ * Every node belongs to a {@link PriorityClass}, which sets its deadline.
+ * An owner which blocks under a lock may give its node a condition of its own, so whoever admits it
+ * wakes only this owner.
+ */
+public class WaitNode {
+    private final Identifier identifier;
+    private final boolean writer;
+    private final int weight;
+    private final PriorityClass priority;
+    private final long deadline;
+    private final Thread thread;
+    private final long enqueuedAt;
+    private final Runnable onAdmitted;
+    private volatile boolean admitted;
+    private Condition admission;
+
+    WaitNode prev;
+    WaitNode next;
+    WaitNode prevOfRole;
+    WaitNode nextOfRole;
+    WaitQueue queue;
+
+    /**
+     * Constructs a WaitNode owned by the calling thread.
+     *
+     * @param identifier who waits
+     * @param writer true if the participant wants to write, false if to read
+     */
+    public WaitNode(Identifier identifier, boolean writer) {
+        this(identifier, writer, null);
+    }
+
+    /**
+     * Constructs a WaitNode whose admission runs the given callback instead of waking a waiting thread.
+     *
+     * @param identifier who waits
+     * @param writer true if the participant wants to write, false if to read
+     * @param onAdmitted callback run on admission, or null if the creating thread waits itself
+     */
+    public WaitNode(Identifier identifier, boolean writer, Runnable onAdmitted) {
+        this(identifier, writer, 1, onAdmitted);
+    }
+
+    /**
+     * Constructs a WaitNode of a participant taking the given number of places.
+     *
+     * @param identifier who waits
+     * @param writer true if the participant wants to write, false if to read
+     * @param weight how many places a reader takes; a writer takes all of them regardless
+     * @param onAdmitted callback run on admission, or null if the creating thread waits itself
+     */
+    public WaitNode(Identifier identifier, boolean writer, int weight, Runnable onAdmitted) {
+        this(identifier, writer, weight, PriorityClass.NORMAL, onAdmitted);
+    }
+
+    /**
+     * Constructs a WaitNode of a participant of the given class of service.
+     *
+     * @param identifier who waits
+     * @param writer true if the participant wants to write, false if to read
+     * @param weight how many places a reader takes; a writer takes all of them regardless
+     * @param priority class of service, which sets the deadline
+     * @param onAdmitted callback run on admission, or null if the creating thread waits itself
+     */
+    public WaitNode(Identifier identifier, boolean writer, int weight, PriorityClass priority, Runnable onAdmitted) {
+        this.identifier = identifier;
+        this.writer = writer;
+        this.weight = weight;
+        this.priority = priority;
+        this.thread = Thread.currentThread();
+        this.enqueuedAt = System.nanoTime();
+        this.deadline = priority.deadline(enqueuedAt);
+        this.onAdmitted = onAdmitted;
+    }
+
+    /**
+     * Returns who waits.
+     *
+     * @return identifier of the participant
+     */
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Tells if the participant wants to write.
+     *
+     * @return true for a writer, false for a reader
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Returns how many places the participant takes if it reads.
+     *
+     * @return weight of the participant
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the class of service of the participant.
+     *
+     * @return class of service
+     */
+    public PriorityClass getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns when the participant is due to be admitted.
+     *
+     * @return absolute deadline, comparable with {@link System#nanoTime()}
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Returns the thread which created the node and waits on it.
+     *
+     * @return owning thread
+     */
+    public Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns the callback run on admission.
+     *
+     * @return callback, or null if the creating thread waits itself
+     */
+    public Runnable getOnAdmitted() {
+        return onAdmitted;
+    }
+
+    /**
+     * Returns when the node was created, which is when its owner started waiting.
+     *
+     * @return value of {@link System#nanoTime()} at creation
+     */
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    /**
+     * Returns the condition the owner awaits its admission on.
+     *
+     * @return condition of the owner, or null if it does not block on one
+     */
+    public Condition getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Sets the condition the owner awaits its admission on. The condition is set and signalled only while
+     * holding the lock it belongs to.
+     *
+     * @param admission condition of the owner
+     */
+    public void setAdmission(Condition admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * Tells if the node was already admitted by some other thread on behalf of its owner.
+     *
+     * @return true if admitted
+     */
+    public boolean isAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * Marks the node as admitted. The owner sees it without taking any lock.
+     */
+    public void markAdmitted() {
+        admitted = true;
+    }
+
+    /**
+     * Tells if the node is currently linked into a queue.
+     *
+     * @return true if queued
+     */
+    public boolean isQueued() {
+        return queue != null;
+    }
+}
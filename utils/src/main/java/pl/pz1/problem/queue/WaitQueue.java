@@ -0,0 +1,238 @@
+package pl.pz1.problem.queue;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.*;
+
+/**
+ * FIFO queue of {@link WaitNode} objects linked through the nodes themselves.
+ * Adding, polling and removing an arbitrary node all take constant time.
+ * The queue is not thread-safe, engines guard it with their own lock.
+ */
+public class WaitQueue implements Iterable<WaitNode> {
+    private WaitNode head;
+    private WaitNode tail;
+    private int size;
+    private final WaitNode[] headOfRole = new WaitNode[2];
+    private final WaitNode[] tailOfRole = new WaitNode[2];
+    private final int[] sizeOfRole = new int[2];
+
+    /**
+     * Appends a node at the end of the queue.
+     *
+     * @param node node which is not queued yet
+     * @throws IllegalStateException If the node is already in some queue.
+     */
+    public void add(WaitNode node) {
+        if (node.queue != null) {
+            throw new IllegalStateException("Node is already queued");
+        }
+        node.queue = this;
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        }
+        else {
+            tail.next = node;
+        }
+        tail = node;
+        size++;
+
+        int role = role(node);
+        node.prevOfRole = tailOfRole[role];
+        node.nextOfRole = null;
+        if (tailOfRole[role] == null) {
+            headOfRole[role] = node;
+        }
+        else {
+            tailOfRole[role].nextOfRole = node;
+        }
+        tailOfRole[role] = node;
+        sizeOfRole[role]++;
+    }
+
+    /**
+     * Returns the head of the queue without removing it.
+     *
+     * @return the first node, or null if the queue is empty
+     */
+    public WaitNode peek() {
+        return head;
+    }
+
+    /**
+     * Removes and returns the head of the queue.
+     *
+     * @return the first node, or null if the queue is empty
+     */
+    public WaitNode poll() {
+        WaitNode node = head;
+        if (node != null) {
+            unlink(node);
+        }
+        return node;
+    }
+
+    /**
+     * Removes a node from wherever it is in the queue.
+     *
+     * @param node node to remove
+     * @return true if the node was in this queue
+     */
+    public boolean remove(WaitNode node) {
+        if (node.queue != this) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    private void unlink(WaitNode node) {
+        if (node.prev == null) {
+            head = node.next;
+        }
+        else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        }
+        else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.queue = null;
+        size--;
+
+        int role = role(node);
+        if (node.prevOfRole == null) {
+            headOfRole[role] = node.nextOfRole;
+        }
+        else {
+            node.prevOfRole.nextOfRole = node.nextOfRole;
+        }
+        if (node.nextOfRole == null) {
+            tailOfRole[role] = node.prevOfRole;
+        }
+        else {
+            node.nextOfRole.prevOfRole = node.prevOfRole;
+        }
+        node.prevOfRole = null;
+        node.nextOfRole = null;
+        sizeOfRole[role]--;
+    }
+
+    private static int role(WaitNode node) {
+        return node.isWriter() ? 1 : 0;
+    }
+
+    /**
+     * Returns the reader which waits the longest, wherever it is in the queue.
+     *
+     * @return the first queued reader, or null if no reader waits
+     */
+    public WaitNode firstReader() {
+        return headOfRole[0];
+    }
+
+    /**
+     * Returns the writer which waits the longest, wherever it is in the queue.
+     *
+     * @return the first queued writer, or null if no writer waits
+     */
+    public WaitNode firstWriter() {
+        return headOfRole[1];
+    }
+
+    /**
+     * Returns the reader which arrived last.
+     *
+     * @return the last queued reader, or null if no reader waits
+     */
+    public WaitNode lastReader() {
+        return tailOfRole[0];
+    }
+
+    /**
+     * Returns the node of the same role queued right before the given one.
+     *
+     * @param node a queued node
+     * @return the previous node of its role, or null if it is the first of its role
+     */
+    public WaitNode previousOfRole(WaitNode node) {
+        return node.queue == this ? node.prevOfRole : null;
+    }
+
+    /**
+     * Returns the number of queued readers.
+     *
+     * @return readers waiting
+     */
+    public int readers() {
+        return sizeOfRole[0];
+    }
+
+    /**
+     * Returns the number of queued writers.
+     *
+     * @return writers waiting
+     */
+    public int writers() {
+        return sizeOfRole[1];
+    }
+
+    /**
+     * Returns the number of queued nodes.
+     *
+     * @return size of the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells if nobody waits.
+     *
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Lists identifiers of those waiting, in their order. Meant for describing the library.
+     *
+     * @return identifiers from head to tail
+     */
+    public List<Identifier> identifiers() {
+        List<Identifier> identifiers = new ArrayList<>(size);
+        for (WaitNode node = head; node != null; node = node.next) {
+            identifiers.add(node.getIdentifier());
+        }
+        return identifiers;
+    }
+
+    @Override
+    public Iterator<WaitNode> iterator() {
+        return new Iterator<>() {
+            private WaitNode next = head;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public WaitNode next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                WaitNode current = next;
+                next = current.next;
+                return current;
+            }
+        };
+    }
+}
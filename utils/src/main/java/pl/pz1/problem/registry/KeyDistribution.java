@@ -0,0 +1,18 @@
+package pl.pz1.problem.registry;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Popularity of the keys of a {@link LibraryRegistry}: how likely each key is to be chosen for the next visit.
+ * Keys are numbered from 0, implementations keep no state depending on the caller and may be shared.
+ */
+@FunctionalInterface
+public interface KeyDistribution {
+    /**
+     * Chooses a key.
+     *
+     * @param random generator of the calling participant
+     * @return key between 0 and the number of keys, excluded
+     */
+    int nextKey(RandomGenerator random);
+}
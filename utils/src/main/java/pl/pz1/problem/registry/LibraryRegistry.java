@@ -0,0 +1,329 @@
+package pl.pz1.problem.registry;
+
+import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Guards many independent resources, each by a library of its own, with the same semantics as a single library.
+ * Libraries are created lazily on the first use of their key and kept in a concurrent map, so participants of
+ * different keys never contend with each other. A library is pinned from the moment somebody starts waiting for it
+ * until that participant leaves it, and only unpinned libraries can be evicted.
+ * Whenever more than the allowed number of libraries exist, a library is evicted as soon as its last participant
+ * leaves, so the memory held stays bounded by that number plus the number of keys in use at the same time.
+ *
+ * @param <K> type of the keys of resources
+ */
+public class LibraryRegistry<K> {
+    private final ConcurrentHashMap<K, Entry> libraries = new ConcurrentHashMap<>();
+    private final Supplier<? extends LibraryEngine> factory;
+    private final int maxLibraries;
+
+    /**
+     * Constructs a LibraryRegistry of {@link Library} instances emitting no events.
+     *
+     * @param capacity The maximum number of readers of a single resource allowed at the same time.
+     * @param maxLibraries how many libraries may be kept when nobody uses them
+     */
+    public LibraryRegistry(int capacity, int maxLibraries) {
+        this(() -> new Library(capacity, NoOpEventSink.INSTANCE), maxLibraries);
+    }
+
+    /**
+     * Constructs a LibraryRegistry of libraries created by the given factory.
+     *
+     * @param factory creates the library of a key on its first use
+     * @param maxLibraries how many libraries may be kept when nobody uses them
+     * @throws IllegalArgumentException If maxLibraries is negative.
+     */
+    public LibraryRegistry(Supplier<? extends LibraryEngine> factory, int maxLibraries) {
+        if (maxLibraries < 0) {
+            throw new IllegalArgumentException("Maximum number of libraries must not be negative: " + maxLibraries);
+        }
+        this.factory = factory;
+        this.maxLibraries = maxLibraries;
+    }
+
+    /**
+     * Returns the library guarding the resource of a key. The returned view creates the library when somebody
+     * starts waiting for it and lets the registry evict it after the last participant leaves,
+     * so it may be kept and used for any number of visits.
+     * As with readers and writers, stopping must follow a successful start on the same key.
+     *
+     * @param key key of the resource
+     * @return library of the key
+     */
+    public LibraryEngine get(K key) {
+        return new KeyedLibrary(key);
+    }
+
+    /**
+     * Evicts every library nobody uses at the moment.
+     *
+     * @return how many libraries were evicted
+     */
+    public int evictIdle() {
+        int evicted = 0;
+        for (K key : libraries.keySet()) {
+            if (evictIfIdle(key)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns how many libraries exist at the moment.
+     *
+     * @return amount of libraries
+     */
+    public int size() {
+        return libraries.size();
+    }
+
+    /**
+     * Tells if the library of a key exists at the moment.
+     *
+     * @param key key of the resource
+     * @return true if the library exists
+     */
+    @TestOnly
+    public boolean contains(K key) {
+        return libraries.containsKey(key);
+    }
+
+    /**
+     * Finds or creates the library of a key and pins it, atomically with respect to eviction.
+     *
+     * @param key key of the resource
+     * @return entry of the library of the key
+     */
+    private Entry pin(K key) {
+        return libraries.compute(key, (k, entry) -> {
+            Entry pinned = entry == null ? new Entry(factory.get()) : entry;
+            pinned.users++;
+            return pinned;
+        });
+    }
+
+    /**
+     * Unpins the library of a key and evicts it if nobody else uses it and there are too many libraries.
+     *
+     * @param key key of the resource
+     */
+    private void unpin(K key) {
+        libraries.computeIfPresent(key, (k, entry) -> {
+            if (entry.users > 0) {
+                entry.users--;
+            }
+            return entry;
+        });
+        if (libraries.size() > maxLibraries) {
+            evictIfIdle(key);
+        }
+    }
+
+    private boolean evictIfIdle(K key) {
+        boolean[] evicted = new boolean[1];
+        libraries.computeIfPresent(key, (k, entry) -> {
+            evicted[0] = entry.users == 0;
+            return evicted[0] ? null : entry;
+        });
+        return evicted[0];
+    }
+
+    /**
+     * Library of a key together with the number of participants waiting for it or inside it.
+     * The number is changed only inside atomic operations of the map on its key. Those inside are recorded
+     * with their roles, so a stop by somebody who is not inside is ignored and does not drop another one's pin.
+     */
+    private static class Entry {
+        private final LibraryEngine library;
+        private final Map<Identifier, Boolean> inside = new ConcurrentHashMap<>();
+        private int users;
+
+        private Entry(LibraryEngine library) {
+            this.library = library;
+        }
+    }
+
+    /**
+     * View of the library of a single key, pinning it for the duration of every visit.
+     */
+    private class KeyedLibrary implements LibraryEngine {
+        private final K key;
+
+        private KeyedLibrary(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void startWriting(Identifier identifier) throws InterruptedException {
+            Entry entry = pin(key);
+            boolean entered = false;
+            try {
+                entry.library.startWriting(identifier);
+                entered = true;
+            }
+            finally {
+                admittedOrUnpinned(entry, identifier, true, entered);
+            }
+        }
+
+        @Override
+        public boolean tryStartWriting(Identifier identifier) {
+            Entry entry = pin(key);
+            return admittedOrUnpinned(entry, identifier, true, entry.library.tryStartWriting(identifier));
+        }
+
+        @Override
+        public boolean tryStartWriting(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+            Entry entry = pin(key);
+            boolean entered = false;
+            try {
+                entered = entry.library.tryStartWriting(identifier, timeout, unit);
+                return entered;
+            }
+            finally {
+                admittedOrUnpinned(entry, identifier, true, entered);
+            }
+        }
+
+        @Override
+        public void stopWriting(Identifier identifier) {
+            Entry entry = libraries.get(key);
+            if (entry != null && entry.inside.remove(identifier, Boolean.TRUE)) {
+                entry.library.stopWriting(identifier);
+                unpin(key);
+            }
+        }
+
+        @Override
+        public void startReading(Identifier identifier) throws InterruptedException {
+            Entry entry = pin(key);
+            boolean entered = false;
+            try {
+                entry.library.startReading(identifier);
+                entered = true;
+            }
+            finally {
+                admittedOrUnpinned(entry, identifier, false, entered);
+            }
+        }
+
+        @Override
+        public boolean tryStartReading(Identifier identifier) {
+            Entry entry = pin(key);
+            return admittedOrUnpinned(entry, identifier, false, entry.library.tryStartReading(identifier));
+        }
+
+        @Override
+        public boolean tryStartReading(Identifier identifier, long timeout, TimeUnit unit) throws InterruptedException {
+            Entry entry = pin(key);
+            boolean entered = false;
+            try {
+                entered = entry.library.tryStartReading(identifier, timeout, unit);
+                return entered;
+            }
+            finally {
+                admittedOrUnpinned(entry, identifier, false, entered);
+            }
+        }
+
+        @Override
+        public void stopReading(Identifier identifier) {
+            Entry entry = libraries.get(key);
+            if (entry != null && entry.inside.remove(identifier, Boolean.FALSE)) {
+                entry.library.stopReading(identifier);
+                unpin(key);
+            }
+        }
+
+        @Override
+        public boolean startReadingAsync(Identifier identifier, Runnable onAdmitted) {
+            Entry entry = pin(key);
+            boolean queued = entry.library.startReadingAsync(identifier, () -> {
+                entry.inside.put(identifier, Boolean.FALSE);
+                onAdmitted.run();
+            });
+            if (!queued) {
+                unpin(key);
+            }
+            return queued;
+        }
+
+        @Override
+        public boolean startWritingAsync(Identifier identifier, Runnable onAdmitted) {
+            Entry entry = pin(key);
+            boolean queued = entry.library.startWritingAsync(identifier, () -> {
+                entry.inside.put(identifier, Boolean.TRUE);
+                onAdmitted.run();
+            });
+            if (!queued) {
+                unpin(key);
+            }
+            return queued;
+        }
+
+        @Override
+        public boolean pollReading(Identifier identifier) {
+            Entry entry = pin(key);
+            return admittedOrUnpinned(entry, identifier, false, entry.library.pollReading(identifier));
+        }
+
+        @Override
+        public boolean pollWriting(Identifier identifier) {
+            Entry entry = pin(key);
+            return admittedOrUnpinned(entry, identifier, true, entry.library.pollWriting(identifier));
+        }
+
+        /**
+         * Records a participant which got in, so only its own stop unpins the library,
+         * or unpins the library right away if it did not get in.
+         *
+         * @param entry the pinned library
+         * @param identifier The unique ID of the participant.
+         * @param writer true for a writer, false for a reader
+         * @param admitted true if the participant got in
+         * @return admitted
+         */
+        private boolean admittedOrUnpinned(Entry entry, Identifier identifier, boolean writer, boolean admitted) {
+            if (admitted) {
+                entry.inside.put(identifier, writer);
+            }
+            else {
+                unpin(key);
+            }
+            return admitted;
+        }
+
+        @TestOnly
+        @Override
+        public int getOccupiedPlacesAmount() {
+            Entry entry = libraries.get(key);
+            return entry == null ? 0 : entry.library.getOccupiedPlacesAmount();
+        }
+
+        @TestOnly
+        @Override
+        public int getQueueSize() {
+            Entry entry = libraries.get(key);
+            return entry == null ? 0 : entry.library.getQueueSize();
+        }
+
+        @TestOnly
+        @Override
+        public boolean isInside(Identifier identifier) {
+            Entry entry = libraries.get(key);
+            return entry != null && entry.library.isInside(identifier);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package pl.pz1.problem.registry;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Every key is equally popular, so contention spreads evenly over the libraries.
+ */
+public class UniformKeyDistribution implements KeyDistribution {
+    private final int keys;
+
+    /**
+     * Constructs a UniformKeyDistribution.
+     *
+     * @param keys number of keys
+     * @throws IllegalArgumentException If the number of keys is not positive.
+     */
+    public UniformKeyDistribution(int keys) {
+        if (keys < 1) {
+            throw new IllegalArgumentException("Number of keys must be positive: " + keys);
+        }
+        this.keys = keys;
+    }
+
+    @Override
+    public int nextKey(RandomGenerator random) {
+        return random.nextInt(keys);
+    }
+}
@@ -0,0 +1,43 @@
+package pl.pz1.problem.registry;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipf popularity of keys: the key of rank k, counted from 1, is chosen with probability proportional to 1/k^s.
+ * A few hot keys get most of the visits while the long tail is rarely touched, as with real records.
+ * The cumulative probabilities are computed once, so choosing a key is a binary search over them.
+ */
+public class ZipfKeyDistribution implements KeyDistribution {
+    private final double[] cumulative;
+
+    /**
+     * Constructs a ZipfKeyDistribution.
+     *
+     * @param keys number of keys, key 0 being the most popular
+     * @param exponent skew s of the popularity, 0 meaning uniform
+     * @throws IllegalArgumentException If the number of keys is not positive or the exponent is negative.
+     */
+    public ZipfKeyDistribution(int keys, double exponent) {
+        if (keys < 1 || !(exponent >= 0)) {
+            throw new IllegalArgumentException("Number of keys must be positive and exponent not negative: "
+                    + keys + ", " + exponent);
+        }
+        cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < keys; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    @Override
+    public int nextKey(RandomGenerator random) {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        int key = found >= 0 ? found : -found - 1;
+        return Math.min(key, cumulative.length - 1);
+    }
+}
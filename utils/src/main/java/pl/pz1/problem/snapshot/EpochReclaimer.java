@@ -0,0 +1,216 @@
+package pl.pz1.problem.snapshot;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Epoch-based reclamation of versions replaced while readers may still be using them.
+ * Readers pin the current epoch before taking a version and unpin it after they are done, by counting themselves
+ * in per-core stripes of one of two counters, chosen by the parity of the epoch. A replaced version is retired
+ * with the epoch it was replaced in, and the epoch only moves on once no reader is pinned to the epoch before it.
+ * So once the epoch has moved on twice since a version was retired, every reader which could have taken it
+ * has left, and the version is handed to the reclaimer to be recycled or released.
+ * Readers never wait and never touch a lock; retiring and reclaiming take a lock among writers only.
+ *
+ * @param <T> type of the versions
+ */
+public class EpochReclaimer<T> {
+    /**
+     * Distance between two stripes in the counters array, 16 longs keep every stripe on its own 128 bytes,
+     * which also protects it from the adjacent line prefetch.
+     */
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray readers;
+    private final int stripes;
+    private final AtomicLong epoch = new AtomicLong();
+    private final Consumer<? super T> reclaimer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<Retired<T>> retired = new ArrayDeque<>();
+    private long reclaimed = 0;
+
+    /**
+     * Constructs an EpochReclaimer.
+     *
+     * @param stripes number of stripes of each counter of readers, rounded up to a power of two
+     * @param reclaimer what is done with a version once no reader can use it any more
+     * @throws IllegalArgumentException If the number of stripes is not positive.
+     */
+    public EpochReclaimer(int stripes, Consumer<? super T> reclaimer) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Number of stripes must be positive: " + stripes);
+        }
+        int rounded = 1;
+        while (rounded < stripes) {
+            rounded <<= 1;
+        }
+        this.stripes = rounded;
+        this.readers = new AtomicLongArray(2 * this.stripes * PADDING);
+        this.reclaimer = reclaimer;
+    }
+
+    /**
+     * Pins the current epoch for a reader, which may then take the current version.
+     *
+     * @return the slot the reader is counted in, to be given back to {@link #unpin(int)}
+     */
+    public int pin() {
+        int slot = ((int) (epoch.get() & 1) * stripes + stripe()) * PADDING;
+        readers.getAndIncrement(slot);
+        return slot;
+    }
+
+    /**
+     * Unpins the epoch of a reader which no longer uses its version. Any thread may unpin.
+     *
+     * @param slot the slot returned by {@link #pin()}
+     */
+    public void unpin(int slot) {
+        readers.getAndDecrement(slot);
+    }
+
+    /**
+     * Retires a version which was just replaced, so no new reader can take it, and reclaims every version
+     * no reader can use any more.
+     *
+     * @param version the replaced version
+     */
+    public void retire(T version) {
+        lock.lock();
+        try {
+            retired.add(new Retired<>(version, epoch.get()));
+            reclaimRetired();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the epoch on as far as the readers let it and reclaims every version no reader can use any more.
+     *
+     * @return how many versions were reclaimed
+     */
+    public int reclaim() {
+        lock.lock();
+        try {
+            return reclaimRetired();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Does the work of {@link #reclaim()}. Must be called while holding the lock.
+     *
+     * @return how many versions were reclaimed
+     */
+    private int reclaimRetired() {
+        for (int i = 0; i < 2 && pinned((int) ((epoch.get() + 1) & 1)) == 0; i++) {
+            epoch.incrementAndGet();
+        }
+        int count = 0;
+        long current = epoch.get();
+        while (!retired.isEmpty() && retired.peek().epoch + 2 <= current) {
+            reclaimer.accept(retired.poll().version);
+            count++;
+        }
+        reclaimed += count;
+        return count;
+    }
+
+    /**
+     * Counts the readers pinned to epochs of the given parity.
+     * Every stripe is read separately, but as no stripe ever goes below zero, the sum is zero only if
+     * every stripe was empty when read.
+     *
+     * @param parity parity of the epochs
+     * @return amount of pinned readers
+     */
+    private long pinned(int parity) {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += readers.get((parity * stripes + i) * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Picks the stripe of the calling thread.
+     *
+     * @return index of the stripe
+     */
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes - 1);
+    }
+
+    /**
+     * Returns the current epoch.
+     *
+     * @return epoch, starting from zero
+     */
+    public long getEpoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns how many readers are pinned right now.
+     *
+     * @return amount of pinned readers
+     */
+    public long getPinnedCount() {
+        return pinned(0) + pinned(1);
+    }
+
+    /**
+     * Returns how many retired versions are still waiting for their readers to leave.
+     *
+     * @return amount of versions awaiting reclamation
+     */
+    public int getRetiredCount() {
+        lock.lock();
+        try {
+            return retired.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many versions were reclaimed so far.
+     *
+     * @return amount of reclaimed versions
+     */
+    public long getReclaimedCount() {
+        lock.lock();
+        try {
+            return reclaimed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Version retired in a given epoch.
+     *
+     * @param <T> type of the version
+     */
+    private static class Retired<T> {
+        private final T version;
+        private final long epoch;
+
+        Retired(T version, long epoch) {
+            this.version = version;
+            this.epoch = epoch;
+        }
+    }
+}
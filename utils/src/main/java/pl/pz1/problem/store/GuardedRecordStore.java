@@ -0,0 +1,85 @@
+package pl.pz1.problem.store;
+
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link RecordStore} guarded by a library: readers get read-only views of records while inside as readers,
+ * together with other readers, and writers change records in place while inside alone.
+ * Views are lent only for the duration of the call and must not escape it.
+ */
+public class GuardedRecordStore {
+    private final LibraryEngine library;
+    private final RecordStore store;
+
+    /**
+     * Constructs a GuardedRecordStore. Nobody else may use the store without entering the library.
+     *
+     * @param library library guarding the store
+     * @param store the guarded records
+     */
+    public GuardedRecordStore(LibraryEngine library, RecordStore store) {
+        this.library = library;
+        this.store = store;
+    }
+
+    /**
+     * Enters the library as a reader and reads consecutive records through a read-only view sharing memory
+     * with the file.
+     *
+     * @param identifier The unique ID of the reader.
+     * @param record index of the first record
+     * @param count number of records
+     * @param read the read, given a view positioned at the first record
+     * @param <T> type of what is read
+     * @return result of the read
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     * @throws IndexOutOfBoundsException If the records are not all in the store.
+     */
+    public <T> T read(Identifier identifier, int record, int count, Function<ByteBuffer, T> read)
+            throws InterruptedException {
+        ByteBuffer view = store.readView(record, count);
+        library.startReading(identifier);
+        try {
+            return read.apply(view);
+        }
+        finally {
+            library.stopReading(identifier);
+        }
+    }
+
+    /**
+     * Enters the library as a writer and changes consecutive records in place through a writable view.
+     *
+     * @param identifier The unique ID of the writer.
+     * @param record index of the first record
+     * @param count number of records
+     * @param write the write, given a view positioned at the first record
+     * @throws InterruptedException If the thread is interrupted while waiting for access.
+     * @throws IndexOutOfBoundsException If the records are not all in the store.
+     */
+    public void write(Identifier identifier, int record, int count, Consumer<ByteBuffer> write)
+            throws InterruptedException {
+        ByteBuffer view = store.writeView(record, count);
+        library.startWriting(identifier);
+        try {
+            write.accept(view);
+        }
+        finally {
+            library.stopWriting(identifier);
+        }
+    }
+
+    /**
+     * Returns the guarded records.
+     *
+     * @return the store
+     */
+    public RecordStore getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,117 @@
+package pl.pz1.problem.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed number of fixed-size records kept in a file mapped into memory as a whole.
+ * Views of records are slices of the mapping, so reading and writing through them touches the page cache
+ * directly, without copying and without system calls. The store does no locking of its own: views may only be used
+ * while whoever guards the store admits the caller, e.g. inside a {@link GuardedRecordStore}.
+ * The file keeps its records between runs; a new file, or the part a larger store adds to one, reads as zeros.
+ */
+public class RecordStore implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer mapping;
+    private final int records;
+    private final int recordSize;
+
+    /**
+     * Constructs a RecordStore, creating or extending the file if it is too small.
+     *
+     * @param file file holding the records
+     * @param records number of records
+     * @param recordSize size of a single record, in bytes
+     * @throws IOException If the file cannot be opened or mapped.
+     * @throws IllegalArgumentException If the sizes are not positive or the store would exceed 2 GiB.
+     */
+    public RecordStore(Path file, int records, int recordSize) throws IOException {
+        if (records < 1 || recordSize < 1) {
+            throw new IllegalArgumentException("Store needs records of positive size: " + records + " x "
+                    + recordSize);
+        }
+        long size = (long) records * recordSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Store must not exceed 2 GiB: " + size);
+        }
+        this.records = records;
+        this.recordSize = recordSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Returns a read-only view of consecutive records, sharing memory with the file.
+     *
+     * @param record index of the first record
+     * @param count number of records
+     * @return view positioned at the first byte of the first record
+     * @throws IndexOutOfBoundsException If the records are not all in the store.
+     */
+    public ByteBuffer readView(int record, int count) {
+        return view(record, count).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a writable view of consecutive records, sharing memory with the file.
+     *
+     * @param record index of the first record
+     * @param count number of records
+     * @return view positioned at the first byte of the first record
+     * @throws IndexOutOfBoundsException If the records are not all in the store.
+     */
+    public ByteBuffer writeView(int record, int count) {
+        return view(record, count);
+    }
+
+    private ByteBuffer view(int record, int count) {
+        if (record < 0 || count < 1 || record > records - count) {
+            throw new IndexOutOfBoundsException("Records " + record + " to " + ((long) record + count - 1)
+                    + " are not in a store of " + records);
+        }
+        return mapping.slice(record * recordSize, count * recordSize);
+    }
+
+    /**
+     * Returns the number of records.
+     *
+     * @return number of records
+     */
+    public int getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the size of a single record.
+     *
+     * @return size of a record, in bytes
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Writes every change made through the views to the file.
+     */
+    public void force() {
+        mapping.force();
+    }
+
+    /**
+     * Writes every change to the file and closes it. The mapping itself is released only once it is
+     * garbage collected, so views must not be used any more.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        mapping.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,30 @@
+package pl.pz1.problem.visitors;
+
+import pl.pz1.problem.LibraryEngine;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Chooses the library a reader or writer visits next, e.g. the library of a key of
+ * a {@link pl.pz1.problem.registry.LibraryRegistry} drawn from the popularity of keys.
+ */
+@FunctionalInterface
+public interface LibrarySelector {
+    /**
+     * Chooses the library of the next visit. The participant leaves the same library it entered.
+     *
+     * @param random generator of the participant
+     * @return library to visit
+     */
+    LibraryEngine select(RandomGenerator random);
+
+    /**
+     * Creates a selector always choosing the same library, without drawing anything from the generator.
+     *
+     * @param library the shared Library engine
+     * @return selector of that single library
+     */
+    static LibrarySelector of(LibraryEngine library) {
+        return random -> library;
+    }
+}
@@ -1,79 +1,43 @@
 package pl.pz1.problem.visitors;
 
-import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
 
-import java.security.SecureRandom;
 import org.jetbrains.annotations.TestOnly;
-import pl.pz1.problem.visitors.identifier.Identifier;
-
-import static pl.pz1.problem.visitors.identifier.Identifier.READER;
 
 /**
  * Represents a Reader in the Readers and Writers problem.
  * Each reader attempts to read from the library and follows the constraints of shared access.
+ * The reader runs its {@link ReaderTask} on its own platform thread.
  */
 public class Reader extends Thread {
-    private static int counter = 0;
-
-    private final Library library;
-    private final Identifier readerIdentifier;
-    private final SecureRandom random;
-
-    /**
-     * Tracks if reader is currently in reading state or not.
-     * Used only for testing purposes to verify class behaviour.
-     */
-    private boolean isReading;
-
-    /**
-     * Tracks how many times reader has entered and then exited library.
-     * Used only for testing purposes to verify class behaviour.
-     */
-    private int fullEntriesCounter;
+    private final ReaderTask task;
 
     /**
      * Constructs a Reader with a reference to the shared Library.
      *
-     * @param library The shared Library instance.
+     * @param library The shared Library engine.
      */
-    public Reader(Library library) {
-        this.library = library;
-        counter++;
-        this.readerIdentifier = new Identifier(counter, READER);
-        isReading = false;
-        random = new SecureRandom();
-        fullEntriesCounter = 0;
+    public Reader(LibraryEngine library) {
+        this(new ReaderTask(library));
     }
 
     /**
-     * Simulates the behavior of the reader.
-     * The reader alternates between reading and resting, following synchronization rules.
+     * Constructs a Reader visiting the libraries chosen by the selector, drawing its times from the given source
+     * and distributing them according to the given workload.
+     *
+     * @param libraries The selector of the library of every visit.
+     * @param randomSource The source of the generator of this reader.
+     * @param workload The workload telling how long this reader stays inside and rests outside.
      */
-    @Override
-    public void run() {
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                library.startReading(this.readerIdentifier);
-                isReading = true;
-                sleep(random.nextInt(501) + (long)1000);
+    public Reader(LibrarySelector libraries, RandomSource randomSource, WorkloadProfile workload) {
+        this(new ReaderTask(libraries, randomSource, workload));
+    }
 
-                library.stopReading(this.readerIdentifier);
-                isReading = false;
-                fullEntriesCounter++;
-                sleep(random.nextInt(501) + (long)1000);
-            }
-            catch (InterruptedException e) {
-                System.out.println(e.getMessage());
-                Thread.currentThread().interrupt();
-            }
-            finally {
-                if (isReading) {
-                    library.stopReading(this.readerIdentifier);
-                    isReading = false;
-                }
-            }
-        }
-        System.out.println("Czytelnik " + readerIdentifier + " zakończył działanie!");
+    private Reader(ReaderTask task) {
+        super(task);
+        this.task = task;
     }
 
     /**
@@ -83,7 +47,7 @@ public class Reader extends Thread {
      */
     @TestOnly
     public boolean isReading() {
-        return isReading;
+        return task.isReading();
     }
 
     /**
@@ -93,7 +57,7 @@ public class Reader extends Thread {
      */
     @TestOnly
     public int getFullEntriesCounter() {
-        return fullEntriesCounter;
+        return task.getFullEntriesCounter();
     }
 
     /**
@@ -103,6 +67,6 @@ public class Reader extends Thread {
      */
     @TestOnly
     public int getIdNumber() {
-        return readerIdentifier.getId();
+        return task.getIdNumber();
     }
 }
@@ -0,0 +1,154 @@
+package pl.pz1.problem.visitors;
+
+import pl.pz1.problem.LibraryEngine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.jetbrains.annotations.TestOnly;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+import pl.pz1.problem.visitors.workload.WorkloadType;
+
+import static pl.pz1.problem.visitors.identifier.Identifier.READER;
+
+/**
+ * Behaviour of a Reader in the Readers and Writers problem, independent of the thread which runs it.
+ * It can be started on a platform thread, like {@link Reader} does, or on a virtual thread.
+ */
+public class ReaderTask implements Runnable {
+    private final LibrarySelector libraries;
+    private final Identifier readerIdentifier;
+    private final RandomGenerator random;
+    private final WorkloadProfile workload;
+
+    /**
+     * Tracks if reader is currently in reading state or not.
+     * Used only for testing purposes to verify class behaviour.
+     */
+    private volatile boolean isReading;
+
+    /**
+     * Tracks how many times reader has entered and then exited library.
+     * Used only for testing purposes to verify class behaviour.
+     */
+    private volatile int fullEntriesCounter;
+
+    /**
+     * Constructs a ReaderTask with a reference to the shared Library, drawing its times from a generator
+     * with a seed of its own.
+     *
+     * @param library The shared Library engine.
+     */
+    public ReaderTask(LibraryEngine library) {
+        this(library, SeededRandomSource.withRandomSeed());
+    }
+
+    /**
+     * Constructs a ReaderTask with a reference to the shared Library, drawing its times from the given source.
+     *
+     * @param library The shared Library engine.
+     * @param randomSource The source of the generator of this reader.
+     */
+    public ReaderTask(LibraryEngine library, RandomSource randomSource) {
+        this(LibrarySelector.of(library), randomSource, WorkloadType.UNIFORM.profile(false));
+    }
+
+    /**
+     * Constructs a ReaderTask visiting the libraries chosen by the selector, drawing its times from the given source
+     * and distributing them according to the given workload.
+     *
+     * @param libraries The selector of the library of every visit.
+     * @param randomSource The source of the generator of this reader.
+     * @param workload The workload telling how long this reader stays inside and rests outside.
+     */
+    public ReaderTask(LibrarySelector libraries, RandomSource randomSource, WorkloadProfile workload) {
+        this.libraries = libraries;
+        this.readerIdentifier = Identifier.next(READER);
+        isReading = false;
+        random = randomSource.forParticipant(readerIdentifier);
+        this.workload = workload;
+        fullEntriesCounter = 0;
+    }
+
+    /**
+     * Simulates the behavior of the reader.
+     * The reader alternates between reading and resting, following synchronization rules.
+     * Every visit goes to the library chosen by the selector at its start.
+     */
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LibraryEngine library = libraries.select(random);
+            try {
+                library.startReading(this.readerIdentifier);
+                isReading = true;
+                workload.visit(random);
+                sleep(workload.holdTime(random));
+
+                library.stopReading(this.readerIdentifier);
+                isReading = false;
+                fullEntriesCounter++;
+                sleep(workload.thinkTime(random));
+            }
+            catch (InterruptedException e) {
+                System.out.println(e.getMessage());
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                if (isReading) {
+                    library.stopReading(this.readerIdentifier);
+                    isReading = false;
+                }
+            }
+        }
+        System.out.println("Czytelnik " + readerIdentifier.getId() + " zakończył działanie!");
+    }
+
+    /**
+     * Sleeps for the given time. When the time is zero it only yields, so that participants sharing
+     * the carrier of their virtual threads still take turns instead of the first one running forever.
+     *
+     * @param nanos time to sleep, in nanoseconds
+     * @throws InterruptedException If the thread is interrupted while sleeping.
+     */
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+        else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Getter of attribute isReading
+     *
+     * @return attribute isReading
+     */
+    @TestOnly
+    public boolean isReading() {
+        return isReading;
+    }
+
+    /**
+     * Getter of attribute fullEntriesCounter
+     *
+     * @return attribute fullEntriesCounter
+     */
+    @TestOnly
+    public int getFullEntriesCounter() {
+        return fullEntriesCounter;
+    }
+
+    /**
+     * Method which allows to get readers ID number.
+     *
+     * @return readers ID number.
+     */
+    @TestOnly
+    public int getIdNumber() {
+        return readerIdentifier.getId();
+    }
+}
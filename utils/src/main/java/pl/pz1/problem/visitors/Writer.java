@@ -1,79 +1,43 @@
 package pl.pz1.problem.visitors;
 
-import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
 
-import java.security.SecureRandom;
 import org.jetbrains.annotations.TestOnly;
-import pl.pz1.problem.visitors.identifier.Identifier;
-
-import static pl.pz1.problem.visitors.identifier.Identifier.WRITER;
 
 /**
  * Represents a Writer in the Readers and Writers problem.
  * Each writer attempts to write to the library and follows the constraints of exclusive access.
+ * The writer runs its {@link WriterTask} on its own platform thread.
  */
 public class Writer extends Thread {
-    private static int counter = 0;
-
-    private final Library library;
-    private final Identifier writerIdentifier;
-    private final SecureRandom random;
-
-    /**
-     * Tracks if writer is currently in writing state or not.
-     * Used only for testing purposes to verify class behaviour.
-     */
-    private boolean isWriting;
-
-    /**
-     * Tracks how many times writer has entered and then exited library.
-     * Used only for testing purposes to verify class behaviour.
-     */
-    private int fullEntriesCounter;
+    private final WriterTask task;
 
     /**
      * Constructs a Writer with a reference to the shared Library.
      *
-     * @param library The shared Library instance.
+     * @param library The shared Library engine.
      */
-    public Writer(Library library) {
-        this.library = library;
-        counter++;
-        this.writerIdentifier = new Identifier(counter, WRITER);
-        isWriting = false;
-        random = new SecureRandom();
-        fullEntriesCounter = 0;
+    public Writer(LibraryEngine library) {
+        this(new WriterTask(library));
     }
 
     /**
-     * Simulates the behavior of the writer.
-     * The writer alternates between writing and resting, following synchronization rules.
+     * Constructs a Writer visiting the libraries chosen by the selector, drawing its times from the given source
+     * and distributing them according to the given workload.
+     *
+     * @param libraries The selector of the library of every visit.
+     * @param randomSource The source of the generator of this writer.
+     * @param workload The workload telling how long this writer stays inside and rests outside.
      */
-    @Override
-    public void run() {
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                library.startWriting(this.writerIdentifier);
-                isWriting = true;
-                sleep(random.nextInt(501) + (long)2000);
+    public Writer(LibrarySelector libraries, RandomSource randomSource, WorkloadProfile workload) {
+        this(new WriterTask(libraries, randomSource, workload));
+    }
 
-                library.stopWriting(this.writerIdentifier);
-                isWriting = false;
-                fullEntriesCounter++;
-                sleep(random.nextInt(501) + (long)2000);
-            }
-            catch (InterruptedException e) {
-                System.out.println(e.getMessage());
-                Thread.currentThread().interrupt();
-            }
-            finally {
-                if (isWriting) {
-                    library.stopWriting(this.writerIdentifier);
-                    isWriting = false;
-                }
-            }
-        }
-        System.out.println("Pisarz " + writerIdentifier + " zakończył działanie!");
+    private Writer(WriterTask task) {
+        super(task);
+        this.task = task;
     }
 
     /**
@@ -83,7 +47,7 @@ public class Writer extends Thread {
      */
     @TestOnly
     public boolean isWriting() {
-        return isWriting;
+        return task.isWriting();
     }
 
     /**
@@ -93,7 +57,7 @@ public class Writer extends Thread {
      */
     @TestOnly
     public int getFullEntriesCounter() {
-        return fullEntriesCounter;
+        return task.getFullEntriesCounter();
     }
 
     /**
@@ -103,6 +67,6 @@ public class Writer extends Thread {
      */
     @TestOnly
     public int getIdNumber() {
-        return writerIdentifier.getId();
+        return task.getIdNumber();
     }
 }
@@ -0,0 +1,154 @@
+package pl.pz1.problem.visitors;
+
+import pl.pz1.problem.LibraryEngine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.jetbrains.annotations.TestOnly;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+import pl.pz1.problem.visitors.workload.WorkloadType;
+
+import static pl.pz1.problem.visitors.identifier.Identifier.WRITER;
+
+/**
+ * Behaviour of a Writer in the Readers and Writers problem, independent of the thread which runs it.
+ * It can be started on a platform thread, like {@link Writer} does, or on a virtual thread.
+ */
+public class WriterTask implements Runnable {
+    private final LibrarySelector libraries;
+    private final Identifier writerIdentifier;
+    private final RandomGenerator random;
+    private final WorkloadProfile workload;
+
+    /**
+     * Tracks if writer is currently in writing state or not.
+     * Used only for testing purposes to verify class behaviour.
+     */
+    private volatile boolean isWriting;
+
+    /**
+     * Tracks how many times writer has entered and then exited library.
+     * Used only for testing purposes to verify class behaviour.
+     */
+    private volatile int fullEntriesCounter;
+
+    /**
+     * Constructs a WriterTask with a reference to the shared Library, drawing its times from a generator
+     * with a seed of its own.
+     *
+     * @param library The shared Library engine.
+     */
+    public WriterTask(LibraryEngine library) {
+        this(library, SeededRandomSource.withRandomSeed());
+    }
+
+    /**
+     * Constructs a WriterTask with a reference to the shared Library, drawing its times from the given source.
+     *
+     * @param library The shared Library engine.
+     * @param randomSource The source of the generator of this writer.
+     */
+    public WriterTask(LibraryEngine library, RandomSource randomSource) {
+        this(LibrarySelector.of(library), randomSource, WorkloadType.UNIFORM.profile(true));
+    }
+
+    /**
+     * Constructs a WriterTask visiting the libraries chosen by the selector, drawing its times from the given source
+     * and distributing them according to the given workload.
+     *
+     * @param libraries The selector of the library of every visit.
+     * @param randomSource The source of the generator of this writer.
+     * @param workload The workload telling how long this writer stays inside and rests outside.
+     */
+    public WriterTask(LibrarySelector libraries, RandomSource randomSource, WorkloadProfile workload) {
+        this.libraries = libraries;
+        this.writerIdentifier = Identifier.next(WRITER);
+        isWriting = false;
+        random = randomSource.forParticipant(writerIdentifier);
+        this.workload = workload;
+        fullEntriesCounter = 0;
+    }
+
+    /**
+     * Simulates the behavior of the writer.
+     * The writer alternates between writing and resting, following synchronization rules.
+     * Every visit goes to the library chosen by the selector at its start.
+     */
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LibraryEngine library = libraries.select(random);
+            try {
+                library.startWriting(this.writerIdentifier);
+                isWriting = true;
+                workload.visit(random);
+                sleep(workload.holdTime(random));
+
+                library.stopWriting(this.writerIdentifier);
+                isWriting = false;
+                fullEntriesCounter++;
+                sleep(workload.thinkTime(random));
+            }
+            catch (InterruptedException e) {
+                System.out.println(e.getMessage());
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                if (isWriting) {
+                    library.stopWriting(this.writerIdentifier);
+                    isWriting = false;
+                }
+            }
+        }
+        System.out.println("Pisarz " + writerIdentifier.getId() + " zakończył działanie!");
+    }
+
+    /**
+     * Sleeps for the given time. When the time is zero it only yields, so that participants sharing
+     * the carrier of their virtual threads still take turns instead of the first one running forever.
+     *
+     * @param nanos time to sleep, in nanoseconds
+     * @throws InterruptedException If the thread is interrupted while sleeping.
+     */
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+        else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Getter of attribute isWriting
+     *
+     * @return attribute isWriting
+     */
+    @TestOnly
+    public boolean isWriting() {
+        return isWriting;
+    }
+
+    /**
+     * Getter of attribute fullEntriesCounter
+     *
+     * @return attribute fullEntriesCounter
+     */
+    @TestOnly
+    public int getFullEntriesCounter() {
+        return fullEntriesCounter;
+    }
+
+    /**
+     * Method which allows to get writers ID number.
+     *
+     * @return writers ID number.
+     */
+    @TestOnly
+    public int getIdNumber() {
+        return writerIdentifier.getId();
+    }
+}
@@ -1,5 +1,7 @@
 package pl.pz1.problem.visitors.identifier;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * The Identifier class represents an identifier with a unique ID and name.
  * It is designed to distinguish between different roles, such as writers and readers.
@@ -15,6 +17,9 @@ public class Identifier {
      */
     public static final String READER = "Czytelnik";
 
+    private static final AtomicInteger WRITER_IDS = new AtomicInteger();
+    private static final AtomicInteger READER_IDS = new AtomicInteger();
+
     private final Integer id;
     private final String name;
     private final String shortName;
@@ -36,6 +41,18 @@ public class Identifier {
         }
     }
 
+    /**
+     * Creates an Identifier of the given role with the next ID of that role not given out yet.
+     * IDs are allocated atomically, so participants may be created on many threads at once.
+     *
+     * @param name the role, {@link #WRITER} or {@link #READER}
+     * @return new Identifier
+     */
+    public static Identifier next(String name) {
+        AtomicInteger ids = name.equals(WRITER) ? WRITER_IDS : READER_IDS;
+        return new Identifier(ids.incrementAndGet(), name);
+    }
+
     /**
      * Returns the name associated with this Identifier.
      *
@@ -0,0 +1,200 @@
+package pl.pz1.problem.visitors.pool;
+
+import pl.pz1.problem.visitors.LibrarySelector;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.RandomSource;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs many logical readers and writers on a fixed number of worker threads.
+ * A participant is a small {@link PooledParticipant} object rather than a thread: staying inside and resting
+ * outside are delays of a scheduled executor, and waiting in the queue holds no thread at all, since
+ * every engine which can admits the participant by a callback, see
+ * {@link pl.pz1.problem.LibraryEngine#startReadingAsync}. Engines without callbacks are asked again every
+ * millisecond instead. A million participants thus need only their own small state and a few workers.
+ */
+public class ParticipantPool {
+    private final ScheduledThreadPoolExecutor workers;
+    private final LibrarySelector libraries;
+    private final RandomSource randomSource;
+    private final LongAdder visits = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition finished = lock.newCondition();
+    private volatile boolean shutdown;
+
+    /**
+     * Constructs a ParticipantPool and starts its workers.
+     *
+     * @param workers number of worker threads
+     * @param libraries selector of the library of every visit
+     * @param randomSource source of the generator of every participant
+     * @throws IllegalArgumentException If the number of workers is not positive.
+     */
+    public ParticipantPool(int workers, LibrarySelector libraries, RandomSource randomSource) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Pool needs at least one worker: " + workers);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> new Thread(task, "participants-" + threads.incrementAndGet());
+        this.workers = new ScheduledThreadPoolExecutor(workers, factory);
+        this.workers.setRemoveOnCancelPolicy(true);
+        this.libraries = libraries;
+        this.randomSource = randomSource;
+    }
+
+    /**
+     * Creates a reader and starts its first visit.
+     *
+     * @param workload workload of the reader
+     * @return the new reader
+     * @throws IllegalStateException If the pool is shut down.
+     */
+    public PooledParticipant addReader(WorkloadProfile workload) {
+        return add(Identifier.next(Identifier.READER), false, workload);
+    }
+
+    /**
+     * Creates a writer and starts its first visit.
+     *
+     * @param workload workload of the writer
+     * @return the new writer
+     * @throws IllegalStateException If the pool is shut down.
+     */
+    public PooledParticipant addWriter(WorkloadProfile workload) {
+        return add(Identifier.next(Identifier.WRITER), true, workload);
+    }
+
+    private PooledParticipant add(Identifier identifier, boolean writer, WorkloadProfile workload) {
+        if (shutdown) {
+            throw new IllegalStateException("Pool is shut down");
+        }
+        PooledParticipant participant = new PooledParticipant(this, identifier, writer,
+                randomSource.forParticipant(identifier), workload);
+        active.incrementAndGet();
+        workers.execute(participant::arrive);
+        return participant;
+    }
+
+    /**
+     * Lets every participant finish its current visit and stop; participants resting outside stop when their rest
+     * ends. Workers are stopped once the last participant has.
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (active.get() == 0) {
+            terminate();
+        }
+    }
+
+    /**
+     * Waits until every participant has stopped after {@link #shutdown()}.
+     *
+     * @param timeout the longest time to wait
+     * @param unit unit of the timeout
+     * @return true if every participant stopped, false if the time elapsed first
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!workers.isShutdown()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = finished.awaitNanos(nanos);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return workers.awaitTermination(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns how many visits all participants together have completed.
+     *
+     * @return amount of completed visits
+     */
+    public long getVisits() {
+        return visits.sum();
+    }
+
+    /**
+     * Returns how many participants have not stopped yet.
+     *
+     * @return amount of active participants
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * Tells if the pool was shut down, so participants should stop after their current visit.
+     *
+     * @return true if shut down
+     */
+    boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Returns the selector of the library of every visit.
+     *
+     * @return selector of libraries
+     */
+    LibrarySelector getLibraries() {
+        return libraries;
+    }
+
+    /**
+     * Runs the step of a participant on a worker after the given delay.
+     *
+     * @param step step to run
+     * @param nanos delay in nanoseconds, zero or less to run as soon as a worker is free
+     */
+    void schedule(Runnable step, long nanos) {
+        if (nanos > 0) {
+            workers.schedule(step, nanos, TimeUnit.NANOSECONDS);
+        }
+        else {
+            workers.execute(step);
+        }
+    }
+
+    /**
+     * Counts a completed visit.
+     */
+    void visited() {
+        visits.increment();
+    }
+
+    /**
+     * Counts a participant which stopped, stopping the workers after the last one once the pool is shut down.
+     */
+    void stopped() {
+        if (active.decrementAndGet() == 0 && shutdown) {
+            terminate();
+        }
+    }
+
+    private void terminate() {
+        lock.lock();
+        try {
+            workers.shutdown();
+            finished.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
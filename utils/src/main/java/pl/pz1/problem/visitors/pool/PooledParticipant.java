@@ -0,0 +1,130 @@
+package pl.pz1.problem.visitors.pool;
+
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reader or writer of a {@link ParticipantPool}, kept as plain state and moved through its visits by the workers
+ * of the pool: it arrives, is admitted, leaves after its holding time and arrives again after its thinking time.
+ * Only one step of a participant is ever scheduled at a time, so its state needs no locking.
+ */
+public class PooledParticipant {
+    /**
+     * How long a participant waits before asking an engine without callbacks again.
+     */
+    private static final long RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ParticipantPool pool;
+    private final Identifier identifier;
+    private final boolean writer;
+    private final RandomGenerator random;
+    private final WorkloadProfile workload;
+    private LibraryEngine library;
+    private volatile boolean inside;
+    private volatile int fullEntriesCounter;
+
+    /**
+     * Constructs a PooledParticipant.
+     *
+     * @param pool pool running the participant
+     * @param identifier identity of the participant
+     * @param writer true for a writer, false for a reader
+     * @param random generator of the participant
+     * @param workload workload of the participant
+     */
+    PooledParticipant(ParticipantPool pool, Identifier identifier, boolean writer, RandomGenerator random,
+                      WorkloadProfile workload) {
+        this.pool = pool;
+        this.identifier = identifier;
+        this.writer = writer;
+        this.random = random;
+        this.workload = workload;
+    }
+
+    /**
+     * Starts a visit: chooses the library and asks to enter it, or stops if the pool is shut down.
+     */
+    void arrive() {
+        if (pool.isShutdown()) {
+            pool.stopped();
+            return;
+        }
+        library = pool.getLibraries().select(random);
+        boolean queued = writer ? library.startWritingAsync(identifier, this::admitted)
+                : library.startReadingAsync(identifier, this::admitted);
+        if (!queued) {
+            retry();
+        }
+    }
+
+    /**
+     * Asks an engine without callbacks to enter, and again a moment later if it does not let the participant in.
+     * The engine records nothing for a refused attempt, so the retries do not show up as visits given up.
+     */
+    private void retry() {
+        boolean admitted = writer ? library.pollWriting(identifier) : library.pollReading(identifier);
+        if (admitted) {
+            admitted();
+        }
+        else {
+            pool.schedule(this::retry, RETRY_NANOS);
+        }
+    }
+
+    /**
+     * Called once the participant is inside, possibly while the library holds its lock,
+     * so it only schedules leaving.
+     */
+    private void admitted() {
+        inside = true;
+        pool.schedule(this::leave, workload.holdTime(random));
+    }
+
+    /**
+     * Does the work of the visit, leaves the library and schedules the next visit.
+     */
+    private void leave() {
+        workload.visit(random);
+        if (writer) {
+            library.stopWriting(identifier);
+        }
+        else {
+            library.stopReading(identifier);
+        }
+        inside = false;
+        fullEntriesCounter++;
+        pool.visited();
+        pool.schedule(this::arrive, workload.thinkTime(random));
+    }
+
+    /**
+     * Returns the identity of the participant.
+     *
+     * @return identifier of the participant
+     */
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Tells if the participant is inside a library right now.
+     *
+     * @return true if inside
+     */
+    public boolean isInside() {
+        return inside;
+    }
+
+    /**
+     * Returns how many visits the participant has completed.
+     *
+     * @return amount of completed visits
+     */
+    public int getFullEntriesCounter() {
+        return fullEntriesCounter;
+    }
+}
@@ -0,0 +1,20 @@
+package pl.pz1.problem.visitors.random;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Hands every participant of the simulation the generator from which it draws its reading, writing and resting times.
+ * Each participant gets a generator of its own, so drawing from it needs no synchronization.
+ */
+@FunctionalInterface
+public interface RandomSource {
+    /**
+     * Creates the generator of a single participant. Called once, when the participant is created.
+     *
+     * @param identifier who the generator is for
+     * @return generator used only by that participant
+     */
+    RandomGenerator forParticipant(Identifier identifier);
+}
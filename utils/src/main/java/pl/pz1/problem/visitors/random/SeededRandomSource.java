@@ -0,0 +1,64 @@
+package pl.pz1.problem.visitors.random;
+
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Random source deriving the generator of every participant from a single master seed and the participant's
+ * role and ID, so the same seed gives every participant the same sequence of times again,
+ * no matter in which order the participants are created. Creating a generator costs a few arithmetic operations,
+ * unlike {@link java.security.SecureRandom}, which gathers entropy and may block doing so.
+ */
+public class SeededRandomSource implements RandomSource {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long masterSeed;
+
+    /**
+     * Constructs a SeededRandomSource with the given master seed.
+     *
+     * @param masterSeed seed from which every generator is derived
+     */
+    public SeededRandomSource(long masterSeed) {
+        this.masterSeed = masterSeed;
+    }
+
+    /**
+     * Constructs a SeededRandomSource with a master seed of its own, different on every call.
+     * The seed can be read back with {@link #getMasterSeed()} to replay the run later.
+     *
+     * @return new random source
+     */
+    public static SeededRandomSource withRandomSeed() {
+        return new SeededRandomSource(new SplittableRandom().nextLong());
+    }
+
+    @Override
+    public RandomGenerator forParticipant(Identifier identifier) {
+        long participant = 2L * identifier.getId() + (identifier.getName().equals(Identifier.WRITER) ? 1 : 0);
+        return new SplittableRandom(mix(masterSeed + participant * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns the seed from which every generator is derived.
+     *
+     * @return master seed
+     */
+    public long getMasterSeed() {
+        return masterSeed;
+    }
+
+    /**
+     * Scrambles the bits of a value, so that seeds of neighbouring participants share no visible pattern.
+     *
+     * @param value value to scramble
+     * @return scrambled value
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
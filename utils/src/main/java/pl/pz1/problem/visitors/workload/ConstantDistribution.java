@@ -0,0 +1,28 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution always giving the same duration. A duration of zero means no sleep at all.
+ */
+public class ConstantDistribution implements Distribution {
+    private final long nanos;
+
+    /**
+     * Constructs a ConstantDistribution.
+     *
+     * @param nanos the duration, in nanoseconds
+     * @throws IllegalArgumentException If the duration is negative.
+     */
+    public ConstantDistribution(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Duration must not be negative: " + nanos);
+        }
+        this.nanos = nanos;
+    }
+
+    @Override
+    public long sample(RandomGenerator random) {
+        return nanos;
+    }
+}
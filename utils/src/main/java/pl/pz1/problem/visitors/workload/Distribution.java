@@ -0,0 +1,19 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution of a duration, such as how long a participant stays inside the library or rests outside it.
+ * Implementations keep no state depending on the caller, so a single distribution can be shared by every
+ * participant of a role, each drawing from it with its own generator.
+ */
+@FunctionalInterface
+public interface Distribution {
+    /**
+     * Draws a single duration.
+     *
+     * @param random generator of the calling participant
+     * @return duration in nanoseconds, never negative
+     */
+    long sample(RandomGenerator random);
+}
@@ -0,0 +1,29 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Exponential distribution of durations with a given mean. Used for the resting time it makes the visits
+ * of a participant a Poisson process: it is as likely to come back in the next moment however long it has rested.
+ */
+public class ExponentialDistribution implements Distribution {
+    private final double meanNanos;
+
+    /**
+     * Constructs an ExponentialDistribution.
+     *
+     * @param meanNanos the mean duration, in nanoseconds
+     * @throws IllegalArgumentException If the mean is not positive.
+     */
+    public ExponentialDistribution(long meanNanos) {
+        if (meanNanos <= 0) {
+            throw new IllegalArgumentException("Mean must be positive: " + meanNanos);
+        }
+        this.meanNanos = meanNanos;
+    }
+
+    @Override
+    public long sample(RandomGenerator random) {
+        return (long) (meanNanos * random.nextExponential());
+    }
+}
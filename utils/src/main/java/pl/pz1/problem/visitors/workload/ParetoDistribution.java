@@ -0,0 +1,34 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Pareto distribution of durations: most of them are close to the scale, but a few are many times longer.
+ * The smaller the shape, the heavier the tail; with a shape of 2 or less the variance is infinite,
+ * which models the rare very long visits seen in real access patterns.
+ */
+public class ParetoDistribution implements Distribution {
+    private final double scaleNanos;
+    private final double inverseShape;
+
+    /**
+     * Constructs a ParetoDistribution.
+     *
+     * @param scaleNanos the shortest duration, in nanoseconds
+     * @param shape the shape of the tail, the mean is finite only for a shape above 1
+     * @throws IllegalArgumentException If the scale or the shape is not positive.
+     */
+    public ParetoDistribution(long scaleNanos, double shape) {
+        if (scaleNanos <= 0 || !(shape > 0)) {
+            throw new IllegalArgumentException("Scale and shape must be positive: " + scaleNanos + ", " + shape);
+        }
+        this.scaleNanos = scaleNanos;
+        this.inverseShape = 1 / shape;
+    }
+
+    @Override
+    public long sample(RandomGenerator random) {
+        double uniform = 1 - random.nextDouble();
+        return (long) (scaleNanos / Math.pow(uniform, inverseShape));
+    }
+}
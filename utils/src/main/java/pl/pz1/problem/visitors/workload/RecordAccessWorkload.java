@@ -0,0 +1,109 @@
+package pl.pz1.problem.visitors.workload;
+
+import pl.pz1.problem.store.RecordStore;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Workload whose participants really access the records of a {@link RecordStore} guarded by the library they visit.
+ * On every visit a reader reads the given number of bytes of consecutive records, starting at a random one,
+ * through a read-only view sharing memory with the file, and a writer overwrites as many in place.
+ * Holding and thinking times are taken from another profile and pass on top of the access, so with zero times
+ * the simulation measures the library together with memory bandwidth and caches.
+ * The store must be guarded by a single library, since different libraries do not exclude each other.
+ */
+public class RecordAccessWorkload implements WorkloadProfile {
+    private final WorkloadProfile times;
+    private final RecordStore store;
+    private final int accessBytes;
+    private final int accessRecords;
+    private final boolean writer;
+    private final LongAdder checksum = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Constructs a RecordAccessWorkload.
+     *
+     * @param times profile of holding and thinking times
+     * @param store records accessed inside the library
+     * @param accessBytes bytes read or written on every visit
+     * @param writer true for the workload of writers, false of readers
+     * @throws IllegalArgumentException If the access is not positive or larger than the store.
+     */
+    public RecordAccessWorkload(WorkloadProfile times, RecordStore store, int accessBytes, boolean writer) {
+        long storeBytes = (long) store.getRecords() * store.getRecordSize();
+        if (accessBytes < 1 || accessBytes > storeBytes) {
+            throw new IllegalArgumentException("Access must be between 1 and " + storeBytes + " bytes: "
+                    + accessBytes);
+        }
+        this.times = times;
+        this.store = store;
+        this.accessBytes = accessBytes;
+        this.accessRecords = (accessBytes + store.getRecordSize() - 1) / store.getRecordSize();
+        this.writer = writer;
+    }
+
+    @Override
+    public long holdTime(RandomGenerator random) {
+        return times.holdTime(random);
+    }
+
+    @Override
+    public long thinkTime(RandomGenerator random) {
+        return times.thinkTime(random);
+    }
+
+    @Override
+    public void visit(RandomGenerator random) {
+        int record = random.nextInt(store.getRecords() - accessRecords + 1);
+        if (writer) {
+            write(store.writeView(record, accessRecords), random.nextLong());
+        }
+        else {
+            checksum.add(read(store.readView(record, accessRecords)));
+        }
+        bytes.add(accessBytes);
+    }
+
+    private long read(ByteBuffer view) {
+        long sum = 0;
+        int i = 0;
+        for (; i + Long.BYTES <= accessBytes; i += Long.BYTES) {
+            sum += view.getLong(i);
+        }
+        for (; i < accessBytes; i++) {
+            sum += view.get(i);
+        }
+        return sum;
+    }
+
+    private void write(ByteBuffer view, long value) {
+        int i = 0;
+        for (; i + Long.BYTES <= accessBytes; i += Long.BYTES) {
+            view.putLong(i, value);
+        }
+        for (; i < accessBytes; i++) {
+            view.put(i, (byte) value);
+        }
+    }
+
+    /**
+     * Returns the sum of every long read so far, which keeps the reads from being optimized away.
+     *
+     * @return checksum of the reads
+     */
+    public long getChecksum() {
+        return checksum.sum();
+    }
+
+    /**
+     * Returns how many bytes the participants of the workload accessed so far.
+     *
+     * @return amount of bytes read or written
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+}
@@ -0,0 +1,37 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution replaying recorded durations in their order, starting over after the last one.
+ * The participants of a role share the position in the trace, so together they replay it in the order they ask,
+ * and the generator of the participant is not used at all.
+ */
+public class TraceDistribution implements Distribution {
+    private final long[] nanos;
+    private final AtomicInteger position = new AtomicInteger();
+
+    /**
+     * Constructs a TraceDistribution.
+     *
+     * @param nanos recorded durations, in nanoseconds
+     * @throws IllegalArgumentException If there are no durations or some of them is negative.
+     */
+    public TraceDistribution(long[] nanos) {
+        if (nanos.length == 0) {
+            throw new IllegalArgumentException("Trace must not be empty");
+        }
+        for (long duration : nanos) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Duration must not be negative: " + duration);
+            }
+        }
+        this.nanos = nanos.clone();
+    }
+
+    @Override
+    public long sample(RandomGenerator random) {
+        return nanos[Math.floorMod(position.getAndIncrement(), nanos.length)];
+    }
+}
@@ -0,0 +1,32 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution giving every duration between two bounds with the same probability.
+ */
+public class UniformDistribution implements Distribution {
+    private final long minNanos;
+    private final long maxNanos;
+
+    /**
+     * Constructs a UniformDistribution.
+     *
+     * @param minNanos the shortest duration, in nanoseconds
+     * @param maxNanos the longest duration, in nanoseconds, included
+     * @throws IllegalArgumentException If the bounds are negative or in the wrong order.
+     */
+    public UniformDistribution(long minNanos, long maxNanos) {
+        if (minNanos < 0 || maxNanos < minNanos || maxNanos == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Bounds must satisfy 0 <= min <= max < 2^63 - 1: "
+                    + minNanos + ", " + maxNanos);
+        }
+        this.minNanos = minNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    @Override
+    public long sample(RandomGenerator random) {
+        return random.nextLong(minNanos, maxNanos + 1);
+    }
+}
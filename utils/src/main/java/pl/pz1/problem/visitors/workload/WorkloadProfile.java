@@ -0,0 +1,62 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Workload of a participant: how long it stays inside the library on each visit and how long it rests
+ * outside between visits, and possibly what it does inside. Readers and writers consult it before every sleep,
+ * so one profile is shared by every participant of a role.
+ */
+public interface WorkloadProfile {
+    /**
+     * Profile in which nobody ever sleeps, so participants enter and leave the library as fast as it lets them.
+     * Turns the simulation into a stress test of the library itself.
+     */
+    WorkloadProfile NO_SLEEP = of(new ConstantDistribution(0), new ConstantDistribution(0));
+
+    /**
+     * Draws how long the participant stays inside the library.
+     *
+     * @param random generator of the participant
+     * @return holding time in nanoseconds
+     */
+    long holdTime(RandomGenerator random);
+
+    /**
+     * Draws how long the participant rests outside the library before coming back.
+     *
+     * @param random generator of the participant
+     * @return thinking time in nanoseconds
+     */
+    long thinkTime(RandomGenerator random);
+
+    /**
+     * Does the work of a visit while the participant is inside the library, once per visit.
+     * By default there is none, so the participant only stays inside for its holding time.
+     *
+     * @param random generator of the participant
+     */
+    default void visit(RandomGenerator random) {
+    }
+
+    /**
+     * Creates a profile drawing both times from independent distributions.
+     *
+     * @param hold distribution of holding times
+     * @param think distribution of thinking times
+     * @return new profile
+     */
+    static WorkloadProfile of(Distribution hold, Distribution think) {
+        return new WorkloadProfile() {
+            @Override
+            public long holdTime(RandomGenerator random) {
+                return hold.sample(random);
+            }
+
+            @Override
+            public long thinkTime(RandomGenerator random) {
+                return think.sample(random);
+            }
+        };
+    }
+}
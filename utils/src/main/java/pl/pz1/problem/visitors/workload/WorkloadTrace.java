@@ -0,0 +1,67 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a recorded workload to replay it with {@link TraceDistribution}.
+ * Every line of the trace describes a single visit as {@code <role> <hold ms> <think ms>}, where the role is
+ * {@code R} for a reader or {@code W} for a writer. Blank lines and lines starting with {@code #} are skipped.
+ */
+public class WorkloadTrace {
+    private WorkloadTrace() {
+    }
+
+    /**
+     * Reads the visits of a single role from a trace file.
+     *
+     * @param file the trace file
+     * @param writer true to read the visits of writers, false of readers
+     * @return profile replaying the visits of the role in their order
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If a line is malformed or the role has no visits in the trace.
+     */
+    public static WorkloadProfile read(Path file, boolean writer) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8), writer);
+    }
+
+    /**
+     * Picks the visits of a single role from the lines of a trace.
+     *
+     * @param lines lines of the trace
+     * @param writer true to pick the visits of writers, false of readers
+     * @return profile replaying the visits of the role in their order
+     * @throws IllegalArgumentException If a line is malformed or the role has no visits in the trace.
+     */
+    public static WorkloadProfile parse(List<String> lines, boolean writer) {
+        String role = writer ? "W" : "R";
+        List<Long> holds = new ArrayList<>();
+        List<Long> thinks = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3 || !(fields[0].equals("R") || fields[0].equals("W"))) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " is not '<R|W> <hold ms> <think ms>': " + line);
+            }
+            if (fields[0].equals(role)) {
+                holds.add(TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[1])));
+                thinks.add(TimeUnit.MILLISECONDS.toNanos(Long.parseLong(fields[2])));
+            }
+        }
+        if (holds.isEmpty()) {
+            throw new IllegalArgumentException("Trace has no visits of role " + role);
+        }
+        return WorkloadProfile.of(new TraceDistribution(toArray(holds)), new TraceDistribution(toArray(thinks)));
+    }
+
+    private static long[] toArray(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
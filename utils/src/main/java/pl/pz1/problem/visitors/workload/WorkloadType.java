@@ -0,0 +1,80 @@
+package pl.pz1.problem.visitors.workload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Workload profiles available by name, e.g. from the command line. Except for {@link #NONE} every type keeps
+ * the mean times of the original simulation: readers 1250 ms both inside and outside, writers 2250 ms,
+ * so the types differ only in how the times spread around their means.
+ */
+public enum WorkloadType {
+    /**
+     * Times spread evenly over 1000-1500 ms for readers and 2000-2500 ms for writers, the original behaviour.
+     */
+    UNIFORM(WorkloadProfile.of(uniform(1000, 1500), uniform(1000, 1500)),
+            WorkloadProfile.of(uniform(2000, 2500), uniform(2000, 2500))),
+
+    /**
+     * Always exactly the mean times.
+     */
+    CONSTANT(WorkloadProfile.of(constant(1250), constant(1250)),
+            WorkloadProfile.of(constant(2250), constant(2250))),
+
+    /**
+     * Exponential times, so every participant comes back as a Poisson process.
+     */
+    EXPONENTIAL(WorkloadProfile.of(exponential(1250), exponential(1250)),
+            WorkloadProfile.of(exponential(2250), exponential(2250))),
+
+    /**
+     * Heavy-tailed Pareto times of shape {@link #PARETO_SHAPE}, mostly short with rare very long ones.
+     */
+    PARETO(WorkloadProfile.of(pareto(1250), pareto(1250)),
+            WorkloadProfile.of(pareto(2250), pareto(2250))),
+
+    /**
+     * No sleeping at all, see {@link WorkloadProfile#NO_SLEEP}.
+     */
+    NONE(WorkloadProfile.NO_SLEEP, WorkloadProfile.NO_SLEEP);
+
+    /**
+     * Shape of the tail of {@link #PARETO}, at which the variance is already infinite but the mean is not.
+     */
+    public static final double PARETO_SHAPE = 2.0;
+
+    private final WorkloadProfile readers;
+    private final WorkloadProfile writers;
+
+    WorkloadType(WorkloadProfile readers, WorkloadProfile writers) {
+        this.readers = readers;
+        this.writers = writers;
+    }
+
+    /**
+     * Returns the profile of a role.
+     *
+     * @param writer true for writers, false for readers
+     * @return profile shared by every participant of the role
+     */
+    public WorkloadProfile profile(boolean writer) {
+        return writer ? writers : readers;
+    }
+
+    private static Distribution uniform(long minMillis, long maxMillis) {
+        return new UniformDistribution(TimeUnit.MILLISECONDS.toNanos(minMillis),
+                TimeUnit.MILLISECONDS.toNanos(maxMillis));
+    }
+
+    private static Distribution constant(long millis) {
+        return new ConstantDistribution(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static Distribution exponential(long meanMillis) {
+        return new ExponentialDistribution(TimeUnit.MILLISECONDS.toNanos(meanMillis));
+    }
+
+    private static Distribution pareto(long meanMillis) {
+        long scale = (long) (TimeUnit.MILLISECONDS.toNanos(meanMillis) * (PARETO_SHAPE - 1) / PARETO_SHAPE);
+        return new ParetoDistribution(scale, PARETO_SHAPE);
+    }
+}
@@ -0,0 +1,71 @@
+package pl.pz1.problem.waiting;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spins when the library is expected to free up soon and parks otherwise.
+ * The expectation is a moving average of recent holding times: while participants stay inside
+ * for less than the limit, a waiter spins for up to twice that average, which covers a typical release
+ * and costs less than being parked and woken up again; longer holding times make every waiter park right away.
+ * With a single processor the holder cannot run while a waiter spins, so nobody ever spins.
+ */
+public class AdaptiveSpinWaitStrategy implements WaitStrategy {
+    /**
+     * Default limit of spinning, about what parking and waking up a thread costs.
+     */
+    public static final long DEFAULT_MAX_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Weight of the newest holding time in the average, as a shift: each one counts for one eighth.
+     */
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final long maxSpinNanos;
+    private final boolean multiprocessor;
+    private long averageHoldNanos;
+
+    /**
+     * Constructs an AdaptiveSpinWaitStrategy spinning for at most {@link #DEFAULT_MAX_SPIN_NANOS}.
+     */
+    public AdaptiveSpinWaitStrategy() {
+        this(DEFAULT_MAX_SPIN_NANOS, Runtime.getRuntime().availableProcessors() > 1);
+    }
+
+    /**
+     * Constructs an AdaptiveSpinWaitStrategy.
+     *
+     * @param maxSpinNanos the longest time to spin, in nanoseconds, and the longest average holding time
+     *                     for which waiters still spin
+     * @param multiprocessor true if the holder can run while a waiter spins
+     * @throws IllegalArgumentException If the limit is negative.
+     */
+    public AdaptiveSpinWaitStrategy(long maxSpinNanos, boolean multiprocessor) {
+        if (maxSpinNanos < 0) {
+            throw new IllegalArgumentException("Spin limit must not be negative: " + maxSpinNanos);
+        }
+        this.maxSpinNanos = maxSpinNanos;
+        this.multiprocessor = multiprocessor;
+    }
+
+    @Override
+    public long spinNanos() {
+        if (!multiprocessor || averageHoldNanos > maxSpinNanos) {
+            return 0;
+        }
+        return Math.min(maxSpinNanos, 2 * averageHoldNanos);
+    }
+
+    @Override
+    public void released(long holdNanos) {
+        averageHoldNanos += (holdNanos - averageHoldNanos) >> AVERAGE_SHIFT;
+    }
+
+    /**
+     * Returns the moving average of recent holding times.
+     *
+     * @return average holding time, in nanoseconds
+     */
+    public long getAverageHoldNanos() {
+        return averageHoldNanos;
+    }
+}
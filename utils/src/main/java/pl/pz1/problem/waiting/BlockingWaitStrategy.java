@@ -0,0 +1,11 @@
+package pl.pz1.problem.waiting;
+
+/**
+ * Parks every waiter right away, so it is woken up by a signal of whoever admits it.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+    @Override
+    public long spinNanos() {
+        return 0;
+    }
+}
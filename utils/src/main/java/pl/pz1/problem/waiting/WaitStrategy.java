@@ -0,0 +1,25 @@
+package pl.pz1.problem.waiting;
+
+/**
+ * Decides how a participant which was not admitted right away waits for the {@link pl.pz1.problem.Library}.
+ * It may spin for a while, watching its queue entry without the lock, before parking on the condition
+ * of the library; a participant admitted while spinning never has to be woken up.
+ * Strategies may learn from the library, so every library needs its own instance.
+ * They are not thread-safe, the library only calls them while holding its lock.
+ */
+public interface WaitStrategy {
+    /**
+     * Tells how long a participant which was just queued should spin before parking.
+     *
+     * @return time to spin, in nanoseconds, zero to park right away
+     */
+    long spinNanos();
+
+    /**
+     * Notifies the strategy that a participant left the library.
+     *
+     * @param holdNanos how long the participant was inside, in nanoseconds
+     */
+    default void released(long holdNanos) {
+    }
+}
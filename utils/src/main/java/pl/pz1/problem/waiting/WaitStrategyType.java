@@ -0,0 +1,32 @@
+package pl.pz1.problem.waiting;
+
+import java.util.function.Supplier;
+
+/**
+ * Waiting strategies available for the Library, each creating a fresh strategy for every library.
+ */
+public enum WaitStrategyType {
+    /**
+     * {@link BlockingWaitStrategy}, every waiter parks right away.
+     */
+    BLOCKING(BlockingWaitStrategy::new),
+    /**
+     * {@link AdaptiveSpinWaitStrategy}, waiters spin while holding times are short.
+     */
+    ADAPTIVE(AdaptiveSpinWaitStrategy::new);
+
+    private final Supplier<WaitStrategy> factory;
+
+    WaitStrategyType(Supplier<WaitStrategy> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new strategy of this type.
+     *
+     * @return strategy for a single library
+     */
+    public WaitStrategy create() {
+        return factory.get();
+    }
+}
@@ -12,6 +12,9 @@ import pl.pz1.problem.visitors.Writer;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.*;
@@ -204,6 +207,319 @@ class UtilsTests {
         assertTrue(library.isInside(identifier1));
     }
 
+    @Test
+    void writerLeavingAdmitsRunOfReadersInOnePass() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startWriting(writer);
+
+        Identifier[] identifiers = new Identifier[6];
+        Thread[] readers = new Thread[identifiers.length];
+        for (int i = 0; i < readers.length; i++) {
+            Identifier identifier = new Identifier(i + 1, Identifier.READER);
+            identifiers[i] = identifier;
+            readers[i] = new Thread(() -> {
+                try {
+                    library.startReading(identifier);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            readers[i].start();
+            await().until(library::getQueueSize, equalTo(i + 1));
+        }
+
+        library.stopWriting(writer);
+
+        assertEquals(5, library.getOccupiedPlacesAmount());
+        assertEquals(1, library.getQueueSize());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(library.isInside(identifiers[i]));
+        }
+        assertFalse(library.isInside(identifiers[5]));
+
+        for (int i = 0; i < 5; i++) {
+            readers[i].join();
+        }
+        readers[5].interrupt();
+        readers[5].join();
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void tryStartWritingFailsAtOnceWhileReaderInside() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startReading(reader);
+
+        assertFalse(library.tryStartWriting(writer));
+        assertEquals(0, library.getQueueSize());
+        assertTrue(bos.toString().contains("Pisarz 1 nie doczekał się wejścia i opuścił kolejkę."));
+        assertTrue(library.tryStartReading(new Identifier(2, Identifier.READER)));
+
+        library.stopReading(reader);
+        assertFalse(library.tryStartWriting(writer));
+        assertFalse(library.isInside(writer));
+    }
+
+    @Test
+    void timedOutWriterLeavesQueueAndLetsReadersBehindIn() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startReading(reader1);
+
+        AtomicBoolean admitted = new AtomicBoolean(true);
+        Thread writerThread = new Thread(() -> {
+            try {
+                admitted.set(library.tryStartWriting(writer, 300, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startReading(reader2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(2));
+
+        writerThread.join();
+        readerThread.join();
+        assertFalse(admitted.get());
+        assertFalse(library.isInside(writer));
+        assertTrue(library.isInside(reader2));
+        assertEquals(0, library.getQueueSize());
+        assertTrue(library.tryStartReading(new Identifier(3, Identifier.READER), 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void interruptedWaiterKeepsWhoGaveUpInMessage() throws InterruptedException {
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        library.startWriting(writer1);
+
+        AtomicReference<InterruptedException> thrown = new AtomicReference<>();
+        Thread testThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            } catch (InterruptedException e) {
+                thrown.set(e);
+            }
+        });
+        testThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        testThread.interrupt();
+        testThread.join();
+
+        assertEquals("Pisarz 2 zrezygnował z czekania w kolejce.", thrown.get().getMessage());
+        assertInstanceOf(InterruptedException.class, thrown.get().getCause());
+    }
+
+    @Test
+    void downgradedWriterLetsReadersInButNoWriter() throws InterruptedException {
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer1);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startReading(reader);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(2));
+
+        library.downgrade(writer1);
+        readerThread.join();
+        assertTrue(library.isInside(writer1));
+        assertTrue(library.isInside(reader));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertEquals(1, library.getQueueSize());
+        assertTrue(bos.toString().contains("Pisarz 1 skończył pisać i czyta, nie opuszczając biblioteki..."));
+        assertThrows(IllegalStateException.class, () -> library.downgrade(writer1));
+
+        library.stopReading(writer1);
+        library.stopReading(reader);
+        writerThread.join();
+        assertTrue(library.isInside(writer2));
+    }
+
+    @Test
+    void upgradeWaitsForOtherReadersButNotForQueuedWriter() throws InterruptedException {
+        Identifier upgrader = new Identifier(1, Identifier.READER);
+        Identifier reader = new Identifier(2, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startUpgradableReading(upgrader);
+        library.startReading(reader);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        Thread upgradeThread = new Thread(() -> {
+            try {
+                library.upgrade(upgrader);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        upgradeThread.start();
+        await().until(() -> upgradeThread.getState().equals(Thread.State.WAITING));
+        assertFalse(library.tryStartReading(new Identifier(3, Identifier.READER)));
+
+        library.stopReading(reader);
+        upgradeThread.join();
+        assertTrue(library.isInside(upgrader));
+        assertFalse(library.isInside(writer));
+        assertEquals(5, library.getOccupiedPlacesAmount());
+        assertTrue(bos.toString().contains("Czytelnik 1 skończył czytać i pisze, nie opuszczając biblioteki..."));
+
+        library.stopWriting(upgrader);
+        writerThread.join();
+        assertTrue(library.isInside(writer));
+    }
+
+    @Test
+    void onlyOneUpgradableReaderAtATime() throws InterruptedException {
+        Identifier upgrader1 = new Identifier(1, Identifier.READER);
+        Identifier upgrader2 = new Identifier(2, Identifier.READER);
+        Identifier reader = new Identifier(3, Identifier.READER);
+
+        assertTrue(library.tryStartUpgradableReading(upgrader1));
+        assertFalse(library.tryStartUpgradableReading(upgrader2));
+        assertTrue(library.tryStartReading(reader));
+        assertFalse(library.tryUpgrade(upgrader1));
+        assertThrows(IllegalStateException.class, () -> library.tryUpgrade(reader));
+
+        library.stopReading(upgrader1);
+        library.startUpgradableReading(upgrader2);
+        library.stopReading(reader);
+        assertTrue(library.tryUpgrade(upgrader2));
+        assertEquals(5, library.getOccupiedPlacesAmount());
+
+        library.downgrade(upgrader2);
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        assertThrows(IllegalStateException.class, () -> library.upgrade(upgrader2));
+        assertTrue(library.tryStartUpgradableReading(upgrader1));
+    }
+
+    @Test
+    void interruptedUpgradeKeepsReadingAndLetsOthersIn() throws InterruptedException {
+        Identifier upgrader = new Identifier(1, Identifier.READER);
+        Identifier reader = new Identifier(2, Identifier.READER);
+        library.startUpgradableReading(upgrader);
+        library.startReading(reader);
+
+        AtomicReference<InterruptedException> thrown = new AtomicReference<>();
+        Thread upgradeThread = new Thread(() -> {
+            try {
+                library.upgrade(upgrader);
+            } catch (InterruptedException e) {
+                thrown.set(e);
+            }
+        });
+        upgradeThread.start();
+        await().until(() -> upgradeThread.getState().equals(Thread.State.WAITING));
+        upgradeThread.interrupt();
+        upgradeThread.join();
+
+        assertNotNull(thrown.get());
+        assertTrue(library.isInside(upgrader));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertTrue(library.tryStartReading(new Identifier(3, Identifier.READER)));
+    }
+
+    @Test
+    void optimisticStampIsInvalidatedOnlyByWriters() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        long stamp = library.tryOptimisticRead();
+        assertNotEquals(0, stamp);
+
+        library.startReading(reader);
+        library.stopReading(reader);
+        assertTrue(library.validate(stamp));
+        assertEquals(0, library.getOccupiedPlacesAmount());
+
+        library.startWriting(writer);
+        assertEquals(0, library.tryOptimisticRead());
+        assertFalse(library.validate(stamp));
+        library.downgrade(writer);
+        long downgraded = library.tryOptimisticRead();
+        assertNotEquals(0, downgraded);
+        assertNotEquals(stamp, downgraded);
+        library.stopReading(writer);
+        assertTrue(library.validate(downgraded));
+        assertFalse(library.validate(0));
+    }
+
+    @Test
+    void optimisticReadFallsBackToReadingInside() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertEquals(1, library.read(reader, attempts::incrementAndGet));
+        int result = library.read(reader, () -> {
+            if (attempts.incrementAndGet() == 2) {
+                try {
+                    library.startWriting(writer);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                library.stopWriting(writer);
+                return -1;
+            }
+            assertTrue(library.isInside(reader));
+            return attempts.get();
+        });
+        assertEquals(3, result);
+        assertFalse(library.isInside(reader));
+    }
+
+    @Test
+    void asyncReaderIsAdmittedByReleasingWriter() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        AtomicBoolean admitted = new AtomicBoolean();
+        library.startWriting(writer);
+
+        library.startReadingAsync(reader, () -> admitted.set(true));
+        assertFalse(admitted.get());
+        assertEquals(1, library.getQueueSize());
+
+        library.stopWriting(writer);
+        assertTrue(admitted.get());
+        assertTrue(library.isInside(reader));
+        library.startWritingAsync(writer, () -> admitted.set(false));
+        library.stopReading(reader);
+        assertFalse(admitted.get());
+        assertTrue(library.isInside(writer));
+    }
+
     @Test
     void printingLibrariesInfoTest() throws InterruptedException {
         Writer writer = new Writer(library);
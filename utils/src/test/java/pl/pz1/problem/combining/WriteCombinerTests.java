@@ -0,0 +1,151 @@
+package pl.pz1.problem.combining;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCombinerTests {
+    private final Library library = new Library(2, NoOpEventSink.INSTANCE);
+
+    @Test
+    void everyWriteIsAppliedExactlyOnce() throws InterruptedException {
+        int[] counter = new int[1];
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            Identifier writer = new Identifier(i + 1, Identifier.WRITER);
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 1000; j++) {
+                        library.write(writer, () -> counter[0]++);
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8000, counter[0]);
+        assertEquals(8000, library.getCombiner().getOperations());
+        assertTrue(library.getCombiner().getPhases() <= 8000);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void writesQueuedBehindReaderAreAppliedInOnePhase() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startReading(reader);
+        List<Integer> applied = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Identifier writer = new Identifier(i, Identifier.WRITER);
+            int value = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    library.write(writer, () -> applied.add(value));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+        await().until(library.getCombiner()::getPendingCount, equalTo(3));
+        await().until(library::getQueueSize, equalTo(1));
+        assertTrue(applied.isEmpty());
+
+        library.stopReading(reader);
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        assertEquals(3, applied.size());
+        assertEquals(1, library.getCombiner().getPhases());
+        assertEquals(3, library.getCombiner().getOperations());
+    }
+
+    @Test
+    void failedWriteIsRethrownToItsWriterOnly() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startReading(reader);
+        AtomicInteger counter = new AtomicInteger();
+        AtomicReference<Throwable> failed = new AtomicReference<>();
+        Thread failing = new Thread(() -> {
+            try {
+                library.write(new Identifier(1, Identifier.WRITER), () -> {
+                    throw new IllegalStateException("broken");
+                });
+            }
+            catch (InterruptedException | RuntimeException e) {
+                failed.set(e);
+            }
+        });
+        Thread succeeding = new Thread(() -> {
+            try {
+                library.write(new Identifier(2, Identifier.WRITER), counter::incrementAndGet);
+            }
+            catch (InterruptedException | RuntimeException e) {
+                failed.set(e);
+            }
+        });
+        failing.start();
+        await().until(library.getCombiner()::getPendingCount, equalTo(1));
+        succeeding.start();
+        await().until(library.getCombiner()::getPendingCount, equalTo(2));
+
+        library.stopReading(reader);
+        failing.join();
+        succeeding.join();
+        assertInstanceOf(IllegalStateException.class, failed.get());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void interruptedWriterWithdrawsItsWrite() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startReading(reader);
+        AtomicInteger counter = new AtomicInteger();
+        Thread combiner = new Thread(() -> {
+            try {
+                library.write(new Identifier(1, Identifier.WRITER), counter::incrementAndGet);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicReference<InterruptedException> thrown = new AtomicReference<>();
+        Thread waiting = new Thread(() -> {
+            try {
+                library.write(new Identifier(2, Identifier.WRITER), () -> counter.addAndGet(10));
+            }
+            catch (InterruptedException e) {
+                thrown.set(e);
+            }
+        });
+        combiner.start();
+        await().until(library::getQueueSize, equalTo(1));
+        waiting.start();
+        await().until(library.getCombiner()::getPendingCount, equalTo(2));
+        waiting.interrupt();
+        waiting.join();
+
+        assertEquals("Pisarz 2 zrezygnował z czekania na zapis.", thrown.get().getMessage());
+        library.stopReading(reader);
+        combiner.join();
+        assertEquals(1, counter.get());
+    }
+}
@@ -0,0 +1,240 @@
+package pl.pz1.problem.engines;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairLibraryTests {
+    private static final PrintStream STANDARD_OUT = System.out;
+
+    private FairLibrary library;
+    private ByteArrayOutputStream bos;
+
+    @BeforeEach
+    void setUp() {
+        bos = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bos));
+        library = new FairLibrary(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(STANDARD_OUT);
+    }
+
+    @Test
+    void testStartThenStopReading() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.READER);
+        library.startReading(identifier);
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+        assertTrue(library.isInside(identifier));
+        library.stopReading(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertFalse(library.isInside(identifier));
+    }
+
+    @Test
+    void testStartThenStopWriting() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.WRITER);
+        library.startWriting(identifier);
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        library.stopWriting(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        library.stopWriting(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void writerLeavingAdmitsRunOfReadersUpToCapacity() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startWriting(writer);
+
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            Identifier reader = new Identifier(i + 1, Identifier.READER);
+            readers[i] = new Thread(() -> {
+                try {
+                    library.startReading(reader);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            readers[i].start();
+            await().until(library::getQueueSize, equalTo(i + 1));
+        }
+
+        library.stopWriting(writer);
+        readers[0].join();
+        readers[1].join();
+
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertEquals(1, library.getQueueSize());
+        assertEquals("W kolejce: R-3. W bibliotece: R-1, R-2\n", library.printInfo());
+
+        readers[2].interrupt();
+        readers[2].join();
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void readersDoNotOvertakeWaitingWriter() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startReading(reader1);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startReading(reader2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(2));
+        assertFalse(library.isInside(reader2));
+
+        writerThread.interrupt();
+        writerThread.join();
+        readerThread.join();
+
+        assertTrue(library.isInside(reader2));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void interruptedWaiterLeavesQueue() throws InterruptedException {
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        library.startWriting(writer1);
+
+        Thread testThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        testThread.start();
+        await().until(() -> testThread.getState() == Thread.State.WAITING);
+
+        testThread.interrupt();
+        testThread.join();
+
+        assertEquals(0, library.getQueueSize());
+        assertFalse(library.isInside(writer2));
+        assertTrue(library.isInside(writer1));
+    }
+
+    @Test
+    void timedOutWaiterLeavesQueueWithoutWakingOthers() throws InterruptedException {
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer1);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(() -> writerThread.getState() == Thread.State.WAITING);
+        long waitsBefore = ManagementFactory.getThreadMXBean().getThreadInfo(writerThread.getId()).getWaitedCount();
+
+        assertFalse(library.tryStartReading(reader));
+        assertFalse(library.tryStartReading(reader, 100, TimeUnit.MILLISECONDS));
+        assertEquals(1, library.getQueueSize());
+        assertEquals(waitsBefore,
+                ManagementFactory.getThreadMXBean().getThreadInfo(writerThread.getId()).getWaitedCount());
+
+        library.stopWriting(writer1);
+        writerThread.join();
+        assertTrue(library.isInside(writer2));
+        assertFalse(library.tryStartWriting(writer1));
+        library.stopWriting(writer2);
+        assertTrue(library.tryStartWriting(writer1, 1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void releaseWakesOnlyNextEligibleWaiter() throws InterruptedException {
+        assertEveryReleaseWakesOnlyAdmitted(new FairLibrary(1));
+        assertEveryReleaseWakesOnlyAdmitted(new Library(1));
+    }
+
+    /**
+     * Queues writers behind a held library and lets them in one by one, checking that every release wakes
+     * only the writer it admits: the writers still queued never wake up and go back to the WAITING state.
+     */
+    private static void assertEveryReleaseWakesOnlyAdmitted(LibraryEngine engine) throws InterruptedException {
+        Identifier holder = new Identifier(0, Identifier.WRITER);
+        engine.startWriting(holder);
+
+        int writers = 4;
+        Identifier[] identifiers = new Identifier[writers];
+        Thread[] threads = new Thread[writers];
+        for (int i = 0; i < writers; i++) {
+            Identifier identifier = new Identifier(i + 1, Identifier.WRITER);
+            identifiers[i] = identifier;
+            threads[i] = new Thread(() -> {
+                try {
+                    engine.startWriting(identifier);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+            Thread thread = threads[i];
+            await().until(() -> thread.getState() == Thread.State.WAITING
+                    && engine.getQueueSize() == identifier.getId());
+        }
+
+        Identifier inside = holder;
+        for (int i = 0; i < writers; i++) {
+            long[] waitsBefore = new long[writers];
+            for (int j = i + 1; j < writers; j++) {
+                waitsBefore[j] = waitedCount(threads[j]);
+            }
+            engine.stopWriting(inside);
+            threads[i].join();
+            inside = identifiers[i];
+            assertTrue(engine.isInside(inside));
+            for (int j = i + 1; j < writers; j++) {
+                assertEquals(Thread.State.WAITING, threads[j].getState());
+                assertEquals(waitsBefore[j], waitedCount(threads[j]), "writer " + (j + 1) + " was woken up");
+            }
+        }
+        engine.stopWriting(inside);
+    }
+
+    private static long waitedCount(Thread thread) {
+        return ManagementFactory.getThreadMXBean().getThreadInfo(thread.threadId()).getWaitedCount();
+    }
+}
@@ -0,0 +1,213 @@
+package pl.pz1.problem.engines;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockFreeLibraryTests {
+    private LockFreeLibrary library;
+
+    @BeforeEach
+    void setUp() {
+        library = new LockFreeLibrary(2);
+    }
+
+    @Test
+    void testStartThenStopReading() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.READER);
+        library.startReading(identifier);
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+        assertTrue(library.isInside(identifier));
+        library.stopReading(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertFalse(library.isInside(identifier));
+    }
+
+    @Test
+    void testStartThenStopWriting() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.WRITER);
+        library.startWriting(identifier);
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        library.stopReading(identifier);
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        library.stopWriting(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void capacityOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeLibrary(0));
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeLibrary(LockFreeLibrary.MAX_CAPACITY + 1));
+    }
+
+    @Test
+    void readerWaitsWhenCapacityIsFull() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        Identifier reader3 = new Identifier(3, Identifier.READER);
+        library.startReading(reader1);
+        library.startReading(reader2);
+
+        Thread testThread = startReader(reader3);
+        await().until(library::getQueueSize, equalTo(1));
+        assertFalse(library.isInside(reader3));
+
+        library.stopReading(reader1);
+        testThread.join();
+        assertTrue(library.isInside(reader3));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertTrue(library.printInfo().startsWith("W kolejce: . W bibliotece: "));
+    }
+
+    @Test
+    void waitingWriterClosesFastPathForNewReaders() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startReading(reader1);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+
+        Thread readerThread = startReader(reader2);
+        await().until(library::getQueueSize, equalTo(2));
+        assertFalse(library.isInside(reader2));
+
+        library.stopReading(reader1);
+        writerThread.join();
+        assertTrue(library.isInside(writer));
+        assertFalse(library.isInside(reader2));
+
+        library.stopWriting(writer);
+        readerThread.join();
+        assertTrue(library.isInside(reader2));
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void interruptedWaiterLeavesQueueAndUnblocksThoseBehind() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startReading(reader1);
+
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        Thread readerThread = startReader(reader2);
+        await().until(library::getQueueSize, equalTo(2));
+
+        writerThread.interrupt();
+        writerThread.join();
+        readerThread.join();
+
+        assertFalse(library.isInside(writer));
+        assertTrue(library.isInside(reader2));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void timedOutWaiterReopensFastPath() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startWriting(writer);
+
+        assertFalse(library.tryStartReading(reader1));
+        assertFalse(library.tryStartReading(reader1, 50, TimeUnit.MILLISECONDS));
+        assertEquals(0, library.getQueueSize());
+
+        library.stopWriting(writer);
+        assertTrue(library.tryStartReading(reader1));
+        assertTrue(library.tryStartReading(reader2, 1, TimeUnit.SECONDS));
+        assertFalse(library.tryStartWriting(writer, 50, TimeUnit.MILLISECONDS));
+        library.stopReading(reader1);
+        library.stopReading(reader2);
+        assertTrue(library.tryStartWriting(writer));
+    }
+
+    @Test
+    void concurrentParticipantsNeverBreakCapacityOrExclusivity() throws InterruptedException {
+        LockFreeLibrary shared = new LockFreeLibrary(3);
+        AtomicInteger readersInside = new AtomicInteger();
+        AtomicInteger writersInside = new AtomicInteger();
+        AtomicBoolean violated = new AtomicBoolean();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            boolean writer = i % 4 == 0;
+            Identifier identifier = new Identifier(i, writer ? Identifier.WRITER : Identifier.READER);
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 2000; j++) {
+                        if (writer) {
+                            shared.startWriting(identifier);
+                            int writers = writersInside.incrementAndGet();
+                            violated.compareAndSet(false, writers != 1 || readersInside.get() != 0);
+                            writersInside.decrementAndGet();
+                            shared.stopWriting(identifier);
+                        }
+                        else {
+                            shared.startReading(identifier);
+                            int readers = readersInside.incrementAndGet();
+                            violated.compareAndSet(false, readers > 3 || writersInside.get() != 0);
+                            Thread.onSpinWait();
+                            readersInside.decrementAndGet();
+                            shared.stopReading(identifier);
+                        }
+                        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(violated.get());
+        assertEquals(0, shared.getOccupiedPlacesAmount());
+        assertEquals(0, shared.getQueueSize());
+    }
+
+    private Thread startReader(Identifier identifier) {
+        Thread thread = new Thread(() -> {
+            try {
+                library.startReading(identifier);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,144 @@
+package pl.pz1.problem.engines;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotLibraryTests {
+    private List<String> reclaimed;
+    private SnapshotLibrary<String> library;
+
+    @BeforeEach
+    void setUp() {
+        reclaimed = new ArrayList<>();
+        library = new SnapshotLibrary<>(3, NoOpEventSink.INSTANCE, "v0", reclaimed::add);
+    }
+
+    @Test
+    void readerIsNotHeldBackByWriterAndKeepsItsVersion() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startWriting(writer);
+        library.startReading(reader1);
+        assertTrue(library.isInside(reader1));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+
+        library.publish(writer, "v1");
+        assertEquals("v0", library.getSnapshot(reader1));
+        library.startReading(reader2);
+        assertEquals("v1", library.getSnapshot(reader2));
+        library.stopWriting(writer);
+
+        library.stopReading(reader1);
+        library.stopReading(reader2);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertThrows(IllegalStateException.class, () -> library.getSnapshot(reader1));
+        assertThrows(IllegalStateException.class, () -> library.publish(writer, "v2"));
+    }
+
+    @Test
+    void replacedVersionIsReclaimedOnlyAfterItsReadersLeave() throws InterruptedException {
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startReading(reader);
+        library.update(writer, version -> "v1");
+        library.update(writer, version -> "v2");
+        assertEquals(0, library.getEpochs().reclaim());
+        assertEquals(List.of(), reclaimed);
+        assertEquals(2, library.getEpochs().getRetiredCount());
+
+        library.stopReading(reader);
+        assertEquals(2, library.getEpochs().reclaim());
+        assertEquals(List.of("v0", "v1"), reclaimed);
+        assertEquals(0, library.getEpochs().getPinnedCount());
+        assertEquals("v2", library.read(reader, version -> version));
+    }
+
+    @Test
+    void writersExcludeEachOther() throws InterruptedException {
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        library.startWriting(writer1);
+        assertFalse(library.tryStartWriting(writer2));
+        assertFalse(library.tryStartWriting(writer2, 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, library.getQueueSize());
+
+        Thread testThread = Thread.ofPlatform().start(() -> {
+            try {
+                library.startWriting(writer2);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        await().until(library::getQueueSize, equalTo(1));
+        assertFalse(library.isInside(writer2));
+
+        library.stopWriting(writer1);
+        testThread.join();
+        assertTrue(library.isInside(writer2));
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void recycledVersionsAreNeverSeenTorn() throws InterruptedException {
+        Queue<int[]> pool = new ConcurrentLinkedQueue<>();
+        SnapshotLibrary<int[]> arrays = new SnapshotLibrary<>(3, NoOpEventSink.INSTANCE, new int[64], pool::add);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger torn = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Identifier reader = new Identifier(i, Identifier.READER);
+            threads.add(Thread.ofPlatform().start(() -> {
+                while (running.get()) {
+                    boolean consistent = arrays.read(reader, version -> {
+                        for (int value : version) {
+                            if (value != version[0]) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    });
+                    if (!consistent) {
+                        torn.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        for (int i = 1; i <= 20_000; i++) {
+            int value = i;
+            arrays.update(writer, version -> {
+                int[] next = pool.poll();
+                if (next == null) {
+                    next = new int[version.length];
+                }
+                Arrays.fill(next, value);
+                return next;
+            });
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, torn.get());
+        assertTrue(arrays.getEpochs().getReclaimedCount() > 0);
+    }
+}
@@ -0,0 +1,222 @@
+package pl.pz1.problem.engines;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLibraryTests {
+    private StripedLibrary library;
+
+    @BeforeEach
+    void setUp() {
+        library = new StripedLibrary(3, 8, NoOpEventSink.INSTANCE);
+    }
+
+    @Test
+    void testStartThenStopReading() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.READER);
+        library.startReading(identifier);
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+        assertTrue(library.isInside(identifier));
+        library.stopReading(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertFalse(library.isInside(identifier));
+    }
+
+    @Test
+    void testStartThenStopWriting() throws InterruptedException {
+        Identifier identifier = new Identifier(1, Identifier.WRITER);
+        library.startWriting(identifier);
+        assertEquals(3, library.getOccupiedPlacesAmount());
+        library.stopReading(identifier);
+        assertEquals(3, library.getOccupiedPlacesAmount());
+        library.stopWriting(identifier);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void stripesAreRoundedToPowerOfTwo() {
+        assertEquals(8, new StripedLibrary(1, 5, NoOpEventSink.INSTANCE).getStripes());
+        assertThrows(IllegalArgumentException.class, () -> new StripedLibrary(0, 1, NoOpEventSink.INSTANCE));
+        assertThrows(IllegalArgumentException.class, () -> new StripedLibrary(1, 0, NoOpEventSink.INSTANCE));
+    }
+
+    @Test
+    void capacityIsExactEvenWhenPermitsAreStolenFromOtherStripes() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        Identifier reader3 = new Identifier(3, Identifier.READER);
+        Identifier reader4 = new Identifier(4, Identifier.READER);
+        library.startReading(reader1);
+        library.startReading(reader2);
+        library.startReading(reader3);
+
+        Thread testThread = startReader(reader4);
+        await().until(library::getQueueSize, equalTo(1));
+        assertFalse(library.isInside(reader4));
+        assertEquals(3, library.getOccupiedPlacesAmount());
+
+        library.stopReading(reader2);
+        testThread.join();
+        assertTrue(library.isInside(reader4));
+        assertEquals(3, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void pendingWriterDrainsReadersAndHoldsBackNewOnes() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        library.startReading(reader1);
+
+        Thread writerThread = startWriter(writer);
+        await().until(library::getQueueSize, equalTo(1));
+        Thread readerThread = startReader(reader2);
+        await().until(library::getQueueSize, equalTo(2));
+        assertFalse(library.isInside(reader2));
+
+        library.stopReading(reader1);
+        writerThread.join();
+        assertTrue(library.isInside(writer));
+        assertFalse(library.isInside(reader2));
+
+        library.stopWriting(writer);
+        readerThread.join();
+        assertTrue(library.isInside(reader2));
+        assertEquals(1, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void interruptedDrainingWriterGivesPermitsBack() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startReading(reader1);
+
+        Thread writerThread = startWriter(writer);
+        await().until(library::getQueueSize, equalTo(1));
+        writerThread.interrupt();
+        writerThread.join();
+
+        assertFalse(library.isInside(writer));
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        Identifier reader3 = new Identifier(3, Identifier.READER);
+        library.startReading(reader2);
+        library.startReading(reader3);
+        assertEquals(3, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void tryStartWritingSucceedsOnlyInEmptyLibrary() throws InterruptedException {
+        Identifier reader = new Identifier(1, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startReading(reader);
+        assertFalse(library.tryStartWriting(writer));
+        assertEquals(1, library.getOccupiedPlacesAmount());
+
+        library.stopReading(reader);
+        assertTrue(library.tryStartWriting(writer));
+        assertFalse(library.tryStartReading(reader));
+        library.stopWriting(writer);
+        assertTrue(library.tryStartReading(reader));
+    }
+
+    @Test
+    void timedOutDrainingWriterGivesPermitsBack() throws InterruptedException {
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        library.startReading(reader1);
+
+        assertFalse(library.tryStartWriting(writer, 100, TimeUnit.MILLISECONDS));
+        assertEquals(0, library.getQueueSize());
+        assertEquals(1, library.getOccupiedPlacesAmount());
+        assertTrue(library.tryStartReading(reader2, 1, TimeUnit.SECONDS));
+        assertEquals(2, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void concurrentParticipantsNeverBreakCapacityOrExclusivity() throws InterruptedException {
+        StripedLibrary shared = new StripedLibrary(3, 4, NoOpEventSink.INSTANCE);
+        AtomicInteger readersInside = new AtomicInteger();
+        AtomicInteger writersInside = new AtomicInteger();
+        AtomicBoolean violated = new AtomicBoolean();
+
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            boolean writer = i % 4 == 0;
+            Identifier identifier = new Identifier(i, writer ? Identifier.WRITER : Identifier.READER);
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 2000; j++) {
+                        if (writer) {
+                            shared.startWriting(identifier);
+                            int writers = writersInside.incrementAndGet();
+                            violated.compareAndSet(false, writers != 1 || readersInside.get() != 0);
+                            writersInside.decrementAndGet();
+                            shared.stopWriting(identifier);
+                        }
+                        else {
+                            shared.startReading(identifier);
+                            int readers = readersInside.incrementAndGet();
+                            violated.compareAndSet(false, readers > 3 || writersInside.get() != 0);
+                            Thread.onSpinWait();
+                            readersInside.decrementAndGet();
+                            shared.stopReading(identifier);
+                        }
+                        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(violated.get());
+        assertEquals(0, shared.getOccupiedPlacesAmount());
+        assertEquals(0, shared.getQueueSize());
+    }
+
+    private Thread startReader(Identifier identifier) {
+        Thread thread = new Thread(() -> {
+            try {
+                library.startReading(identifier);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private Thread startWriter(Identifier identifier) {
+        Thread thread = new Thread(() -> {
+            try {
+                library.startWriting(identifier);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,86 @@
+package pl.pz1.problem.events;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncEventSinkTests {
+    @Test
+    void libraryEventsAreFormattedInPolishOnceDrained() throws InterruptedException {
+        StringBuilder out = new StringBuilder();
+        AsyncEventSink sink = new AsyncEventSink(16, new FormattingEventWriter(out, new PolishEventFormatter()));
+        Library library = new Library(3, sink);
+        Identifier reader = new Identifier(7, Identifier.READER);
+
+        library.startReading(reader);
+        library.stopReading(reader);
+        sink.close();
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertArrayEquals(new String[] {
+                "Czytelnik 7 stanął w kolejce i czeka na wejście. W kolejce: 1. Zajęte miejsca: 0",
+                "Czytelnik 7 wszedł i czyta... W kolejce: 0. Zajęte miejsca: 1",
+                "Czytelnik 7 opuścił bibliotekę. W kolejce: 0. Zajęte miejsca: 0"
+        }, lines);
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    void eventsAreDroppedInsteadOfBlockingWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        int[] written = new int[1];
+        AsyncEventSink sink = new AsyncEventSink(4, new EventWriter() {
+            @Override
+            public void write(EventKind kind, int id, boolean writer, long timestamp, int queueDepth,
+                              int occupiedPlaces) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written[0]++;
+            }
+
+            @Override
+            public void flush() {
+                // nothing buffered
+            }
+        });
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+
+        sink.emit(EventKind.ENQUEUED, writer, true, 1, 0);
+        blocked.await();
+        for (int i = 0; i < 10; i++) {
+            sink.emit(EventKind.ADMITTED, writer, true, 0, 1);
+        }
+        release.countDown();
+        sink.close();
+
+        assertEquals(7, sink.getDroppedCount());
+        assertEquals(4, written[0]);
+    }
+
+    @Test
+    void noOpSinkKeepsLibrarySilent() throws InterruptedException {
+        PrintStream standardOut = System.out;
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bos));
+        try {
+            Library library = new Library(1, NoOpEventSink.INSTANCE);
+            Identifier writer = new Identifier(1, Identifier.WRITER);
+            library.startWriting(writer);
+            library.stopWriting(writer);
+        } finally {
+            System.setOut(standardOut);
+        }
+        assertEquals(0, bos.size());
+    }
+}
@@ -0,0 +1,87 @@
+package pl.pz1.problem.events.trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.AsyncEventSink;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTraceTests {
+    @Test
+    void libraryEventsAreReadBackAcrossSegments(@TempDir Path directory) throws IOException, InterruptedException {
+        Path file = directory.resolve("library.trace");
+        BinaryTraceWriter trace = new BinaryTraceWriter(file, 2);
+        AsyncEventSink sink = new AsyncEventSink(16, trace);
+        Library library = new Library(2, sink);
+        Identifier writer = new Identifier(4, Identifier.WRITER);
+        Identifier reader = new Identifier(7, Identifier.READER);
+
+        library.startWriting(writer);
+        library.stopWriting(writer);
+        library.startReading(reader);
+        assertFalse(library.tryStartWriting(writer));
+        library.stopReading(reader);
+        sink.close();
+        trace.close();
+
+        assertEquals(BinaryTraceWriter.HEADER_SIZE + 8L * BinaryTraceWriter.RECORD_SIZE, Files.size(file));
+        List<TraceEvent> events = readAll(file);
+        assertEquals(List.of(EventKind.ENQUEUED, EventKind.ADMITTED, EventKind.RELEASED, EventKind.ENQUEUED,
+                EventKind.ADMITTED, EventKind.ENQUEUED, EventKind.TIMED_OUT, EventKind.RELEASED),
+                events.stream().map(TraceEvent::getKind).toList());
+        assertEquals(4, events.get(0).getId());
+        assertTrue(events.get(0).isWriter());
+        assertEquals(2, events.get(1).getOccupiedPlaces());
+        assertEquals(7, events.get(4).getId());
+        assertFalse(events.get(4).isWriter());
+        assertEquals(1, events.get(5).getQueueDepth());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).getTime() >= events.get(i - 1).getTime());
+        }
+        assertTrue(events.get(0).getTime() >= 0);
+    }
+
+    @Test
+    void traceOfUnclosedWriterEndsAtLastWrittenRecord(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("crashed.trace");
+        BinaryTraceWriter trace = new BinaryTraceWriter(file, 4);
+        for (int i = 0; i < 5; i++) {
+            trace.write(EventKind.ENQUEUED, i, false, System.nanoTime(), i + 1, 0);
+        }
+
+        assertEquals(BinaryTraceWriter.HEADER_SIZE + 8L * BinaryTraceWriter.RECORD_SIZE, Files.size(file));
+        List<TraceEvent> events = readAll(file);
+        assertEquals(5, events.size());
+        assertEquals(4, events.get(4).getId());
+        assertEquals(5, events.get(4).getQueueDepth());
+        trace.close();
+    }
+
+    @Test
+    void fileWhichIsNotTraceIsRejected(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[BinaryTraceWriter.HEADER_SIZE]);
+        assertThrows(IOException.class, () -> new BinaryTraceReader(file));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryTraceWriter(file, 0));
+    }
+
+    private static List<TraceEvent> readAll(Path file) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+            TraceEvent event;
+            while ((event = reader.next()) != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,432 @@
+package pl.pz1.problem.fairness;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.queue.PriorityClass;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairnessPolicyTests {
+    private Library library;
+    private final List<Thread> waiting = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Thread thread : waiting) {
+            thread.interrupt();
+            thread.join();
+        }
+    }
+
+    @Test
+    void fifoReaderDoesNotOvertakeWaitingWriter() throws InterruptedException {
+        library = new Library(2, new FifoPolicy(), NoOpEventSink.INSTANCE);
+        Identifier reader1 = reader(1);
+        Identifier writer = writer(1);
+        Identifier reader2 = reader(2);
+        library.startReading(reader1);
+        queue(writer);
+        queue(reader2);
+
+        assertFalse(library.isInside(reader2));
+        library.stopReading(reader1);
+        assertTrue(library.isInside(writer));
+        library.stopWriting(writer);
+        assertTrue(library.isInside(reader2));
+    }
+
+    @Test
+    void readerPreferenceReadersOvertakeWaitingWriter() throws InterruptedException {
+        library = new Library(2, new ReaderPreferencePolicy(), NoOpEventSink.INSTANCE);
+        Identifier reader1 = reader(1);
+        Identifier writer = writer(1);
+        Identifier reader2 = reader(2);
+        Identifier reader3 = reader(3);
+        library.startReading(reader1);
+        queue(writer);
+
+        library.startReading(reader2);
+        queue(reader3);
+        library.stopReading(reader1);
+        assertTrue(library.isInside(reader3));
+        assertFalse(library.isInside(writer));
+
+        library.stopReading(reader2);
+        library.stopReading(reader3);
+        assertTrue(library.isInside(writer));
+    }
+
+    @Test
+    void writerPreferenceHoldsBackNewReadersForWaitingWriter() throws InterruptedException {
+        library = new Library(2, new WriterPreferencePolicy(2), NoOpEventSink.INSTANCE);
+        Identifier reader1 = reader(1);
+        Identifier writer = writer(1);
+        Identifier reader2 = reader(2);
+        library.startReading(reader1);
+        queue(writer);
+        queue(reader2);
+
+        library.stopReading(reader1);
+        assertTrue(library.isInside(writer));
+        assertFalse(library.isInside(reader2));
+    }
+
+    @Test
+    void writerPreferenceLetsAtMostWindowWritersOvertakeReader() throws InterruptedException {
+        library = new Library(2, new WriterPreferencePolicy(2), NoOpEventSink.INSTANCE);
+        Identifier writer0 = writer(0);
+        library.startWriting(writer0);
+
+        Identifier reader = reader(1);
+        queue(reader);
+        Identifier[] writers = {writer(1), writer(2), writer(3)};
+        for (Identifier writer : writers) {
+            queue(writer);
+        }
+
+        library.stopWriting(writer0);
+        assertTrue(library.isInside(writers[0]));
+        library.stopWriting(writers[0]);
+        assertTrue(library.isInside(writers[1]));
+        library.stopWriting(writers[1]);
+        assertTrue(library.isInside(reader));
+        assertFalse(library.isInside(writers[2]));
+
+        library.stopReading(reader);
+        assertTrue(library.isInside(writers[2]));
+    }
+
+    @Test
+    void writerPreferenceReaderTimingOutDoesNotLeaveItsTurnToLaterReader() throws InterruptedException {
+        library = new Library(1, new WriterPreferencePolicy(1), NoOpEventSink.INSTANCE);
+        Identifier writer1 = writer(1);
+        Identifier writer2 = writer(2);
+        Identifier writer3 = writer(3);
+        Identifier owed = reader(1);
+        Identifier later = reader(2);
+        library.startWriting(writer1);
+        queue(writer2);
+        queue(() -> library.tryStartReading(owed, 1, TimeUnit.SECONDS));
+
+        library.stopWriting(writer1);
+        assertTrue(library.isInside(writer2));
+        queue(later);
+        queue(writer3);
+        await().until(library::getQueueSize, equalTo(2));
+        assertFalse(library.isInside(owed));
+
+        library.stopWriting(writer2);
+        assertTrue(library.isInside(writer3));
+        assertFalse(library.isInside(later));
+        library.stopWriting(writer3);
+        assertTrue(library.isInside(later));
+    }
+
+    @Test
+    void writerPreferenceRejectsEmptyWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new WriterPreferencePolicy(0));
+    }
+
+    @Test
+    void phaseFairAlternatesReaderAndWriterPhases() throws InterruptedException {
+        library = new Library(2, new PhaseFairPolicy(), NoOpEventSink.INSTANCE);
+        Identifier reader1 = reader(1);
+        Identifier writer1 = writer(1);
+        Identifier reader2 = reader(2);
+        Identifier writer2 = writer(2);
+        Identifier reader3 = reader(3);
+        library.startReading(reader1);
+        queue(writer1);
+        queue(reader2);
+        queue(writer2);
+        queue(reader3);
+        assertFalse(library.isInside(reader2));
+
+        library.stopReading(reader1);
+        assertTrue(library.isInside(writer1));
+
+        library.stopWriting(writer1);
+        assertTrue(library.isInside(reader2));
+        assertTrue(library.isInside(reader3));
+        assertFalse(library.isInside(writer2));
+
+        library.stopReading(reader2);
+        assertFalse(library.isInside(writer2));
+        library.stopReading(reader3);
+        assertTrue(library.isInside(writer2));
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void phaseFairReaderArrivingDuringReaderPhaseWaitsForOneWriter() throws InterruptedException {
+        library = new Library(3, new PhaseFairPolicy(), NoOpEventSink.INSTANCE);
+        Identifier reader1 = reader(1);
+        Identifier writer = writer(1);
+        Identifier reader2 = reader(2);
+        library.startReading(reader1);
+        queue(writer);
+        queue(reader2);
+
+        library.stopReading(reader1);
+        assertTrue(library.isInside(writer));
+        library.stopWriting(writer);
+        assertTrue(library.isInside(reader2));
+    }
+
+    @Test
+    void phaseFairReaderGivingUpDoesNotLeaveItsTurnToLaterReader() throws InterruptedException {
+        library = new Library(1, new PhaseFairPolicy(), NoOpEventSink.INSTANCE);
+        Identifier writer1 = writer(1);
+        Identifier reader1 = reader(1);
+        Identifier reader2 = reader(2);
+        Identifier writer2 = writer(2);
+        Identifier reader3 = reader(3);
+        library.startWriting(writer1);
+        queue(reader1);
+        queue(reader2);
+        Thread cancelled = waiting.get(waiting.size() - 1);
+        queue(writer2);
+
+        library.stopWriting(writer1);
+        assertTrue(library.isInside(reader1));
+        queue(reader3);
+        cancelled.interrupt();
+        cancelled.join();
+        assertEquals(2, library.getQueueSize());
+
+        library.stopReading(reader1);
+        assertTrue(library.isInside(writer2));
+        assertFalse(library.isInside(reader3));
+        library.stopWriting(writer2);
+        assertTrue(library.isInside(reader3));
+    }
+
+    @Test
+    void everyPolicyKeepsCapacityAndExclusivity() throws InterruptedException {
+        for (FairnessType type : FairnessType.values()) {
+            Library shared = new Library(3, type.create(), NoOpEventSink.INSTANCE);
+            AtomicInteger readersInside = new AtomicInteger();
+            AtomicInteger writersInside = new AtomicInteger();
+            AtomicBoolean violated = new AtomicBoolean();
+
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                boolean isWriter = i % 4 == 0;
+                Identifier identifier = new Identifier(i, isWriter ? Identifier.WRITER : Identifier.READER);
+                threads[i] = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < 500; j++) {
+                            if (isWriter) {
+                                shared.startWriting(identifier);
+                                int writers = writersInside.incrementAndGet();
+                                violated.compareAndSet(false, writers != 1 || readersInside.get() != 0);
+                                writersInside.decrementAndGet();
+                                shared.stopWriting(identifier);
+                            }
+                            else {
+                                shared.startReading(identifier);
+                                int readers = readersInside.incrementAndGet();
+                                violated.compareAndSet(false, readers > 3 || writersInside.get() != 0);
+                                readersInside.decrementAndGet();
+                                shared.stopReading(identifier);
+                            }
+                            if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                                Thread.yield();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertFalse(violated.get(), type.name());
+            assertEquals(0, shared.getOccupiedPlacesAmount(), type.name());
+            assertEquals(0, shared.getQueueSize(), type.name());
+        }
+    }
+
+    @Test
+    void heavyReaderIsNotOvertakenByLighterReaders() throws InterruptedException {
+        for (FairnessType type : FairnessType.values()) {
+            library = new Library(5, type.create(), NoOpEventSink.INSTANCE);
+            Identifier light1 = reader(1);
+            Identifier light2 = reader(2);
+            Identifier heavy = reader(3);
+            Identifier light3 = reader(4);
+            library.startReading(light1);
+            library.startReading(light2, 2);
+            queue(heavy, 4);
+            queue(light3);
+
+            assertFalse(library.isInside(light3), type.name());
+            library.stopReading(light2);
+            assertTrue(library.isInside(heavy), type.name());
+            assertFalse(library.isInside(light3), type.name());
+            assertEquals(5, library.getOccupiedPlacesAmount(), type.name());
+            library.stopReading(light1);
+            assertTrue(library.isInside(light3), type.name());
+            library.stopReading(heavy);
+            assertEquals(1, library.getOccupiedPlacesAmount(), type.name());
+            assertThrows(IllegalArgumentException.class, () -> library.startReading(reader(5), 6), type.name());
+            tearDown();
+            waiting.clear();
+        }
+
+        library = new Library(5, new EarliestDeadlinePolicy(), NoOpEventSink.INSTANCE);
+        Identifier light1 = reader(1);
+        Identifier light2 = reader(2);
+        Identifier heavy = reader(3);
+        Identifier critical1 = reader(4);
+        Identifier critical2 = reader(5);
+        library.startReading(light1);
+        library.startReading(light2, 2);
+        Thread heavyThread = new Thread(() -> {
+            try {
+                library.startReading(heavy, 4, PriorityClass.BATCH);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        heavyThread.start();
+        waiting.add(heavyThread);
+        await().pollDelay(Duration.ZERO).pollInterval(Duration.ofMillis(1))
+                .until(library::getQueueSize, equalTo(1));
+        library.startReading(critical1, PriorityClass.CRITICAL);
+        assertTrue(library.isInside(critical1));
+        assertFalse(library.isInside(heavy));
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(PriorityClass.BATCH.getDeadlineNanos()));
+        queue(critical2, PriorityClass.CRITICAL);
+        library.stopReading(light2);
+        assertFalse(library.isInside(critical2));
+        library.stopReading(critical1);
+        assertTrue(library.isInside(heavy));
+        assertFalse(library.isInside(critical2));
+        library.stopReading(light1);
+        assertTrue(library.isInside(critical2));
+    }
+
+    @Test
+    void earliestDeadlineAdmitsWaiterDueFirstAndBatchesReaders() throws InterruptedException {
+        library = new Library(2, new EarliestDeadlinePolicy(), NoOpEventSink.INSTANCE);
+        Identifier writer1 = writer(1);
+        Identifier batchReader = reader(1);
+        Identifier writer2 = writer(2);
+        Identifier criticalReader = reader(2);
+        library.startWriting(writer1);
+        queue(batchReader, PriorityClass.BATCH);
+        queue(writer2, PriorityClass.NORMAL);
+        queue(criticalReader, PriorityClass.CRITICAL);
+
+        library.stopWriting(writer1);
+        assertTrue(library.isInside(criticalReader));
+        assertTrue(library.isInside(batchReader));
+        assertFalse(library.isInside(writer2));
+
+        library.stopReading(criticalReader);
+        library.stopReading(batchReader);
+        assertTrue(library.isInside(writer2));
+    }
+
+    @Test
+    void earliestDeadlineAgesBatchJobs() throws InterruptedException {
+        library = new Library(2, new EarliestDeadlinePolicy(), NoOpEventSink.INSTANCE);
+        Identifier writer1 = writer(1);
+        Identifier batchReader = reader(1);
+        Identifier criticalWriter = writer(2);
+        library.startWriting(writer1);
+        queue(batchReader, PriorityClass.BATCH);
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(PriorityClass.BATCH.getDeadlineNanos()));
+        queue(criticalWriter, PriorityClass.CRITICAL);
+
+        library.stopWriting(writer1);
+        assertTrue(library.isInside(batchReader));
+        assertFalse(library.isInside(criticalWriter));
+        library.stopReading(batchReader);
+        assertTrue(library.isInside(criticalWriter));
+    }
+
+    private static Identifier reader(int id) {
+        return new Identifier(id, Identifier.READER);
+    }
+
+    private static Identifier writer(int id) {
+        return new Identifier(id, Identifier.WRITER);
+    }
+
+    /**
+     * Starts a thread which asks for access in the role of the identifier and waits until it is queued.
+     */
+    private void queue(Identifier identifier) {
+        queue(identifier, 1);
+    }
+
+    /**
+     * Starts a thread which asks for access in the role of the identifier, reading with the given weight,
+     * and waits until it is queued.
+     */
+    private void queue(Identifier identifier, int weight) {
+        queue(() -> {
+            if (identifier.getName().equals(Identifier.WRITER)) {
+                library.startWriting(identifier);
+            }
+            else {
+                library.startReading(identifier, weight);
+            }
+        });
+    }
+
+    /**
+     * Starts a thread which asks for access in the role of the identifier and the given class of service,
+     * and waits until it is queued.
+     */
+    private void queue(Identifier identifier, PriorityClass priority) {
+        queue(() -> {
+            if (identifier.getName().equals(Identifier.WRITER)) {
+                library.startWriting(identifier, priority);
+            }
+            else {
+                library.startReading(identifier, priority);
+            }
+        });
+    }
+
+    private void queue(Entering entering) {
+        int queued = library.getQueueSize();
+        Thread thread = new Thread(() -> {
+            try {
+                entering.enter();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        waiting.add(thread);
+        await().until(library::getQueueSize, equalTo(queued + 1));
+    }
+
+    /**
+     * Asking for access by a waiting thread.
+     */
+    private interface Entering {
+        void enter() throws InterruptedException;
+    }
+}
@@ -0,0 +1,73 @@
+package pl.pz1.problem.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTests {
+    @Test
+    void everyValueFallsIntoSubBucketCoveringIt() {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1000, 123_456_789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.indexOf(value);
+            assertTrue(Histogram.lowestValueAt(index) <= value, "lowest of " + value);
+            assertTrue(Histogram.highestValueAt(index) >= value, "highest of " + value);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long value = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+            int index = Histogram.indexOf(value);
+            long width = Histogram.highestValueAt(index) - Histogram.lowestValueAt(index);
+            assertTrue(width <= value / 32, "resolution of " + value);
+        }
+    }
+
+    @Test
+    void percentilesAndExtremesOfRecordedValues() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1001, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_000, snapshot.getValueAtPercentile(50), 500_000 / 32.0);
+        assertEquals(990_000, snapshot.getValueAtPercentile(99), 990_000 / 32.0);
+        assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+        assertEquals(500_000, snapshot.getMean(), 500_000 / 32.0);
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtPercentile(101));
+    }
+
+    @Test
+    void emptySnapshotReportsZeros() {
+        HistogramSnapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMean());
+    }
+
+    @Test
+    void concurrentRecordingLosesNoValue() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    histogram.record(j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.snapshot().getCount());
+        assertEquals(9_999, histogram.snapshot().getMax());
+    }
+}
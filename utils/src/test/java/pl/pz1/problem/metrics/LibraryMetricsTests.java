@@ -0,0 +1,150 @@
+package pl.pz1.problem.metrics;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.queue.PriorityClass;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryMetricsTests {
+    @Test
+    void serviceLevelCountsMissesPerClass() throws InterruptedException {
+        Library library = new Library(2, NoOpEventSink.INSTANCE);
+        library.startReading(new Identifier(1, Identifier.READER), PriorityClass.CRITICAL);
+        LibraryMetrics metrics = library.getMetrics();
+        long deadline = PriorityClass.CRITICAL.getDeadlineNanos();
+        metrics.recordServiceLevel(PriorityClass.CRITICAL, deadline / 2);
+        metrics.recordServiceLevel(PriorityClass.CRITICAL, 3 * deadline);
+
+        ServiceLevelSnapshot critical = metrics.serviceLevel(PriorityClass.CRITICAL);
+        assertEquals(3, critical.getAdmitted());
+        assertEquals(1, critical.getMissed());
+        assertEquals(1.0 / 3, critical.getMissRatio(), 1e-9);
+        assertTrue(critical.getLateness().getMax() >= 2 * deadline);
+        assertEquals(0, metrics.serviceLevel(PriorityClass.BATCH).getAdmitted());
+        assertEquals(0, metrics.serviceLevel(PriorityClass.BATCH).getMissRatio());
+    }
+
+    @Test
+    void libraryRecordsWaitingAndHoldingPerRole() throws InterruptedException {
+        Library library = new Library(2, NoOpEventSink.INSTANCE);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startReading(reader);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        Thread.sleep(20);
+        library.stopWriting(writer);
+        readerThread.join();
+        library.stopReading(reader);
+
+        MetricsSnapshot snapshot = library.getMetrics().snapshot();
+        assertEquals(1, snapshot.getWriters().getAdmitted());
+        assertEquals(1, snapshot.getWriters().getReleased());
+        assertEquals(1, snapshot.getReaders().getAdmitted());
+        assertEquals(1, snapshot.getReaders().getReleased());
+        assertTrue(snapshot.getReaders().getWaitTimes().getMin() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(snapshot.getWriters().getHoldTimes().getMin() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(2, snapshot.getOccupancy().getMax());
+        assertEquals(1, snapshot.getQueueDepth().getMax());
+        assertTrue(snapshot.getThroughput() > 0);
+    }
+
+    @Test
+    void libraryCountsTimeoutsAndCancellations() throws InterruptedException {
+        Library library = new Library(1, NoOpEventSink.INSTANCE);
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer1);
+
+        assertFalse(library.tryStartReading(reader, 10, TimeUnit.MILLISECONDS));
+        Thread writerThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        writerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        writerThread.interrupt();
+        writerThread.join();
+
+        MetricsSnapshot snapshot = library.getMetrics().snapshot();
+        assertEquals(1, snapshot.getReaders().getTimedOut());
+        assertEquals(0, snapshot.getReaders().getAdmitted());
+        assertEquals(1, snapshot.getWriters().getCancelled());
+        assertEquals(1, snapshot.getWriters().getAdmitted());
+    }
+
+    @Test
+    void onlyEveryNthChangeIsSampled() throws InterruptedException {
+        Library library = new Library(4, new FifoPolicy(), NoOpEventSink.INSTANCE, new LibraryMetrics(3));
+        for (int i = 0; i < 4; i++) {
+            library.startReading(new Identifier(i, Identifier.READER));
+        }
+        assertEquals(2, library.getMetrics().snapshot().getOccupancy().getCount());
+        assertThrows(IllegalArgumentException.class, () -> new LibraryMetrics(0));
+    }
+
+    @Test
+    void fileExporterAppendsLineOnEveryExport(@TempDir Path directory) throws IOException {
+        LibraryMetrics metrics = new LibraryMetrics();
+        metrics.recordAdmitted(true, 5_000);
+        Path file = directory.resolve("metrics.log");
+
+        FileMetricsExporter exporter = new FileMetricsExporter(metrics, file, 1, TimeUnit.HOURS);
+        exporter.exportNow();
+        exporter.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("writers.admitted=1"));
+        assertTrue(lines.get(0).contains("writers.wait.max_us=5"));
+        assertEquals(0, exporter.getFailedCount());
+    }
+
+    @Test
+    void jmxExporterPublishesLatestSnapshot() throws JMException {
+        LibraryMetrics metrics = new LibraryMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        JmxMetricsExporter exporter = new JmxMetricsExporter(metrics, "test", 1, TimeUnit.HOURS);
+        try {
+            metrics.recordAdmitted(false, 3_000_000);
+            assertEquals(0L, server.getAttribute(exporter.getObjectName(), "ReadersAdmitted"));
+
+            exporter.exportNow();
+            assertEquals(1L, server.getAttribute(exporter.getObjectName(), "ReadersAdmitted"));
+            assertEquals(3000L, server.getAttribute(exporter.getObjectName(), "ReaderWaitP99Micros"));
+        }
+        finally {
+            exporter.close();
+        }
+        assertFalse(server.isRegistered(exporter.getObjectName()));
+    }
+}
@@ -0,0 +1,82 @@
+package pl.pz1.problem.queue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitQueueTests {
+    private WaitQueue queue;
+    private WaitNode first;
+    private WaitNode second;
+    private WaitNode third;
+
+    @BeforeEach
+    void setUp() {
+        queue = new WaitQueue();
+        first = new WaitNode(new Identifier(1, Identifier.READER), false);
+        second = new WaitNode(new Identifier(1, Identifier.WRITER), true);
+        third = new WaitNode(new Identifier(2, Identifier.READER), false);
+        queue.add(first);
+        queue.add(second);
+        queue.add(third);
+    }
+
+    @Test
+    void pollKeepsArrivalOrder() {
+        assertEquals(3, queue.size());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void removeUnlinksNodeFromTheMiddle() {
+        assertTrue(queue.remove(second));
+        assertFalse(queue.remove(second));
+        assertFalse(second.isQueued());
+        assertEquals(List.of(first.getIdentifier(), third.getIdentifier()), queue.identifiers());
+
+        assertTrue(queue.remove(third));
+        assertTrue(queue.remove(first));
+        assertNull(queue.peek());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void firstOfRoleFollowsRemovals() {
+        assertSame(first, queue.firstReader());
+        assertSame(second, queue.firstWriter());
+        assertEquals(2, queue.readers());
+        assertEquals(1, queue.writers());
+
+        queue.poll();
+        assertSame(third, queue.firstReader());
+        queue.remove(second);
+        assertNull(queue.firstWriter());
+        assertEquals(1, queue.readers());
+        assertEquals(0, queue.writers());
+    }
+
+    @Test
+    void removedNodeCanBeQueuedAgainButNotTwice() {
+        queue.remove(first);
+        queue.add(first);
+        assertEquals(3, queue.size());
+        assertSame(first, lastOf(queue));
+        assertThrows(IllegalStateException.class, () -> queue.add(first));
+    }
+
+    private static WaitNode lastOf(WaitQueue queue) {
+        WaitNode last = null;
+        for (WaitNode node : queue) {
+            last = node;
+        }
+        return last;
+    }
+}
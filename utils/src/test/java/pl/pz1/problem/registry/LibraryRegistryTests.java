@@ -0,0 +1,159 @@
+package pl.pz1.problem.registry;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.StripedLibrary;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryRegistryTests {
+    @Test
+    void differentKeysDoNotBlockEachOther() throws InterruptedException {
+        LibraryRegistry<String> registry = new LibraryRegistry<>(2, 10);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+
+        registry.get("a").startWriting(writer);
+        assertTrue(registry.get("b").tryStartReading(reader));
+        assertFalse(registry.get("a").tryStartReading(reader));
+        assertEquals(2, registry.size());
+
+        registry.get("a").stopWriting(writer);
+        registry.get("b").stopReading(reader);
+        assertTrue(registry.get("a").tryStartReading(reader));
+    }
+
+    @Test
+    void sameKeyKeepsLibrarySemantics() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(2, 10);
+        LibraryEngine library = registry.get(7);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                registry.get(7).startReading(reader);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        assertFalse(library.isInside(reader));
+
+        library.stopWriting(writer);
+        readerThread.join();
+        assertTrue(library.isInside(reader));
+        assertEquals(1, library.getOccupiedPlacesAmount());
+    }
+
+    @Test
+    void idleLibrariesAreEvictedOnlyBeyondTheLimit() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(1, 1);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        for (int key = 0; key < 100; key++) {
+            registry.get(key).startReading(reader);
+            registry.get(key).stopReading(reader);
+        }
+        assertEquals(1, registry.size());
+
+        registry.get(200).startReading(reader);
+        registry.get(201).startReading(reader);
+        assertEquals(3, registry.size());
+        assertEquals(1, registry.evictIdle());
+        assertTrue(registry.contains(200));
+        assertTrue(registry.contains(201));
+    }
+
+    @Test
+    void queuedCallbackPinsItsLibraryUntilItLeaves() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(1, 0);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        AtomicBoolean admitted = new AtomicBoolean();
+        registry.get(1).startWriting(writer);
+        assertTrue(registry.get(1).startReadingAsync(reader, () -> admitted.set(true)));
+
+        registry.get(1).stopWriting(writer);
+        assertTrue(admitted.get());
+        assertTrue(registry.contains(1));
+        registry.get(1).stopReading(reader);
+        assertFalse(registry.contains(1));
+
+        LibraryRegistry<Integer> striped = new LibraryRegistry<>(() -> new StripedLibrary(1,
+                NoOpEventSink.INSTANCE), 0);
+        assertFalse(striped.get(1).startReadingAsync(reader, () -> admitted.set(false)));
+        assertFalse(striped.contains(1));
+        assertTrue(striped.get(1).pollReading(reader));
+        assertFalse(striped.get(1).pollWriting(writer));
+        assertTrue(striped.contains(1));
+        striped.get(1).stopReading(reader);
+        assertFalse(striped.contains(1));
+        assertTrue(admitted.get());
+    }
+
+    @Test
+    void repeatedStopDoesNotDropAnotherParticipantsPin() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(2, 0);
+        Identifier reader1 = new Identifier(1, Identifier.READER);
+        Identifier reader2 = new Identifier(2, Identifier.READER);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        registry.get(1).startReading(reader1);
+        registry.get(1).startReading(reader2);
+
+        registry.get(1).stopReading(reader1);
+        registry.get(1).stopReading(reader1);
+        registry.get(1).stopWriting(reader2);
+        assertTrue(registry.contains(1));
+        assertEquals(0, registry.evictIdle());
+        assertFalse(registry.get(1).tryStartWriting(writer));
+        assertTrue(registry.get(1).isInside(reader2));
+
+        registry.get(1).stopReading(reader2);
+        assertFalse(registry.contains(1));
+        assertTrue(registry.get(1).tryStartWriting(writer));
+        assertFalse(registry.get(1).tryStartReading(reader1));
+        registry.get(1).stopWriting(writer);
+        assertFalse(registry.contains(1));
+    }
+
+    @Test
+    void waitingParticipantPinsItsLibrary() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(1, 0);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        registry.get(1).startWriting(writer);
+
+        assertFalse(registry.get(1).tryStartReading(reader, 10, TimeUnit.MILLISECONDS));
+        assertTrue(registry.contains(1));
+        assertEquals(0, registry.evictIdle());
+
+        registry.get(1).stopWriting(writer);
+        assertFalse(registry.contains(1));
+    }
+
+    @Test
+    void zipfPrefersLowKeysByItsExponent() {
+        RandomGenerator random = new SplittableRandom(3);
+        KeyDistribution zipf = new ZipfKeyDistribution(1000, 1.0);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 200_000; i++) {
+            counts[zipf.nextKey(random)]++;
+        }
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.1);
+        assertEquals(10.0, (double) counts[0] / counts[9], 1.0);
+        assertThrows(IllegalArgumentException.class, () -> new ZipfKeyDistribution(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new UniformKeyDistribution(0));
+    }
+}
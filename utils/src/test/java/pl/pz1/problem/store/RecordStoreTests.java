@@ -0,0 +1,70 @@
+package pl.pz1.problem.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.RecordAccessWorkload;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordStoreTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesAreReadBackThroughReadOnlyViewsAndKeptInFile() throws IOException, InterruptedException {
+        Path file = directory.resolve("records.bin");
+        Library library = new Library(2, NoOpEventSink.INSTANCE);
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        try (RecordStore store = new RecordStore(file, 4, 16)) {
+            GuardedRecordStore guarded = new GuardedRecordStore(library, store);
+            guarded.write(writer, 1, 2, view -> {
+                view.putLong(0, 7);
+                view.putLong(24, 11);
+            });
+            long sum = guarded.read(reader, 1, 2, view -> view.getLong(0) + view.getLong(24));
+            assertEquals(18, sum);
+            assertThrows(ReadOnlyBufferException.class,
+                    () -> guarded.read(reader, 0, 1, view -> view.putLong(0, 1)));
+            assertThrows(IndexOutOfBoundsException.class, () -> guarded.read(reader, 3, 2, ByteBuffer::capacity));
+            assertEquals(0, library.getOccupiedPlacesAmount());
+        }
+
+        assertEquals(64, Files.size(file));
+        try (RecordStore reopened = new RecordStore(file, 8, 16)) {
+            assertEquals(7, reopened.readView(1, 1).getLong(0));
+            assertEquals(11, reopened.readView(2, 1).getLong(8));
+            assertEquals(0, reopened.readView(7, 1).getLong(8));
+        }
+    }
+
+    @Test
+    void recordAccessWorkloadReadsWhatWritersWrote() throws IOException {
+        try (RecordStore store = new RecordStore(directory.resolve("records.bin"), 1, 20)) {
+            RecordAccessWorkload writers = new RecordAccessWorkload(WorkloadProfile.NO_SLEEP, store, 20, true);
+            RecordAccessWorkload readers = new RecordAccessWorkload(WorkloadProfile.NO_SLEEP, store, 20, false);
+            RandomGenerator random = new SeededRandomSource(1).forParticipant(new Identifier(1, Identifier.WRITER));
+
+            writers.visit(random);
+            readers.visit(random);
+            long value = store.readView(0, 1).getLong(0);
+            assertEquals(2 * value + (byte) value * 4, readers.getChecksum());
+            assertEquals(20, readers.getBytes());
+            assertEquals(0, readers.holdTime(random));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new RecordAccessWorkload(WorkloadProfile.NO_SLEEP, store, 21, false));
+        }
+    }
+}
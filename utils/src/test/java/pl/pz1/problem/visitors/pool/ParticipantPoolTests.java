@@ -0,0 +1,146 @@
+package pl.pz1.problem.visitors.pool;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.LibraryEngine;
+import pl.pz1.problem.engines.FairLibrary;
+import pl.pz1.problem.engines.LockFreeLibrary;
+import pl.pz1.problem.engines.StripedLibrary;
+import pl.pz1.problem.events.EventKind;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.registry.LibraryRegistry;
+import pl.pz1.problem.visitors.LibrarySelector;
+import pl.pz1.problem.visitors.identifier.Identifier;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+import pl.pz1.problem.visitors.workload.ConstantDistribution;
+import pl.pz1.problem.visitors.workload.WorkloadProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParticipantPoolTests {
+    private static final WorkloadProfile SHORT_VISITS = WorkloadProfile.of(
+            new ConstantDistribution(TimeUnit.MICROSECONDS.toNanos(100)),
+            new ConstantDistribution(TimeUnit.MICROSECONDS.toNanos(100)));
+
+    @Test
+    void manyParticipantsShareFewWorkers() throws InterruptedException {
+        Library library = new Library(3, NoOpEventSink.INSTANCE);
+        ParticipantPool pool = new ParticipantPool(2, LibrarySelector.of(library), new SeededRandomSource(1));
+        List<PooledParticipant> participants = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            participants.add(pool.addWriter(SHORT_VISITS));
+        }
+        for (int i = 0; i < 500; i++) {
+            participants.add(pool.addReader(SHORT_VISITS));
+        }
+
+        await().atMost(30, TimeUnit.SECONDS).until(() -> participants.stream()
+                .allMatch(participant -> participant.getFullEntriesCounter() > 0));
+        long workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("participants-"))
+                .count();
+        assertTrue(workers <= 2, "workers " + workers);
+
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertEquals(0, library.getQueueSize());
+        assertTrue(participants.stream().noneMatch(PooledParticipant::isInside));
+        assertThrows(IllegalStateException.class, () -> pool.addReader(SHORT_VISITS));
+    }
+
+    @Test
+    void enginesWithoutCallbacksAreAskedAgainQuietly() throws InterruptedException {
+        LongAdder refusals = new LongAdder();
+        StripedLibrary library = new StripedLibrary(2, (kind, identifier, writer, queueDepth, occupiedPlaces) -> {
+            if (kind == EventKind.TIMED_OUT) {
+                refusals.increment();
+            }
+        });
+        ParticipantPool pool = new ParticipantPool(1, LibrarySelector.of(library), new SeededRandomSource(2));
+        for (int i = 0; i < 2; i++) {
+            pool.addWriter(SHORT_VISITS);
+        }
+        for (int i = 0; i < 4; i++) {
+            pool.addReader(SHORT_VISITS);
+        }
+
+        await().atMost(10, TimeUnit.SECONDS).until(pool::getVisits, greaterThan(100L));
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, library.getOccupiedPlacesAmount());
+        assertEquals(0, refusals.sum());
+    }
+
+    @Test
+    void everyEngineWithCallbacksAdmitsWithoutAskingAgain() throws InterruptedException {
+        LibraryRegistry<Integer> registry = new LibraryRegistry<>(2, 4);
+        List<LibraryEngine> engines = List.of(new FairLibrary(2, NoOpEventSink.INSTANCE),
+                new LockFreeLibrary(2, NoOpEventSink.INSTANCE), registry.get(1));
+        for (LibraryEngine library : engines) {
+            Identifier writer = new Identifier(1, Identifier.WRITER);
+            Identifier reader = new Identifier(1, Identifier.READER);
+            AtomicBoolean admitted = new AtomicBoolean();
+            library.startWriting(writer);
+            assertTrue(library.startReadingAsync(reader, () -> admitted.set(true)));
+            assertFalse(admitted.get());
+            assertEquals(1, library.getQueueSize());
+
+            library.stopWriting(writer);
+            assertTrue(admitted.get());
+            assertTrue(library.isInside(reader));
+            library.stopReading(reader);
+
+            ParticipantPool pool = new ParticipantPool(1, LibrarySelector.of(library), new SeededRandomSource(4));
+            pool.addWriter(SHORT_VISITS);
+            for (int i = 0; i < 4; i++) {
+                pool.addReader(SHORT_VISITS);
+            }
+            await().atMost(10, TimeUnit.SECONDS).until(pool::getVisits, greaterThan(100L));
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(0, library.getOccupiedPlacesAmount());
+            assertEquals(0, library.getQueueSize());
+        }
+    }
+
+    @Test
+    void emptyPoolTerminatesAtOnce() throws InterruptedException {
+        ParticipantPool pool = new ParticipantPool(1, LibrarySelector.of(new Library(1, NoOpEventSink.INSTANCE)),
+                new SeededRandomSource(3));
+        assertFalse(pool.awaitTermination(10, TimeUnit.MILLISECONDS));
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ParticipantPool(0, null, null));
+    }
+
+    @Test
+    void identifiersCreatedConcurrentlyAreUnique() throws InterruptedException {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    ids.add(Identifier.next(Identifier.READER).getId());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8000, ids.size());
+    }
+}
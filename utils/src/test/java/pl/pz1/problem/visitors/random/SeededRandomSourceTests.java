@@ -0,0 +1,45 @@
+package pl.pz1.problem.visitors.random;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededRandomSourceTests {
+    @Test
+    void sameSeedReplaysSameSequenceOfEveryParticipant() {
+        Identifier reader = new Identifier(7, Identifier.READER);
+        Identifier writer = new Identifier(3, Identifier.WRITER);
+        SeededRandomSource first = new SeededRandomSource(42);
+        SeededRandomSource second = new SeededRandomSource(42);
+
+        RandomGenerator laterWriter = second.forParticipant(writer);
+        assertArrayEquals(draw(first.forParticipant(reader)), draw(second.forParticipant(reader)));
+        assertArrayEquals(draw(first.forParticipant(writer)), draw(laterWriter));
+    }
+
+    @Test
+    void participantsAndSeedsGetDifferentSequences() {
+        SeededRandomSource source = new SeededRandomSource(42);
+        long[] reader = draw(source.forParticipant(new Identifier(1, Identifier.READER)));
+        long[] writer = draw(source.forParticipant(new Identifier(1, Identifier.WRITER)));
+        long[] nextReader = draw(source.forParticipant(new Identifier(2, Identifier.READER)));
+        long[] otherSeed = draw(new SeededRandomSource(43).forParticipant(new Identifier(1, Identifier.READER)));
+
+        assertFalse(Arrays.equals(reader, writer));
+        assertFalse(Arrays.equals(reader, nextReader));
+        assertFalse(Arrays.equals(reader, otherSeed));
+        assertEquals(42, source.getMasterSeed());
+    }
+
+    private static long[] draw(RandomGenerator generator) {
+        long[] values = new long[16];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = generator.nextInt(501);
+        }
+        return values;
+    }
+}
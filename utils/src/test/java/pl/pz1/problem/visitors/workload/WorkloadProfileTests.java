@@ -0,0 +1,96 @@
+package pl.pz1.problem.visitors.workload;
+
+import static org.awaitility.Awaitility.await;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.visitors.LibrarySelector;
+import pl.pz1.problem.visitors.ReaderTask;
+import pl.pz1.problem.visitors.WriterTask;
+import pl.pz1.problem.visitors.random.SeededRandomSource;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadProfileTests {
+    private static final long MEAN = TimeUnit.MILLISECONDS.toNanos(1250);
+
+    @Test
+    void everyTypeKeepsTheMeanOfTheOriginalSimulation() {
+        for (WorkloadType type : new WorkloadType[] {WorkloadType.CONSTANT, WorkloadType.EXPONENTIAL}) {
+            assertEquals(MEAN, mean(type.profile(false)), MEAN * 0.05, type.name());
+        }
+        assertEquals(MEAN, mean(WorkloadType.UNIFORM.profile(false)), MEAN * 0.05);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2250), mean(WorkloadType.CONSTANT.profile(true)));
+        assertEquals(0, mean(WorkloadType.NONE.profile(true)));
+    }
+
+    @Test
+    void uniformStaysWithinBoundsAndParetoAboveScale() {
+        RandomGenerator random = new SplittableRandom(1);
+        Distribution uniform = new UniformDistribution(10, 20);
+        Distribution pareto = new ParetoDistribution(100, 1.5);
+        long longest = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long value = uniform.sample(random);
+            assertTrue(value >= 10 && value <= 20);
+            long tail = pareto.sample(random);
+            assertTrue(tail >= 100);
+            longest = Math.max(longest, tail);
+        }
+        assertTrue(longest > 100 * 100, "heavy tail expected, longest " + longest);
+        assertThrows(IllegalArgumentException.class, () -> new UniformDistribution(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ParetoDistribution(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialDistribution(0));
+    }
+
+    @Test
+    void traceReplaysVisitsOfRoleInOrderAndStartsOver() {
+        List<String> lines = List.of("# role hold think", "R 10 20", "W 30 40", "", "R 11 21");
+        WorkloadProfile readers = WorkloadTrace.parse(lines, false);
+        WorkloadProfile writers = WorkloadTrace.parse(lines, true);
+        RandomGenerator random = new SplittableRandom(1);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), readers.holdTime(random));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(11), readers.holdTime(random));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), readers.holdTime(random));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), readers.thinkTime(random));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(40), writers.thinkTime(random));
+
+        assertThrows(IllegalArgumentException.class, () -> WorkloadTrace.parse(List.of("X 1 2"), false));
+        assertThrows(IllegalArgumentException.class, () -> WorkloadTrace.parse(List.of("R 1 2"), true));
+    }
+
+    @Test
+    void noSleepWorkloadStressesLibrary() throws InterruptedException {
+        Library library = new Library(2, NoOpEventSink.INSTANCE);
+        SeededRandomSource source = new SeededRandomSource(1);
+        ReaderTask reader = new ReaderTask(LibrarySelector.of(library), source, WorkloadProfile.NO_SLEEP);
+        WriterTask writer = new WriterTask(LibrarySelector.of(library), source, WorkloadProfile.NO_SLEEP);
+        Thread readerThread = Thread.ofVirtual().start(reader);
+        Thread writerThread = Thread.ofVirtual().start(writer);
+
+        await().atMost(5, TimeUnit.SECONDS).until(reader::getFullEntriesCounter, greaterThan(1000));
+        await().atMost(5, TimeUnit.SECONDS).until(writer::getFullEntriesCounter, greaterThan(1000));
+        readerThread.interrupt();
+        writerThread.interrupt();
+        readerThread.join();
+        writerThread.join();
+    }
+
+    private static long mean(WorkloadProfile profile) {
+        RandomGenerator random = new SplittableRandom(42);
+        long sum = 0;
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            sum += profile.holdTime(random);
+        }
+        return sum / samples;
+    }
+}
@@ -0,0 +1,136 @@
+package pl.pz1.problem.waiting;
+
+import org.junit.jupiter.api.Test;
+import pl.pz1.problem.Library;
+import pl.pz1.problem.events.NoOpEventSink;
+import pl.pz1.problem.fairness.FifoPolicy;
+import pl.pz1.problem.metrics.LibraryMetrics;
+import pl.pz1.problem.visitors.identifier.Identifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitStrategyTests {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void adaptiveStrategySpinsOnlyWhileHoldingTimesAreShort() {
+        AdaptiveSpinWaitStrategy strategy = new AdaptiveSpinWaitStrategy(1000, true);
+        assertEquals(0, strategy.spinNanos());
+
+        for (int i = 0; i < 100; i++) {
+            strategy.released(400);
+        }
+        assertEquals(800, strategy.spinNanos(), 16);
+
+        for (int i = 0; i < 100; i++) {
+            strategy.released(10_000);
+        }
+        assertEquals(0, strategy.spinNanos());
+
+        for (int i = 0; i < 100; i++) {
+            strategy.released(700);
+        }
+        assertEquals(1000, strategy.spinNanos());
+    }
+
+    @Test
+    void adaptiveStrategyNeverSpinsOnSingleProcessor() {
+        AdaptiveSpinWaitStrategy strategy = new AdaptiveSpinWaitStrategy(1000, false);
+        strategy.released(100);
+        assertEquals(0, strategy.spinNanos());
+        assertEquals(0, WaitStrategyType.BLOCKING.create().spinNanos());
+    }
+
+    @Test
+    void spinningReaderIsAdmittedWithoutParking() throws InterruptedException {
+        Library library = spinningLibrary();
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startReading(reader);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        assertEquals(Thread.State.RUNNABLE, readerThread.getState());
+
+        library.stopWriting(writer);
+        readerThread.join();
+        assertTrue(library.isInside(reader));
+        assertEquals(0, library.getQueueSize());
+    }
+
+    @Test
+    void interruptedSpinningWriterGivesUp() throws InterruptedException {
+        Library library = spinningLibrary();
+        Identifier writer1 = new Identifier(1, Identifier.WRITER);
+        Identifier writer2 = new Identifier(2, Identifier.WRITER);
+        library.startWriting(writer1);
+
+        AtomicReference<InterruptedException> thrown = new AtomicReference<>();
+        Thread testThread = new Thread(() -> {
+            try {
+                library.startWriting(writer2);
+            }
+            catch (InterruptedException e) {
+                thrown.set(e);
+            }
+        });
+        testThread.start();
+        await().until(library::getQueueSize, equalTo(1));
+        testThread.interrupt();
+        testThread.join();
+
+        assertEquals("Pisarz 2 zrezygnował z czekania w kolejce.", thrown.get().getMessage());
+        assertEquals(0, library.getQueueSize());
+        assertFalse(library.isInside(writer2));
+    }
+
+    @Test
+    void spinningUpgradableReaderDoesNotHoldTheLock() throws InterruptedException {
+        Library library = spinningLibrary();
+        Identifier writer = new Identifier(1, Identifier.WRITER);
+        Identifier reader = new Identifier(1, Identifier.READER);
+        library.startWriting(writer);
+
+        Thread readerThread = new Thread(() -> {
+            try {
+                library.startUpgradableReading(reader);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        readerThread.start();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            await().until(library::getQueueSize, equalTo(1));
+            assertEquals(Thread.State.RUNNABLE, readerThread.getState());
+            library.stopWriting(writer);
+        });
+        readerThread.join();
+        assertTrue(library.isInside(reader));
+
+        library.upgrade(reader);
+        assertEquals(2, library.getOccupiedPlacesAmount());
+        library.stopWriting(reader);
+        assertEquals(0, library.getOccupiedPlacesAmount());
+    }
+
+    private static Library spinningLibrary() {
+        AdaptiveSpinWaitStrategy strategy = new AdaptiveSpinWaitStrategy(10 * SECOND, true);
+        strategy.released(40 * SECOND);
+        return new Library(2, new FifoPolicy(), NoOpEventSink.INSTANCE, new LibraryMetrics(), strategy);
+    }
+}